@@ -0,0 +1,78 @@
+package com.example.transferprojekt.benchmarks;
+
+import com.example.transferprojekt.dataclasses.Assignment;
+import com.example.transferprojekt.dataclasses.MilkDelivery;
+import com.example.transferprojekt.services.AssignmentIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Active assignment lookups as used by AssignmentService.getActiveSupplierNames()
+ * and for attributing deliveries to suppliers, with the former linear filter as baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ActiveSupplierNamesBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int deliveries;
+
+    private List<Assignment> assignments;
+    private AssignmentIndex index;
+    private LocalDate date;
+
+    private int[] supplierNrs;
+    private long[] epochDays;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        assignments = BenchmarkData.assignments(deliveries);
+        index = new AssignmentIndex(assignments);
+        date = BenchmarkData.lastDate(deliveries);
+
+        List<MilkDelivery> milkDeliveries = BenchmarkData.deliveries(deliveries);
+        supplierNrs = new int[milkDeliveries.size()];
+        epochDays = new long[milkDeliveries.size()];
+        for (int i = 0; i < milkDeliveries.size(); i++) {
+            supplierNrs[i] = milkDeliveries.get(i).getSupplierNumber().getId();
+            epochDays[i] = milkDeliveries.get(i).getDate().toEpochDay();
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, String> linearFilter() {
+        return assignments.stream()
+                .filter(a -> !a.getValidFrom().isAfter(date) &&
+                        (a.getValidTo() == null || !a.getValidTo().isBefore(date)))
+                .collect(Collectors.toMap(
+                        a -> a.getSupplierNumber().getId(),
+                        Assignment::getSupplierName,
+                        (existing, replacement) -> existing));
+    }
+
+    @Benchmark
+    public Map<Integer, Assignment> intervalIndex() {
+        return index.findActive(date);
+    }
+
+    /* Time per call is the time to attribute all deliveries of the dataset */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void attributeAllDeliveries(Blackhole blackhole) {
+        for (int i = 0; i < supplierNrs.length; i++) {
+            UUID supplierId = index.findSupplierId(supplierNrs[i], epochDays[i]);
+            blackhole.consume(supplierId);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.transferprojekt.benchmarks;
+
+import com.example.transferprojekt.dataclasses.Address;
+import com.example.transferprojekt.dataclasses.Assignment;
+import com.example.transferprojekt.dataclasses.Company;
+import com.example.transferprojekt.dataclasses.MilkDelivery;
+import com.example.transferprojekt.dataclasses.SupplierNumber;
+import com.example.transferprojekt.enumerations.TimeWindow;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Synthetic, reproducible datasets for the benchmarks.
+ * Shape: 400 supplier numbers delivering twice a day, starting 2015-01-01,
+ * each number reassigned to another supplier once a year.
+ */
+final class BenchmarkData {
+
+    static final int SUPPLIER_NUMBERS = 400;
+    static final LocalDate START_DATE = LocalDate.of(2015, 1, 1);
+
+    private static final long SEED = 42;
+
+    private BenchmarkData() {
+    }
+
+    static List<MilkDelivery> deliveries(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        SupplierNumber[] numbers = supplierNumbers();
+
+        List<MilkDelivery> deliveries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int slot = i % (2 * SUPPLIER_NUMBERS);
+            deliveries.add(new MilkDelivery(
+                    new UUID(random.nextLong(), random.nextLong()),
+                    BigDecimal.valueOf(random.nextInt(5_000, 60_000), 2),
+                    START_DATE.plusDays(i / (2 * SUPPLIER_NUMBERS)),
+                    numbers[slot % SUPPLIER_NUMBERS],
+                    slot < SUPPLIER_NUMBERS ? TimeWindow.MORGEN : TimeWindow.ABEND));
+        }
+        return deliveries;
+    }
+
+    /**
+     * One assignment per supplier number and year, covering the delivery dates
+     */
+    static List<Assignment> assignments(int deliveryCount) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        SupplierNumber[] numbers = supplierNumbers();
+        LocalDate lastDate = lastDate(deliveryCount);
+
+        List<Assignment> assignments = new ArrayList<>();
+        for (LocalDate from = START_DATE; !from.isAfter(lastDate); from = from.plusYears(1)) {
+            LocalDate to = from.plusYears(1).minusDays(1);
+            for (SupplierNumber number : numbers) {
+                assignments.add(new Assignment(
+                        new UUID(random.nextLong(), random.nextLong()),
+                        new UUID(0, random.nextInt(1, SUPPLIER_NUMBERS + 1)),
+                        "Lieferant " + number.getId(),
+                        number,
+                        from,
+                        to.isAfter(lastDate) ? null : to));
+            }
+        }
+        return assignments;
+    }
+
+    /**
+     * Suppliers with generated names and addresses from a few hundred surnames and towns
+     */
+    static List<Company> suppliers(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String[] surnames = {"Müller", "Meier", "Schmid", "Keller", "Weber", "Huber", "Schneider", "Meyer",
+                "Steiner", "Fischer", "Gerber", "Brunner", "Baumann", "Frei", "Zimmermann", "Moser"};
+        String[] towns = {"Bern", "Thun", "Burgdorf", "Langnau", "Solothurn", "Olten", "Langenthal", "Biel",
+                "Lyss", "Worb", "Konolfingen", "Huttwil", "Sumiswald", "Münsingen", "Belp", "Aarberg"};
+
+        List<Company> suppliers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String surname = surnames[random.nextInt(surnames.length)];
+            String town = towns[random.nextInt(towns.length)] + (i % 20 == 0 ? "" : " " + (i % 20));
+            suppliers.add(new Company(
+                    new UUID(random.nextLong(), random.nextLong()),
+                    surname.toLowerCase() + i + "@hof.ch",
+                    new Address("Hof " + surname + " " + i, "Dorfstrasse " + random.nextInt(1, 200),
+                            town, String.valueOf(random.nextInt(1000, 9999)))));
+        }
+        return suppliers;
+    }
+
+    static LocalDate lastDate(int deliveryCount) {
+        return START_DATE.plusDays(Math.max(0, deliveryCount - 1) / (2 * SUPPLIER_NUMBERS));
+    }
+
+    private static SupplierNumber[] supplierNumbers() {
+        SupplierNumber[] numbers = new SupplierNumber[SUPPLIER_NUMBERS];
+        for (int i = 0; i < SUPPLIER_NUMBERS; i++) {
+            numbers[i] = new SupplierNumber(i + 1);
+        }
+        return numbers;
+    }
+}
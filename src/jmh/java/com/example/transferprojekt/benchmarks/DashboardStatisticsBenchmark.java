@@ -0,0 +1,143 @@
+package com.example.transferprojekt.benchmarks;
+
+import com.example.transferprojekt.dataclasses.Assignment;
+import com.example.transferprojekt.dataclasses.DeliveryStatistics;
+import com.example.transferprojekt.dataclasses.MilkDelivery;
+import com.example.transferprojekt.services.DeliveryPrefixSums;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The in-memory statistics DashboardView computed before the aggregation moved into the database:
+ * kept as baseline for the column store and the prefix sums (DashboardView builds the latter from the daily rollup)
+ * and to compare List.contains with a Set lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class DashboardStatisticsBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int deliveries;
+
+    private List<MilkDelivery> allDeliveries;
+    private List<Assignment> allAssignments;
+    private UUID selectedSupplierId;
+    private DeliveryColumnStore columnStore;
+    private DeliveryPrefixSums prefixSums;
+    private BitSet selectedSupplierNumbers;
+    private List<Assignment> selectedAssignments;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        allDeliveries = BenchmarkData.deliveries(deliveries);
+        allAssignments = BenchmarkData.assignments(deliveries);
+        selectedSupplierId = allAssignments.getFirst().getSupplierId();
+
+        DeliveryColumnStore.Builder builder = DeliveryColumnStore.builder(allDeliveries.size());
+        for (MilkDelivery d : allDeliveries) {
+            builder.add(d.getSupplierNumber().getId(), d.getDate(), d.getTimeWindow(), d.getAmountKg());
+        }
+        columnStore = builder.build();
+        prefixSums = columnStore.toPrefixSums();
+        selectedSupplierNumbers = new BitSet();
+        allAssignments.stream()
+                .filter(a -> a.getSupplierId().equals(selectedSupplierId))
+                .forEach(a -> selectedSupplierNumbers.set(a.getSupplierNumber().getId()));
+        selectedAssignments = allAssignments.stream()
+                .filter(a -> a.getSupplierId().equals(selectedSupplierId))
+                .toList();
+
+        // The last year of the dataset, the typical dashboard period
+        toDate = BenchmarkData.lastDate(deliveries);
+        fromDate = toDate.minusYears(1).plusDays(1);
+    }
+
+    @Benchmark
+    public DeliveryStatistics allSuppliers() {
+        List<MilkDelivery> filtered = allDeliveries.stream()
+                .filter(d -> !d.getDate().isBefore(fromDate) && !d.getDate().isAfter(toDate))
+                .toList();
+        return toStatistics(filtered);
+    }
+
+    @Benchmark
+    public DeliveryStatistics selectedSupplierListContains() {
+        List<Integer> supplierNumbers = allAssignments.stream()
+                .filter(a -> a.getSupplierId().equals(selectedSupplierId))
+                .map(a -> a.getSupplierNumber().getId())
+                .toList();
+
+        List<MilkDelivery> filtered = allDeliveries.stream()
+                .filter(d -> supplierNumbers.contains(d.getSupplierNumber().getId()))
+                .filter(d -> !d.getDate().isBefore(fromDate) && !d.getDate().isAfter(toDate))
+                .toList();
+        return toStatistics(filtered);
+    }
+
+    @Benchmark
+    public DeliveryStatistics selectedSupplierSetLookup() {
+        Set<Integer> supplierNumbers = allAssignments.stream()
+                .filter(a -> a.getSupplierId().equals(selectedSupplierId))
+                .map(a -> a.getSupplierNumber().getId())
+                .collect(Collectors.toSet());
+
+        List<MilkDelivery> filtered = allDeliveries.stream()
+                .filter(d -> !d.getDate().isBefore(fromDate) && !d.getDate().isAfter(toDate))
+                .filter(d -> supplierNumbers.contains(d.getSupplierNumber().getId()))
+                .toList();
+        return toStatistics(filtered);
+    }
+
+    @Benchmark
+    public DeliveryStatistics columnStoreAllSuppliers() {
+        return columnStore.getStatistics(fromDate, toDate);
+    }
+
+    @Benchmark
+    public DeliveryStatistics columnStoreSelectedSupplier() {
+        return columnStore.getStatistics(fromDate, toDate, selectedSupplierNumbers);
+    }
+
+    @Benchmark
+    public DeliveryStatistics prefixSumsAllSuppliers() {
+        return prefixSums.getStatistics(fromDate, toDate);
+    }
+
+    @Benchmark
+    public DeliveryStatistics prefixSumsSelectedSupplierByAssignment() {
+        return prefixSums.getStatistics(fromDate, toDate, selectedAssignments);
+    }
+
+    @Benchmark
+    public Map<LocalDate, DeliveryStatistics> prefixSumsDailySeries() {
+        return prefixSums.getSeries(fromDate, toDate, DeliveryPrefixSums.Granularity.DAY, null);
+    }
+
+    @Benchmark
+    public DeliveryPrefixSums prefixSumsBuild() {
+        return columnStore.toPrefixSums();
+    }
+
+    /* updateStatistics(): count and BigDecimal reduce, average is derived by DeliveryStatistics */
+    private static DeliveryStatistics toStatistics(List<MilkDelivery> deliveries) {
+        BigDecimal total = deliveries.stream()
+                .map(MilkDelivery::getAmountKg)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new DeliveryStatistics((long) deliveries.size(), total);
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.transferprojekt.benchmarks;
+
+import com.example.transferprojekt.dataclasses.DeliveryStatistics;
+import com.example.transferprojekt.dataclasses.KgAmount;
+import com.example.transferprojekt.enumerations.TimeWindow;
+import com.example.transferprojekt.services.DeliveryPrefixSums;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Immutable columnar in-memory copy of milk deliveries for analytics.
+ * Each delivery is stored in parallel primitive arrays sorted by date, amounts as
+ * fixed-point hundredths of a kg (17 bytes per delivery instead of a MilkDelivery object graph), so period
+ * filters are binary searches and sums are tight loops without allocations.
+ *
+ * Was the dashboard's store of all raw deliveries; kept here as baseline of DashboardStatisticsBenchmark
+ * since the dashboard builds its prefix sums from the daily rollup of the period.
+ */
+public class DeliveryColumnStore {
+
+    private static final TimeWindow[] TIME_WINDOWS = TimeWindow.values();
+
+    private final int size;
+    private final int[] supplierNrs;
+    private final int[] epochDays;
+    private final long[] amountsHundredths;
+    private final byte[] timeWindows;
+
+    private DeliveryColumnStore(int size, int[] supplierNrs, int[] epochDays, long[] amountsHundredths, byte[] timeWindows) {
+        this.size = size;
+        this.supplierNrs = supplierNrs;
+        this.epochDays = epochDays;
+        this.amountsHundredths = amountsHundredths;
+        this.timeWindows = timeWindows;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    /**
+     * Count, total and average of all deliveries within a period
+     *
+     * @param fromDate First day of the period (inclusive)
+     * @param toDate Last day of the period (inclusive)
+     */
+    public DeliveryStatistics getStatistics(LocalDate fromDate, LocalDate toDate) {
+        int from = indexOfFirstDay(fromDate.toEpochDay());
+        int to = indexOfFirstDay(toDate.toEpochDay() + 1);
+
+        long hundredths = 0;
+        for (int i = from; i < to; i++) {
+            hundredths += amountsHundredths[i];
+        }
+        return toStatistics(Math.max(0, to - from), hundredths);
+    }
+
+    /**
+     * Count, total and average of the deliveries of some supplier numbers within a period
+     *
+     * @param fromDate First day of the period (inclusive)
+     * @param toDate Last day of the period (inclusive)
+     * @param supplierNrs The supplier numbers to include
+     */
+    public DeliveryStatistics getStatistics(LocalDate fromDate, LocalDate toDate, BitSet supplierNrs) {
+        int from = indexOfFirstDay(fromDate.toEpochDay());
+        int to = indexOfFirstDay(toDate.toEpochDay() + 1);
+
+        long count = 0;
+        long hundredths = 0;
+        for (int i = from; i < to; i++) {
+            if (supplierNrs.get(this.supplierNrs[i])) {
+                count++;
+                hundredths += amountsHundredths[i];
+            }
+        }
+        return toStatistics(count, hundredths);
+    }
+
+    /**
+     * Index of the first delivery on or after a day (binary search), size() if there is none
+     */
+    public int indexOfFirstDay(long epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getSupplierNr(int index) {
+        return supplierNrs[index];
+    }
+
+    public int getEpochDay(int index) {
+        return epochDays[index];
+    }
+
+    /**
+     * Amount in hundredths of a kilogram, see {@link KgAmount}
+     */
+    public long getAmountHundredths(int index) {
+        return amountsHundredths[index];
+    }
+
+    public TimeWindow getTimeWindow(int index) {
+        return TIME_WINDOWS[timeWindows[index]];
+    }
+
+    /**
+     * Builds the prefix sums in one pass over the (date sorted) deliveries, one row per delivery
+     */
+    public DeliveryPrefixSums toPrefixSums() {
+        if (size == 0) {
+            return DeliveryPrefixSums.builder(LocalDate.EPOCH, LocalDate.EPOCH.minusDays(1)).build();
+        }
+
+        DeliveryPrefixSums.Builder builder = DeliveryPrefixSums.builder(
+                LocalDate.ofEpochDay(epochDays[0]), LocalDate.ofEpochDay(epochDays[size - 1]));
+        for (int i = 0; i < size; i++) {
+            builder.add(supplierNrs[i], epochDays[i], 1, amountsHundredths[i]);
+        }
+        return builder.build();
+    }
+
+    private static DeliveryStatistics toStatistics(long count, long hundredths) {
+        return new DeliveryStatistics(count, KgAmount.ofHundredths(hundredths));
+    }
+
+    /**
+     * Collects the deliveries column by column. Input ordered by date is used as is,
+     * otherwise the columns are sorted once in build().
+     */
+    public static class Builder {
+
+        private int size;
+        private boolean sorted = true;
+        private int[] supplierNrs;
+        private int[] epochDays;
+        private long[] amountsHundredths;
+        private byte[] timeWindows;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            supplierNrs = new int[capacity];
+            epochDays = new int[capacity];
+            amountsHundredths = new long[capacity];
+            timeWindows = new byte[capacity];
+        }
+
+        public Builder add(int supplierNr, LocalDate date, TimeWindow timeWindow, BigDecimal amountKg) {
+            if (size == epochDays.length) {
+                grow();
+            }
+            int epochDay = Math.toIntExact(date.toEpochDay());
+            if (size > 0 && epochDay < epochDays[size - 1]) {
+                sorted = false;
+            }
+
+            supplierNrs[size] = supplierNr;
+            epochDays[size] = epochDay;
+            amountsHundredths[size] = KgAmount.toHundredths(amountKg);
+            timeWindows[size] = (byte) timeWindow.ordinal();
+            size++;
+            return this;
+        }
+
+        public DeliveryColumnStore build() {
+            if (!sorted) {
+                sortByDate();
+            }
+            return new DeliveryColumnStore(size,
+                    Arrays.copyOf(supplierNrs, size),
+                    Arrays.copyOf(epochDays, size),
+                    Arrays.copyOf(amountsHundredths, size),
+                    Arrays.copyOf(timeWindows, size));
+        }
+
+        private void grow() {
+            int capacity = epochDays.length + (epochDays.length >> 1);
+            supplierNrs = Arrays.copyOf(supplierNrs, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            amountsHundredths = Arrays.copyOf(amountsHundredths, capacity);
+            timeWindows = Arrays.copyOf(timeWindows, capacity);
+        }
+
+        /* Sorts (epoch day, original index) packed into one long, then permutes all columns */
+        private void sortByDate() {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = ((long) epochDays[i] << 32) | i;
+            }
+            Arrays.sort(keys);
+
+            int[] sortedSupplierNrs = new int[size];
+            int[] sortedEpochDays = new int[size];
+            long[] sortedAmounts = new long[size];
+            byte[] sortedTimeWindows = new byte[size];
+            for (int i = 0; i < size; i++) {
+                int index = (int) keys[i];
+                sortedSupplierNrs[i] = supplierNrs[index];
+                sortedEpochDays[i] = epochDays[index];
+                sortedAmounts[i] = amountsHundredths[index];
+                sortedTimeWindows[i] = timeWindows[index];
+            }
+            supplierNrs = sortedSupplierNrs;
+            epochDays = sortedEpochDays;
+            amountsHundredths = sortedAmounts;
+            timeWindows = sortedTimeWindows;
+            sorted = true;
+        }
+    }
+}
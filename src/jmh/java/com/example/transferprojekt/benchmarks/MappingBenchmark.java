@@ -0,0 +1,100 @@
+package com.example.transferprojekt.benchmarks;
+
+import com.example.transferprojekt.dataclasses.Assignment;
+import com.example.transferprojekt.dataclasses.MilkDelivery;
+import com.example.transferprojekt.jpa.entities.AssignmentEntity;
+import com.example.transferprojekt.jpa.entities.MilkDeliveryEntity;
+import com.example.transferprojekt.jpa.entities.SupplierEntity;
+import com.example.transferprojekt.jpa.entities.SupplierNrEntity;
+import com.example.transferprojekt.services.AssignmentService;
+import com.example.transferprojekt.services.MilkDeliveryService;
+import com.example.transferprojekt.services.SupplierNrService;
+import com.example.transferprojekt.services.SupplierService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity -> dataclass mapping of MilkDeliveryService and AssignmentService.
+ * The services are created without repositories, the mapping methods do not touch the database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class MappingBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int deliveries;
+
+    private MilkDeliveryService milkDeliveryService;
+    private AssignmentService assignmentService;
+
+    private List<MilkDeliveryEntity> deliveryEntities;
+    private List<AssignmentEntity> assignmentEntities;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SupplierNrService supplierNrService = new SupplierNrService(null, null);
+        milkDeliveryService = new MilkDeliveryService(null, supplierNrService, null, null, null);
+        assignmentService = new AssignmentService(null, new SupplierService(null, null), supplierNrService, null);
+
+        // One managed instance per supplier number, as within a persistence context
+        Map<Integer, SupplierNrEntity> supplierNrEntities = new HashMap<>();
+        deliveryEntities = new ArrayList<>(deliveries);
+        for (MilkDelivery delivery : BenchmarkData.deliveries(deliveries)) {
+            MilkDeliveryEntity entity = new MilkDeliveryEntity();
+            entity.setDeliveryId(delivery.getDeliveryId());
+            entity.setAmountKg(delivery.getAmountKg());
+            entity.setDate(delivery.getDate());
+            entity.setTimeWindow(delivery.getTimeWindow());
+            entity.setSupplierNr(supplierNrEntities.computeIfAbsent(delivery.getSupplierNumber().getId(), MappingBenchmark::supplierNrEntity));
+            deliveryEntities.add(entity);
+        }
+
+        Map<UUID, SupplierEntity> supplierEntities = new HashMap<>();
+        assignmentEntities = new ArrayList<>();
+        for (Assignment assignment : BenchmarkData.assignments(deliveries)) {
+            AssignmentEntity entity = new AssignmentEntity();
+            entity.setAssignmentId(assignment.getAssignmentId());
+            entity.setAssignmentStartDate(assignment.getValidFrom());
+            entity.setAssignmentEndDate(assignment.getValidTo());
+            entity.setSupplierNr(supplierNrEntities.computeIfAbsent(assignment.getSupplierNumber().getId(), MappingBenchmark::supplierNrEntity));
+            entity.setSupplierEntity(supplierEntities.computeIfAbsent(assignment.getSupplierId(), id -> {
+                SupplierEntity supplier = new SupplierEntity();
+                supplier.setSupplierId(id);
+                supplier.setName(assignment.getSupplierName());
+                return supplier;
+            }));
+            assignmentEntities.add(entity);
+        }
+    }
+
+    private static SupplierNrEntity supplierNrEntity(int supplierNr) {
+        SupplierNrEntity entity = new SupplierNrEntity();
+        entity.setSupplierNr(supplierNr);
+        return entity;
+    }
+
+    @Benchmark
+    public void mapMilkDeliveries(Blackhole blackhole) {
+        for (MilkDeliveryEntity entity : deliveryEntities) {
+            blackhole.consume(milkDeliveryService.mapToDataclass(entity));
+        }
+    }
+
+    @Benchmark
+    public void mapAssignments(Blackhole blackhole) {
+        for (AssignmentEntity entity : assignmentEntities) {
+            blackhole.consume(assignmentService.mapToDataclass(entity));
+        }
+    }
+}
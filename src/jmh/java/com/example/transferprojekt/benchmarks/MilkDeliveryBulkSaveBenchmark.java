@@ -0,0 +1,102 @@
+package com.example.transferprojekt.benchmarks;
+
+import com.example.transferprojekt.TransferprojektApplication;
+import com.example.transferprojekt.dataclasses.MilkDelivery;
+import com.example.transferprojekt.dataclasses.SupplierNumber;
+import com.example.transferprojekt.enumerations.TimeWindow;
+import com.example.transferprojekt.jpa.entities.MilkDeliveryEntity;
+import com.example.transferprojekt.jpa.repositories.MilkDeliveryRepository;
+import com.example.transferprojekt.services.DeliveryRollupService;
+import com.example.transferprojekt.services.MilkDeliveryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-row save path with the batched bulk save path, reported as time per row.
+ * Unlike the other benchmarks this one writes into the local database (application.yaml):
+ * the rows are dated 1900/1901 and removed together with their daily totals after each iteration.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(MilkDeliveryBulkSaveBenchmark.ROWS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MilkDeliveryBulkSaveBenchmark {
+
+    // One morning collection of 400 farms, repeated a few times
+    static final int ROWS = 2000;
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LAST_DATE = LocalDate.of(1901, 12, 31);
+
+    private ConfigurableApplicationContext context;
+    private MilkDeliveryService milkDeliveryService;
+    private MilkDeliveryRepository milkDeliveryRepository;
+    private DeliveryRollupService deliveryRollupService;
+
+    private List<MilkDelivery> perRowDeliveries;
+    private List<MilkDelivery> bulkDeliveries;
+    private final List<UUID> insertedIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(TransferprojektApplication.class).headless(true).run();
+        milkDeliveryService = context.getBean(MilkDeliveryService.class);
+        milkDeliveryRepository = context.getBean(MilkDeliveryRepository.class);
+        deliveryRollupService = context.getBean(DeliveryRollupService.class);
+
+        perRowDeliveries = createDeliveries(FIRST_DATE);
+        bulkDeliveries = createDeliveries(FIRST_DATE.plusYears(1));
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeInsertedRows() {
+        // The batch delete bypasses the service, so only the benchmark period is removed from the rollup
+        milkDeliveryRepository.deleteAllByIdInBatch(insertedIds);
+        deliveryRollupService.removePeriod(FIRST_DATE, LAST_DATE);
+        insertedIds.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UUID> saveEachRow() {
+        for (MilkDelivery milkDelivery : perRowDeliveries) {
+            insertedIds.add(milkDeliveryService.save(milkDelivery).getDeliveryId());
+        }
+        return insertedIds;
+    }
+
+    @Benchmark
+    public List<UUID> saveAll() {
+        for (MilkDeliveryEntity entity : milkDeliveryService.saveAll(bulkDeliveries)) {
+            insertedIds.add(entity.getDeliveryId());
+        }
+        return insertedIds;
+    }
+
+    private static List<MilkDelivery> createDeliveries(LocalDate startDate) {
+        List<MilkDelivery> deliveries = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            deliveries.add(new MilkDelivery(
+                    new BigDecimal("150.50"),
+                    startDate.plusDays(i / 400),
+                    new SupplierNumber(i % 10 + 1),
+                    TimeWindow.MORGEN));
+        }
+        return deliveries;
+    }
+}
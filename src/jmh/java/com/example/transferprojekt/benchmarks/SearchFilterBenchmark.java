@@ -0,0 +1,61 @@
+package com.example.transferprojekt.benchmarks;
+
+import com.example.transferprojekt.dataclasses.MilkDelivery;
+import com.example.transferprojekt.javafx.utils.SearchFilter;
+import com.example.transferprojekt.javafx.utils.SearchIndex;
+import com.example.transferprojekt.javafx.views.MilkDeliveryView;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The search field filtering of BaseView over milk deliveries, with the search text of MilkDeliveryView
+ * (MilkDeliveryView.searchText, the view itself needs a running JavaFX toolkit).
+ * filterDeliveries is the former per-keystroke filter (SearchFilter, a contains on the lower case text),
+ * searchIndex the search over pre-normalised texts and searchIndexNarrowed a search reusing the result
+ * of the text without its last character.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SearchFilterBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int deliveries;
+
+    // Supplier number, date prefix and a text that matches nothing
+    @Param({"117", "2015-03", "xyz"})
+    private String searchText;
+
+    private List<MilkDelivery> allDeliveries;
+    private SearchIndex<MilkDelivery> index;
+    private SearchIndex.Result shorterTextResult;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        allDeliveries = BenchmarkData.deliveries(deliveries);
+        index = new SearchIndex<>(MilkDeliveryView::searchText);
+        index.addAll(allDeliveries);
+        shorterTextResult = index.prepareSearch(searchText.substring(0, searchText.length() - 1), index.all()).call();
+    }
+
+    @Benchmark
+    public List<MilkDelivery> filterDeliveries() {
+        return SearchFilter.filter(allDeliveries, searchText,
+                (delivery, lowerCaseFilter) -> MilkDeliveryView.searchText(delivery).toLowerCase().contains(lowerCaseFilter));
+    }
+
+    @Benchmark
+    public List<MilkDelivery> searchIndex() throws Exception {
+        return index.toList(index.prepareSearch(searchText, index.all()).call());
+    }
+
+    @Benchmark
+    public List<MilkDelivery> searchIndexNarrowed() throws Exception {
+        return index.toList(index.prepareSearch(searchText, shorterTextResult).call());
+    }
+}
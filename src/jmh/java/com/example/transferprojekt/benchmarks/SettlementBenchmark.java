@@ -0,0 +1,136 @@
+package com.example.transferprojekt.benchmarks;
+
+import com.example.transferprojekt.dataclasses.Assignment;
+import com.example.transferprojekt.dataclasses.MilkPrice;
+import com.example.transferprojekt.dataclasses.PriceSurcharge;
+import com.example.transferprojekt.dataclasses.SupplierNumber;
+import com.example.transferprojekt.enumerations.TimeWindow;
+import com.example.transferprojekt.services.AssignmentIndex;
+import com.example.transferprojekt.services.PriceTable;
+import com.example.transferprojekt.services.SettlementCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory part of a monthly settlement run: attribute and value the delivery totals of a month
+ * (twice-daily deliveries of all supplier numbers), in parallel and on a single thread.
+ * Every tenth number changes hands in the middle of the month.
+ *
+ * The partition benchmarks settle the month the way SettlementService does, as partitions of
+ * PARTITION_NUMBERS supplier numbers: one after the other (before) and PARALLEL_PARTITIONS at a time
+ * (milkcalc.settlement.parallel-partitions), each partition still forking on the common pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SettlementBenchmark {
+
+    private static final YearMonth PERIOD = YearMonth.of(2025, 3);
+    private static final long SEED = 42;
+    // SettlementService.PARTITION_SIZE and the default of milkcalc.settlement.parallel-partitions
+    private static final int PARTITION_NUMBERS = 500;
+    private static final int PARALLEL_PARTITIONS = 4;
+
+    @Param({"500", "5000", "50000"})
+    private int suppliers;
+
+    private SettlementCalculator calculator;
+    private List<SettlementCalculator> partitions;
+    private AssignmentIndex assignments;
+    private PriceTable.Rates rates;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        LocalDate fromDate = PERIOD.atDay(1);
+        LocalDate toDate = PERIOD.atEndOfMonth();
+        LocalDate handOver = PERIOD.atDay(15);
+
+        SettlementCalculator.Builder builder = SettlementCalculator.builder(suppliers * PERIOD.lengthOfMonth() * 2);
+        partitions = new ArrayList<>();
+        SettlementCalculator.Builder partition = null;
+        List<Assignment> assignmentList = new ArrayList<>();
+        for (int supplierNr = 1; supplierNr <= suppliers; supplierNr++) {
+            if (supplierNr % PARTITION_NUMBERS == 1) {
+                if (partition != null) partitions.add(partition.build());
+                partition = SettlementCalculator.builder(PARTITION_NUMBERS * PERIOD.lengthOfMonth() * 2);
+            }
+            SupplierNumber number = new SupplierNumber(supplierNr);
+            if (supplierNr % 10 == 0) {
+                assignmentList.add(new Assignment(UUID.randomUUID(), new UUID(0, supplierNr), number, fromDate.minusYears(1), handOver.minusDays(1)));
+                assignmentList.add(new Assignment(UUID.randomUUID(), new UUID(1, supplierNr), number, handOver, null));
+            } else {
+                assignmentList.add(new Assignment(UUID.randomUUID(), new UUID(0, supplierNr), number, fromDate.minusYears(1), null));
+            }
+
+            for (LocalDate date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
+                for (TimeWindow timeWindow : TimeWindow.values()) {
+                    BigDecimal amountKg = BigDecimal.valueOf(random.nextInt(5_000, 60_000), 2);
+                    builder.add(supplierNr, date, timeWindow, 1, amountKg);
+                    partition.add(supplierNr, date, timeWindow, 1, amountKg);
+                }
+            }
+        }
+        partitions.add(partition.build());
+        calculator = builder.build();
+        executor = Executors.newFixedThreadPool(PARALLEL_PARTITIONS);
+        assignments = new AssignmentIndex(assignmentList);
+
+        PriceTable priceTable = new PriceTable(
+                List.of(new MilkPrice(fromDate.minusYears(1), null, new BigDecimal("0.7800"))),
+                List.of(new PriceSurcharge(TimeWindow.ABEND, fromDate.minusYears(1), null, new BigDecimal("0.0150"))));
+        rates = priceTable.ratesFor(fromDate, toDate);
+    }
+
+    @Benchmark
+    public SettlementCalculator.Result parallel() {
+        return calculator.calculate(assignments, rates);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public SettlementCalculator.Result singleThread() {
+        return calculator.calculateRange(assignments, rates, 0, calculator.size());
+    }
+
+    @Benchmark
+    public List<SettlementCalculator.Result> partitionsSequential() {
+        List<SettlementCalculator.Result> results = new ArrayList<>(partitions.size());
+        for (SettlementCalculator partition : partitions) {
+            results.add(partition.calculate(assignments, rates));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<SettlementCalculator.Result> partitionsConcurrent() throws Exception {
+        List<Future<SettlementCalculator.Result>> futures = new ArrayList<>(partitions.size());
+        for (SettlementCalculator partition : partitions) {
+            futures.add(executor.submit(() -> partition.calculate(assignments, rates)));
+        }
+        List<SettlementCalculator.Result> results = new ArrayList<>(futures.size());
+        for (Future<SettlementCalculator.Result> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.transferprojekt.benchmarks;
+
+import com.example.transferprojekt.dataclasses.Company;
+import com.example.transferprojekt.javafx.utils.SearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The search of SupplierView over a SearchIndex with trigram index, the scan without as baseline,
+ * and the update of a row after an edit. The search text mirrors SupplierView.getSearchText().
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SupplierSearchBenchmark {
+
+    @Param({"10000", "100000", "500000"})
+    private int suppliers;
+
+    // Part of a name, a town and a text that matches nothing
+    @Param({"hof müller 12", "langenthal", "xyz"})
+    private String searchText;
+
+    private SearchIndex<Company> scanIndex;
+    private SearchIndex<Company> trigramIndex;
+    // Original and edited version of a row, set alternately
+    private Company[] versions;
+    private int editedRow;
+    private int edits;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<Company> allSuppliers = BenchmarkData.suppliers(suppliers);
+        scanIndex = new SearchIndex<>(SupplierSearchBenchmark::searchText);
+        scanIndex.addAll(allSuppliers);
+        trigramIndex = new SearchIndex<>(SupplierSearchBenchmark::searchText, true);
+        trigramIndex.addAll(allSuppliers);
+
+        editedRow = suppliers / 2;
+        Company supplier = allSuppliers.get(editedRow);
+        versions = new Company[]{supplier, new Company(supplier.getCompanyId(), "neu@hof.ch", supplier.getAddress())};
+    }
+
+    @Benchmark
+    public SearchIndex.Result scan() throws Exception {
+        return scanIndex.prepareSearch(searchText, null).call();
+    }
+
+    @Benchmark
+    public SearchIndex.Result trigrams() throws Exception {
+        return trigramIndex.prepareSearch(searchText, null).call();
+    }
+
+    @Benchmark
+    public void editRow() {
+        trigramIndex.set(editedRow, versions[edits++ & 1]);
+    }
+
+    private static String searchText(Company supplier) {
+        return supplier.getAddress().getName() + "\n"
+                + supplier.getAddress().getStreet() + "\n"
+                + supplier.getAddress().getCity() + "\n"
+                + supplier.getAddress().getZip() + "\n"
+                + supplier.getMail();
+    }
+}
@@ -5,8 +5,10 @@ import com.example.transferprojekt.javafx.JavaFxInitializer;
 import javafx.application.Application;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TransferprojektApplication {
 
     public static void main(String[] args) {
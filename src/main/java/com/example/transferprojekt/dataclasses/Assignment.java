@@ -34,6 +34,11 @@ public class Assignment {
         this.validTo = validTo;
     }
 
+    /* constructor for projection queries (supplier number as plain column) */
+    public Assignment(UUID assignmentId, UUID supplierId, String supplierName, int supplierNumber, LocalDate validFrom, LocalDate validTo) {
+        this(assignmentId, supplierId, supplierName, new SupplierNumber(supplierNumber), validFrom, validTo);
+    }
+
     public Assignment(UUID assignmentId, UUID supplierId, SupplierNumber supplierNumber, LocalDate validFrom, LocalDate validTo) {
         this.assignmentId = assignmentId;
         this.supplierId = supplierId;
@@ -20,6 +20,11 @@ public class Company {
         this.address = address;
     }
 
+    /* constructor for projection queries (address as plain columns) */
+    public Company(UUID companyId, String mail, String name, String street, String city, String zip) {
+        this(companyId, mail, new Address(name, street, city, zip));
+    }
+
     public UUID getCompanyId() {
         return companyId;
     }
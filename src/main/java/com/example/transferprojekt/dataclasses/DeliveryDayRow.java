@@ -0,0 +1,40 @@
+package com.example.transferprojekt.dataclasses;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Flat, read-only row of the daily rollup: the deliveries of one supplier number on one day.
+ * Built directly by projection queries, so no entities are kept in the persistence context.
+ */
+public class DeliveryDayRow {
+
+    private final int supplierNumber;
+    private final LocalDate date;
+    private final long deliveryCount;
+    private final BigDecimal amountKg;
+
+    /* constructor for aggregate projection queries */
+    public DeliveryDayRow(int supplierNumber, LocalDate date, Long deliveryCount, BigDecimal amountKg) {
+        this.supplierNumber = supplierNumber;
+        this.date = date;
+        this.deliveryCount = deliveryCount != null ? deliveryCount : 0;
+        this.amountKg = amountKg;
+    }
+
+    public int getSupplierNumber() {
+        return supplierNumber;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public long getDeliveryCount() {
+        return deliveryCount;
+    }
+
+    public BigDecimal getAmountKg() {
+        return amountKg;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.transferprojekt.dataclasses;
+
+import com.example.transferprojekt.enumerations.TimeWindow;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Flat, read-only row of a milk delivery export.
+ * Built directly by projection queries, so no entities are kept in the persistence context.
+ */
+public class DeliveryExportRow {
+
+    private final UUID deliveryId;
+    private final int supplierNumber;
+    private final LocalDate date;
+    private final TimeWindow timeWindow;
+    private final BigDecimal amountKg;
+    private final String supplierName;
+
+    /* constructor for projection queries without supplier */
+    public DeliveryExportRow(UUID deliveryId, int supplierNumber, LocalDate date, TimeWindow timeWindow, BigDecimal amountKg) {
+        this(deliveryId, supplierNumber, date, timeWindow, amountKg, null);
+    }
+
+    /* constructor for projection queries joined to the active supplier */
+    public DeliveryExportRow(UUID deliveryId, int supplierNumber, LocalDate date, TimeWindow timeWindow, BigDecimal amountKg, String supplierName) {
+        this.deliveryId = deliveryId;
+        this.supplierNumber = supplierNumber;
+        this.date = date;
+        this.timeWindow = timeWindow;
+        this.amountKg = amountKg;
+        this.supplierName = supplierName;
+    }
+
+    public UUID getDeliveryId() {
+        return deliveryId;
+    }
+
+    public int getSupplierNumber() {
+        return supplierNumber;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public TimeWindow getTimeWindow() {
+        return timeWindow;
+    }
+
+    public BigDecimal getAmountKg() {
+        return amountKg;
+    }
+
+    public String getSupplierName() {
+        return supplierName;
+    }
+}
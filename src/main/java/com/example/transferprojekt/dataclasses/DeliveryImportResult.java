@@ -0,0 +1,67 @@
+package com.example.transferprojekt.dataclasses;
+
+import java.util.List;
+
+/**
+ * Outcome of a milk delivery CSV import.
+ * Only the first rejected lines are listed, all of them are counted.
+ */
+public class DeliveryImportResult {
+
+    private final long importedRows;
+    private final long rejectedRows;
+    private final List<RejectedLine> rejectedLines;
+
+    public DeliveryImportResult(long importedRows, long rejectedRows, List<RejectedLine> rejectedLines) {
+        this.importedRows = importedRows;
+        this.rejectedRows = rejectedRows;
+        this.rejectedLines = rejectedLines;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public List<RejectedLine> getRejectedLines() {
+        return rejectedLines;
+    }
+
+    @Override
+    public String toString() {
+        return "DeliveryImportResult{" +
+                "importedRows=" + importedRows +
+                ", rejectedRows=" + rejectedRows +
+                '}';
+    }
+
+    /**
+     * A line of the import file that was not imported, with the reason
+     */
+    public static class RejectedLine {
+
+        private final long lineNumber;
+        private final String reason;
+
+        public RejectedLine(long lineNumber, String reason) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Zeile " + lineNumber + ": " + reason;
+        }
+    }
+}
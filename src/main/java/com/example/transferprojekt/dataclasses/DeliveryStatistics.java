@@ -0,0 +1,57 @@
+package com.example.transferprojekt.dataclasses;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregated key figures (count, total, average) over a set of milk deliveries.
+ * Built directly by aggregate projection queries, so only these numbers cross the wire.
+ */
+public class DeliveryStatistics {
+
+    private final long deliveryCount;
+    private final KgAmount totalAmount;
+
+    /* constructor for aggregate projection queries (SUM is null when no rows match) */
+    public DeliveryStatistics(Long deliveryCount, BigDecimal totalAmountKg) {
+        this(deliveryCount != null ? deliveryCount : 0, KgAmount.of(totalAmountKg));
+    }
+
+    /* constructor for in-memory aggregation over fixed-point amounts */
+    public DeliveryStatistics(long deliveryCount, KgAmount totalAmount) {
+        this.deliveryCount = deliveryCount;
+        this.totalAmount = totalAmount;
+    }
+
+    public long getDeliveryCount() {
+        return deliveryCount;
+    }
+
+    public KgAmount getTotalAmount() {
+        return totalAmount;
+    }
+
+    public BigDecimal getTotalAmountKg() {
+        return totalAmount.toBigDecimal();
+    }
+
+    /**
+     * Average amount per delivery, rounded half up to two decimals like menge_kg.
+     * Derived from the exact sum instead of SQL AVG to avoid floating point results.
+     */
+    public KgAmount getAverageAmount() {
+        return totalAmount.average(deliveryCount);
+    }
+
+    public BigDecimal getAverageAmountKg() {
+        return getAverageAmount().toBigDecimal();
+    }
+
+    @Override
+    public String toString() {
+        return "DeliveryStatistics{" +
+                "deliveryCount=" + deliveryCount +
+                ", totalAmountKg=" + totalAmount +
+                ", averageAmountKg=" + getAverageAmount() +
+                '}';
+    }
+}
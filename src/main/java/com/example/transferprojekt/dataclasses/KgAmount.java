@@ -0,0 +1,122 @@
+package com.example.transferprojekt.dataclasses;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Exact amount in kilograms as fixed-point long of hundredths (0.01 kg).
+ * menge_kg is DECIMAL(10,2), so every stored amount converts without loss.
+ *
+ * Aggregations sum the raw hundredths with the static helpers, so hot loops
+ * do not allocate a BigDecimal per delivery. Conversion to and from BigDecimal
+ * only happens at the boundaries (entities, projection queries, display).
+ */
+public final class KgAmount implements Comparable<KgAmount> {
+
+    public static final KgAmount ZERO = new KgAmount(0);
+
+    private final long hundredths;
+
+    private KgAmount(long hundredths) {
+        this.hundredths = hundredths;
+    }
+
+    public static KgAmount ofHundredths(long hundredths) {
+        return hundredths == 0 ? ZERO : new KgAmount(hundredths);
+    }
+
+    /**
+     * @param amountKg Amount with at most two decimals, null is treated as zero
+     * @throws ArithmeticException if the amount has more than two decimals
+     */
+    public static KgAmount of(BigDecimal amountKg) {
+        return ofHundredths(toHundredths(amountKg));
+    }
+
+    /**
+     * Converts kg to hundredths without rounding (null is treated as zero)
+     *
+     * @throws ArithmeticException if the amount has more than two decimals
+     */
+    public static long toHundredths(BigDecimal amountKg) {
+        if (amountKg == null) {
+            return 0;
+        }
+        return amountKg.movePointRight(2).longValueExact();
+    }
+
+    /**
+     * Rounds kg half up to two decimals, as PostgreSQL does when storing into DECIMAL(10,2)
+     * (null stays null). Amounts entered or imported with more decimals are normalized with this
+     * before they reach the entity or the rollup.
+     */
+    public static BigDecimal round(BigDecimal amountKg) {
+        return amountKg == null ? null : amountKg.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Converts hundredths to kg with scale 2
+     */
+    public static BigDecimal toBigDecimal(long hundredths) {
+        return BigDecimal.valueOf(hundredths, 2);
+    }
+
+    /**
+     * Integer division rounding half up (away from zero), like BigDecimal with RoundingMode.HALF_UP
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += (dividend ^ divisor) < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    public long getHundredths() {
+        return hundredths;
+    }
+
+    public KgAmount plus(KgAmount other) {
+        return ofHundredths(Math.addExact(hundredths, other.hundredths));
+    }
+
+    public KgAmount minus(KgAmount other) {
+        return ofHundredths(Math.subtractExact(hundredths, other.hundredths));
+    }
+
+    /**
+     * Average per item, rounded half up to the hundredth
+     *
+     * @param count Number of items, zero returns zero
+     */
+    public KgAmount average(long count) {
+        return count == 0 ? ZERO : ofHundredths(divideHalfUp(hundredths, count));
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(hundredths);
+    }
+
+    @Override
+    public int compareTo(KgAmount other) {
+        return Long.compare(hundredths, other.hundredths);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof KgAmount amount)) return false;
+        return hundredths == amount.hundredths;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hundredths);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
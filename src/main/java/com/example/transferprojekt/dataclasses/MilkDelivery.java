@@ -30,6 +30,11 @@ public class MilkDelivery {
         this.timeWindow = timeWindow;
     }
 
+    /* constructor for projection queries (supplier number as plain column) */
+    public MilkDelivery(UUID deliveryId, BigDecimal amountKg, LocalDate date, int supplierNumber, TimeWindow timeWindow) {
+        this(deliveryId, amountKg, date, new SupplierNumber(supplierNumber), timeWindow);
+    }
+
     public UUID getDeliveryId() {
         return deliveryId;
     }
@@ -0,0 +1,69 @@
+package com.example.transferprojekt.dataclasses;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Base milk price per kg, valid from validFrom to validTo (inclusive, null = open-ended)
+ */
+public class MilkPrice {
+
+    private UUID priceId; // DB generated
+    private LocalDate validFrom, validTo;
+    private BigDecimal pricePerKg;
+
+    public MilkPrice(LocalDate validFrom, LocalDate validTo, BigDecimal pricePerKg) {
+        this.validFrom = validFrom;
+        this.validTo = validTo;
+        this.pricePerKg = pricePerKg;
+    }
+
+    /* constructor for existing DB objects */
+    public MilkPrice(UUID priceId, LocalDate validFrom, LocalDate validTo, BigDecimal pricePerKg) {
+        this(validFrom, validTo, pricePerKg);
+        this.priceId = priceId;
+    }
+
+    public UUID getPriceId() {
+        return priceId;
+    }
+
+    public void setPriceId(UUID priceId) {
+        this.priceId = priceId;
+    }
+
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(LocalDate validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public LocalDate getValidTo() {
+        return validTo;
+    }
+
+    public void setValidTo(LocalDate validTo) {
+        this.validTo = validTo;
+    }
+
+    public BigDecimal getPricePerKg() {
+        return pricePerKg;
+    }
+
+    public void setPricePerKg(BigDecimal pricePerKg) {
+        this.pricePerKg = pricePerKg;
+    }
+
+    @Override
+    public String toString() {
+        return "MilkPrice{" +
+                "UUID=" + priceId +
+                ", validFrom=" + validFrom +
+                ", validTo=" + validTo +
+                ", pricePerKg=" + pricePerKg +
+                '}';
+    }
+}
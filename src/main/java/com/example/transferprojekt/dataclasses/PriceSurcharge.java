@@ -0,0 +1,83 @@
+package com.example.transferprojekt.dataclasses;
+
+import com.example.transferprojekt.enumerations.TimeWindow;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Surcharge per kg (negative = deduction) for deliveries of one time window,
+ * valid from validFrom to validTo (inclusive, null = open-ended)
+ */
+public class PriceSurcharge {
+
+    private UUID surchargeId; // DB generated
+    private TimeWindow timeWindow;
+    private LocalDate validFrom, validTo;
+    private BigDecimal surchargePerKg;
+
+    public PriceSurcharge(TimeWindow timeWindow, LocalDate validFrom, LocalDate validTo, BigDecimal surchargePerKg) {
+        this.timeWindow = timeWindow;
+        this.validFrom = validFrom;
+        this.validTo = validTo;
+        this.surchargePerKg = surchargePerKg;
+    }
+
+    /* constructor for existing DB objects */
+    public PriceSurcharge(UUID surchargeId, TimeWindow timeWindow, LocalDate validFrom, LocalDate validTo, BigDecimal surchargePerKg) {
+        this(timeWindow, validFrom, validTo, surchargePerKg);
+        this.surchargeId = surchargeId;
+    }
+
+    public UUID getSurchargeId() {
+        return surchargeId;
+    }
+
+    public void setSurchargeId(UUID surchargeId) {
+        this.surchargeId = surchargeId;
+    }
+
+    public TimeWindow getTimeWindow() {
+        return timeWindow;
+    }
+
+    public void setTimeWindow(TimeWindow timeWindow) {
+        this.timeWindow = timeWindow;
+    }
+
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(LocalDate validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public LocalDate getValidTo() {
+        return validTo;
+    }
+
+    public void setValidTo(LocalDate validTo) {
+        this.validTo = validTo;
+    }
+
+    public BigDecimal getSurchargePerKg() {
+        return surchargePerKg;
+    }
+
+    public void setSurchargePerKg(BigDecimal surchargePerKg) {
+        this.surchargePerKg = surchargePerKg;
+    }
+
+    @Override
+    public String toString() {
+        return "PriceSurcharge{" +
+                "UUID=" + surchargeId +
+                ", timeWindow=" + timeWindow +
+                ", validFrom=" + validFrom +
+                ", validTo=" + validTo +
+                ", surchargePerKg=" + surchargePerKg +
+                '}';
+    }
+}
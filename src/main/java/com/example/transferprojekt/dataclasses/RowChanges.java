@@ -0,0 +1,80 @@
+package com.example.transferprojekt.dataclasses;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Rows of a table changed since a watermark (see ChangeTrackingService).
+ * Rows may be contained again that were already applied, applying them is idempotent.
+ *
+ * @param <T> The row type, UUID for the changed IDs only
+ */
+public class RowChanges<T> {
+
+    private final long watermark;
+    private final boolean reloadRequired;
+    private final List<T> changedRows;
+    private final Set<UUID> deletedIds;
+
+    public RowChanges(long watermark, List<T> changedRows, Set<UUID> deletedIds) {
+        this(watermark, false, changedRows, deletedIds);
+    }
+
+    private RowChanges(long watermark, boolean reloadRequired, List<T> changedRows, Set<UUID> deletedIds) {
+        this.watermark = watermark;
+        this.reloadRequired = reloadRequired;
+        this.changedRows = changedRows;
+        this.deletedIds = deletedIds;
+    }
+
+    /**
+     * The changes cannot be listed row by row (bulk change or cleaned up log), the table has to be reloaded
+     */
+    public static <T> RowChanges<T> reloadRequired(long watermark) {
+        return new RowChanges<>(watermark, true, List.of(), Set.of());
+    }
+
+    /**
+     * Same changes with other rows, e.g. the loaded rows of the changed IDs
+     */
+    public <R> RowChanges<R> withRows(List<R> rows) {
+        return new RowChanges<>(watermark, reloadRequired, rows, deletedIds);
+    }
+
+    /**
+     * Watermark for the next query of changes
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+
+    public boolean isReloadRequired() {
+        return reloadRequired;
+    }
+
+    /**
+     * Inserted or updated rows
+     */
+    public List<T> getChangedRows() {
+        return changedRows;
+    }
+
+    public Set<UUID> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public boolean isEmpty() {
+        return !reloadRequired && changedRows.isEmpty() && deletedIds.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "RowChanges{" +
+                "watermark=" + watermark +
+                ", reloadRequired=" + reloadRequired +
+                ", changedRows=" + changedRows.size() +
+                ", deletedIds=" + deletedIds.size() +
+                '}';
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.transferprojekt.dataclasses;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One position of a supplier statement: the deliveries of one supplier number
+ * attributed to the supplier within the settlement period, and their value.
+ * The value is kept in Rappen (0.01 CHF), rounded half up once per position.
+ */
+public class SettlementLine {
+
+    private final UUID supplierId;
+    private final int supplierNr;
+    private final long deliveryCount;
+    private final KgAmount amount;
+    private final long valueRappen;
+
+    public SettlementLine(UUID supplierId, int supplierNr, long deliveryCount, KgAmount amount, long valueRappen) {
+        this.supplierId = supplierId;
+        this.supplierNr = supplierNr;
+        this.deliveryCount = deliveryCount;
+        this.amount = amount;
+        this.valueRappen = valueRappen;
+    }
+
+    public UUID getSupplierId() {
+        return supplierId;
+    }
+
+    public int getSupplierNr() {
+        return supplierNr;
+    }
+
+    public long getDeliveryCount() {
+        return deliveryCount;
+    }
+
+    public KgAmount getAmount() {
+        return amount;
+    }
+
+    public long getValueRappen() {
+        return valueRappen;
+    }
+
+    public BigDecimal getValueChf() {
+        return BigDecimal.valueOf(valueRappen, 2);
+    }
+
+    @Override
+    public String toString() {
+        return "SettlementLine{" +
+                "supplierId=" + supplierId +
+                ", supplierNr=" + supplierNr +
+                ", deliveryCount=" + deliveryCount +
+                ", amount=" + amount +
+                ", valueChf=" + getValueChf() +
+                '}';
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.transferprojekt.dataclasses;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Result of a monthly milk money settlement: the statements of all suppliers
+ * and the deliveries that could not be attributed to a supplier (no assignment on that date).
+ */
+public class SettlementRun {
+
+    private final UUID runId;
+    private final YearMonth period;
+    private final LocalDateTime createdAt;
+    private final List<SupplierStatement> statements;
+    private final long unassignedDeliveryCount;
+    private final KgAmount unassignedAmount;
+
+    public SettlementRun(UUID runId, YearMonth period, LocalDateTime createdAt, List<SupplierStatement> statements,
+                         long unassignedDeliveryCount, KgAmount unassignedAmount) {
+        this.runId = runId;
+        this.period = period;
+        this.createdAt = createdAt;
+        this.statements = List.copyOf(statements);
+        this.unassignedDeliveryCount = unassignedDeliveryCount;
+        this.unassignedAmount = unassignedAmount;
+    }
+
+    public UUID getRunId() {
+        return runId;
+    }
+
+    public YearMonth getPeriod() {
+        return period;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<SupplierStatement> getStatements() {
+        return statements;
+    }
+
+    public long getUnassignedDeliveryCount() {
+        return unassignedDeliveryCount;
+    }
+
+    public KgAmount getUnassignedAmount() {
+        return unassignedAmount;
+    }
+
+    public long getDeliveryCount() {
+        return statements.stream().mapToLong(SupplierStatement::getDeliveryCount).sum();
+    }
+
+    public KgAmount getTotalAmount() {
+        return statements.stream().map(SupplierStatement::getTotalAmount).reduce(KgAmount.ZERO, KgAmount::plus);
+    }
+
+    public BigDecimal getTotalChf() {
+        return statements.stream().map(SupplierStatement::getTotalChf).reduce(BigDecimal.ZERO.setScale(2), BigDecimal::add);
+    }
+
+    @Override
+    public String toString() {
+        return "SettlementRun{" +
+                "runId=" + runId +
+                ", period=" + period +
+                ", statements=" + statements.size() +
+                ", deliveryCount=" + getDeliveryCount() +
+                ", totalAmount=" + getTotalAmount() +
+                ", totalChf=" + getTotalChf() +
+                ", unassignedDeliveryCount=" + unassignedDeliveryCount +
+                ", unassignedAmount=" + unassignedAmount +
+                '}';
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.transferprojekt.dataclasses;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Key figures of the deliveries attributed to one supplier.
+ * A delivery belongs to the supplier holding its supplier number on the delivery date.
+ */
+public class SupplierDeliveryStatistics extends DeliveryStatistics {
+
+    private final UUID supplierId;
+
+    /* constructor for aggregate projection queries */
+    public SupplierDeliveryStatistics(UUID supplierId, Long deliveryCount, BigDecimal totalAmountKg) {
+        super(deliveryCount, totalAmountKg);
+        this.supplierId = supplierId;
+    }
+
+    public UUID getSupplierId() {
+        return supplierId;
+    }
+
+    @Override
+    public String toString() {
+        return "SupplierDeliveryStatistics{" +
+                "supplierId=" + supplierId +
+                ", deliveryCount=" + getDeliveryCount() +
+                ", totalAmountKg=" + getTotalAmount() +
+                ", averageAmountKg=" + getAverageAmount() +
+                '}';
+    }
+}
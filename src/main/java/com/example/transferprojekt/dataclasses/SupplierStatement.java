@@ -0,0 +1,57 @@
+package com.example.transferprojekt.dataclasses;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Milk money statement of one supplier for a settlement period,
+ * with one line per supplier number the supplier held in that period.
+ */
+public class SupplierStatement {
+
+    private final UUID supplierId;
+    private final String supplierName;
+    private final List<SettlementLine> lines;
+
+    public SupplierStatement(UUID supplierId, String supplierName, List<SettlementLine> lines) {
+        this.supplierId = supplierId;
+        this.supplierName = supplierName;
+        this.lines = List.copyOf(lines);
+    }
+
+    public UUID getSupplierId() {
+        return supplierId;
+    }
+
+    public String getSupplierName() {
+        return supplierName;
+    }
+
+    public List<SettlementLine> getLines() {
+        return lines;
+    }
+
+    public long getDeliveryCount() {
+        return lines.stream().mapToLong(SettlementLine::getDeliveryCount).sum();
+    }
+
+    public KgAmount getTotalAmount() {
+        return KgAmount.ofHundredths(lines.stream().mapToLong(line -> line.getAmount().getHundredths()).sum());
+    }
+
+    public BigDecimal getTotalChf() {
+        return BigDecimal.valueOf(lines.stream().mapToLong(SettlementLine::getValueRappen).sum(), 2);
+    }
+
+    @Override
+    public String toString() {
+        return "SupplierStatement{" +
+                "supplierId=" + supplierId +
+                ", supplierName='" + supplierName + '\'' +
+                ", deliveryCount=" + getDeliveryCount() +
+                ", totalAmount=" + getTotalAmount() +
+                ", totalChf=" + getTotalChf() +
+                '}';
+    }
+}
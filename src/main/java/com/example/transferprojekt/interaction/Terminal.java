@@ -2,12 +2,28 @@ package com.example.transferprojekt.interaction;
 
 import com.example.transferprojekt.dataclasses.Address;
 import com.example.transferprojekt.dataclasses.Company;
+import com.example.transferprojekt.dataclasses.DeliveryImportResult;
+import com.example.transferprojekt.dataclasses.MilkPrice;
+import com.example.transferprojekt.dataclasses.PriceSurcharge;
+import com.example.transferprojekt.dataclasses.SettlementLine;
+import com.example.transferprojekt.dataclasses.SettlementRun;
+import com.example.transferprojekt.dataclasses.SupplierStatement;
+import com.example.transferprojekt.enumerations.TimeWindow;
 import com.example.transferprojekt.jpa.entities.SupplierEntity;
 import com.example.transferprojekt.services.AdminToolsService;
+import com.example.transferprojekt.services.DeliveryPartitionService;
+import com.example.transferprojekt.services.MilkDeliveryExportService;
+import com.example.transferprojekt.services.MilkDeliveryImportService;
+import com.example.transferprojekt.services.MilkPriceService;
+import com.example.transferprojekt.services.SettlementService;
 import com.example.transferprojekt.services.SupplierService;
 import com.example.transferprojekt.services.TestdataService;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Scanner;
 import java.util.UUID;
@@ -18,11 +34,24 @@ public class Terminal {
     private final AdminToolsService adminToolsService;
     private final SupplierService supplierService;
     private final TestdataService testdataService;
-
-    public Terminal(AdminToolsService adminToolsService, SupplierService supplierService, TestdataService testdataService) {
+    private final MilkDeliveryImportService milkDeliveryImportService;
+    private final MilkDeliveryExportService milkDeliveryExportService;
+    private final MilkPriceService milkPriceService;
+    private final SettlementService settlementService;
+    private final DeliveryPartitionService deliveryPartitionService;
+
+    public Terminal(AdminToolsService adminToolsService, SupplierService supplierService, TestdataService testdataService,
+                    MilkDeliveryImportService milkDeliveryImportService, MilkDeliveryExportService milkDeliveryExportService,
+                    MilkPriceService milkPriceService, SettlementService settlementService,
+                    DeliveryPartitionService deliveryPartitionService) {
         this.adminToolsService = adminToolsService;
         this.supplierService = supplierService;
         this.testdataService = testdataService;
+        this.milkDeliveryImportService = milkDeliveryImportService;
+        this.milkDeliveryExportService = milkDeliveryExportService;
+        this.milkPriceService = milkPriceService;
+        this.settlementService = settlementService;
+        this.deliveryPartitionService = deliveryPartitionService;
     }
 
     public void startTerminal() {
@@ -64,6 +93,30 @@ public class Terminal {
                         printFlushAllDataTables(input);
                         break;
 
+                    case 6:
+                        printImportDeliveries(input);
+                        break;
+
+                    case 7:
+                        printExportDeliveries(input);
+                        break;
+
+                    case 8:
+                        printRebuildDeliveryRollup();
+                        break;
+
+                    case 9:
+                        printAddMilkPrice(input);
+                        break;
+
+                    case 10:
+                        printRunSettlement(input);
+                        break;
+
+                    case 11:
+                        printDetachDeliveryYear(input);
+                        break;
+
                     case 0:
                         System.out.println("Shutting down");
                         break;
@@ -93,6 +146,12 @@ public class Terminal {
         System.out.println("3. Delete a supplier (by UUID)");
         System.out.println("4. Insert test data");
         System.out.println("5. Flush all data tables");
+        System.out.println("6. Import milk deliveries (CSV)");
+        System.out.println("7. Export milk deliveries (CSV)");
+        System.out.println("8. Rebuild daily delivery totals");
+        System.out.println("9. Add milk price / surcharge");
+        System.out.println("10. Run milk money settlement");
+        System.out.println("11. Detach milk deliveries of a year");
         System.out.println("0. Exit");
         System.out.print("Selection: ");
 
@@ -197,5 +256,162 @@ public class Terminal {
         adminToolsService.flushAllDataTables(key);
     }
 
+    private void printImportDeliveries(Scanner input){
+
+        System.out.println("Import milk deliveries");
+        System.out.println("Columns: supplier number; date; time window (MORGEN/ABEND); amount kg");
+        System.out.print("Enter file path: ");
+        String inputPath = input.nextLine();
+
+        try {
+            long start = System.currentTimeMillis();
+            DeliveryImportResult result = milkDeliveryImportService.importCsv(Path.of(inputPath.trim()));
+            long duration = System.currentTimeMillis() - start;
+
+            System.out.println("Imported rows: " + result.getImportedRows() + " (" + duration + " ms)");
+            System.out.println("Rejected rows: " + result.getRejectedRows());
+            result.getRejectedLines().forEach(line -> System.out.println("  " + line));
+            if (result.getRejectedRows() > result.getRejectedLines().size()) {
+                System.out.println("  ...");
+            }
+
+        } catch (Exception ex) {
+            System.out.println("Encountered an issue:");
+            System.out.println(ex.getMessage());
+            System.out.println("Aborting.");
+        }
+    }
+
+    private void printExportDeliveries(Scanner input){
+
+        System.out.println("Export milk deliveries");
+        try {
+            System.out.print("Enter file path: ");
+            Path path = Path.of(input.nextLine().trim());
+
+            System.out.print("From date (YYYY-MM-DD): ");
+            LocalDate fromDate = LocalDate.parse(input.nextLine().trim());
+
+            System.out.print("To date (YYYY-MM-DD): ");
+            LocalDate toDate = LocalDate.parse(input.nextLine().trim());
+
+            System.out.print("Include assigned supplier? (y/n): ");
+            boolean includeSupplier = input.nextLine().trim().equalsIgnoreCase("y");
+
+            long start = System.currentTimeMillis();
+            long count = milkDeliveryExportService.exportCsv(path, fromDate, toDate, includeSupplier);
+            long duration = System.currentTimeMillis() - start;
+            System.out.println("Exported rows: " + count + " (" + duration + " ms) to " + path.toAbsolutePath());
+
+        } catch (Exception ex) {
+            System.out.println("Encountered an issue:");
+            System.out.println(ex.getMessage());
+            System.out.println("Aborting.");
+        }
+    }
+
+    private void printRebuildDeliveryRollup(){
+
+        System.out.println("Rebuilding daily delivery totals from all milk deliveries...");
+        long start = System.currentTimeMillis();
+        int rows = adminToolsService.rebuildDeliveryRollup();
+        long duration = System.currentTimeMillis() - start;
+        System.out.println("Daily totals: " + rows + " (" + duration + " ms)");
+    }
+
+    private void printAddMilkPrice(Scanner input){
 
+        System.out.println("Add milk price");
+        try {
+            System.out.print("Valid from (YYYY-MM-DD): ");
+            LocalDate validFrom = LocalDate.parse(input.nextLine().trim());
+
+            System.out.print("Valid to (YYYY-MM-DD, empty = open): ");
+            String validToInput = input.nextLine().trim();
+            LocalDate validTo = validToInput.isEmpty() ? null : LocalDate.parse(validToInput);
+
+            System.out.print("Time window for a surcharge (MORGEN/ABEND, empty = base price): ");
+            String timeWindowInput = input.nextLine().trim();
+
+            System.out.print("CHF per kg (e.g. 0.7800): ");
+            BigDecimal perKg = new BigDecimal(input.nextLine().trim());
+
+            if (timeWindowInput.isEmpty()) {
+                milkPriceService.savePrice(new MilkPrice(validFrom, validTo, perKg));
+            } else {
+                TimeWindow timeWindow = TimeWindow.valueOf(timeWindowInput.toUpperCase());
+                milkPriceService.saveSurcharge(new PriceSurcharge(timeWindow, validFrom, validTo, perKg));
+            }
+
+            milkPriceService.getPrices().forEach(System.out::println);
+            milkPriceService.getSurcharges().forEach(System.out::println);
+
+        } catch (Exception ex) {
+            System.out.println("Encountered an issue:");
+            System.out.println(ex.getMessage());
+            System.out.println("Aborting.");
+        }
+    }
+
+    private void printRunSettlement(Scanner input){
+
+        System.out.println("Run milk money settlement");
+        try {
+            System.out.print("Month (YYYY-MM): ");
+            YearMonth period = YearMonth.parse(input.nextLine().trim());
+
+            long start = System.currentTimeMillis();
+            SettlementRun run = settlementService.runSettlement(period,
+                    (done, total, message) -> System.out.println("[" + done + "/" + total + "] " + message));
+            long duration = System.currentTimeMillis() - start;
+
+            for (SupplierStatement statement : run.getStatements()) {
+                System.out.println(statement.getSupplierName() + " (" + statement.getSupplierId() + ")");
+                for (SettlementLine line : statement.getLines()) {
+                    System.out.println("  Nr. " + line.getSupplierNr() + ": " + line.getDeliveryCount() + " deliveries, "
+                            + line.getAmount() + " kg, CHF " + line.getValueChf());
+                }
+                System.out.println("  Total: " + statement.getTotalAmount() + " kg, CHF " + statement.getTotalChf());
+            }
+            System.out.println("Statements: " + run.getStatements().size() + " (" + duration + " ms)");
+            System.out.println("Total: " + run.getDeliveryCount() + " deliveries, " + run.getTotalAmount()
+                    + " kg, CHF " + run.getTotalChf());
+            if (run.getUnassignedDeliveryCount() > 0) {
+                System.out.println("Not assigned to a supplier: " + run.getUnassignedDeliveryCount() + " deliveries, "
+                        + run.getUnassignedAmount() + " kg");
+            }
+
+        } catch (Exception ex) {
+            System.out.println("Encountered an issue:");
+            System.out.println(ex.getMessage());
+            System.out.println("Aborting.");
+        }
+    }
+
+    private void printDetachDeliveryYear(Scanner input){
+
+        System.out.println("Detach milk deliveries of a year (kept as separate tables, their daily totals are removed)");
+        try {
+            System.out.print("Year (YYYY): ");
+            int year = Integer.parseInt(input.nextLine().trim());
+
+            System.out.print("Detach all deliveries of " + year + "? (y/n): ");
+            if (!input.nextLine().trim().equalsIgnoreCase("y")) {
+                System.out.println("Aborting.");
+                return;
+            }
+
+            List<String> tables = deliveryPartitionService.detachYear(year);
+            if (tables.isEmpty()) {
+                System.out.println("No partitions found for " + year);
+            } else {
+                System.out.println("Detached: " + String.join(", ", tables));
+            }
+
+        } catch (Exception ex) {
+            System.out.println("Encountered an issue:");
+            System.out.println(ex.getMessage());
+            System.out.println("Aborting.");
+        }
+    }
 }
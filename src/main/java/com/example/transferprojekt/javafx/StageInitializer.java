@@ -16,19 +16,34 @@ public class StageInitializer implements ApplicationListener<StageReadyEvent> {
     private final MilkDeliveryService milkDeliveryService;
     private final TestdataService testdataService;
     private final AdminToolsService adminToolsService;
+    private final StatisticsService statisticsService;
+    private final MilkDeliveryImportService milkDeliveryImportService;
+    private final MilkDeliveryExportService milkDeliveryExportService;
+    private final MilkPriceService milkPriceService;
+    private final SettlementService settlementService;
 
     public StageInitializer(SupplierService supplierService,
                             AssignmentService assignmentService,
                             SupplierNrService supplierNrService,
                             MilkDeliveryService milkDeliveryService,
                             TestdataService testdataService,
-                            AdminToolsService adminToolsService) {
+                            AdminToolsService adminToolsService,
+                            StatisticsService statisticsService,
+                            MilkDeliveryImportService milkDeliveryImportService,
+                            MilkDeliveryExportService milkDeliveryExportService,
+                            MilkPriceService milkPriceService,
+                            SettlementService settlementService) {
         this.supplierService = supplierService;
         this.assignmentService = assignmentService;
         this.supplierNrService = supplierNrService;
         this.milkDeliveryService = milkDeliveryService;
         this.testdataService = testdataService;
         this.adminToolsService = adminToolsService;
+        this.statisticsService = statisticsService;
+        this.milkDeliveryImportService = milkDeliveryImportService;
+        this.milkDeliveryExportService = milkDeliveryExportService;
+        this.milkPriceService = milkPriceService;
+        this.settlementService = settlementService;
     }
 
     @Override
@@ -42,7 +57,12 @@ public class StageInitializer implements ApplicationListener<StageReadyEvent> {
                 supplierNrService,
                 milkDeliveryService,
                 testdataService,
-                adminToolsService
+                adminToolsService,
+                statisticsService,
+                milkDeliveryImportService,
+                milkDeliveryExportService,
+                milkPriceService,
+                settlementService
         );
 
         // Create scene with appropriate size
@@ -3,17 +3,15 @@ package com.example.transferprojekt.javafx.dialogs;
 import com.example.transferprojekt.dataclasses.Assignment;
 import com.example.transferprojekt.dataclasses.Company;
 import com.example.transferprojekt.dataclasses.SupplierNumber;
-import com.example.transferprojekt.javafx.utils.AsyncDatabaseTask;
 import com.example.transferprojekt.javafx.utils.DialogUtils;
-import com.example.transferprojekt.services.AssignmentService;
-import com.example.transferprojekt.services.SupplierService;
-import com.example.transferprojekt.services.SupplierNrService;
-import javafx.application.Platform;
+import com.example.transferprojekt.javafx.utils.ReferenceDataStore;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
+import javafx.util.Subscription;
 
 import java.time.LocalDate;
+import java.util.Map;
 import java.util.Optional;
 
 public class AssignmentDialog extends Dialog<Assignment> {
@@ -23,41 +21,32 @@ public class AssignmentDialog extends Dialog<Assignment> {
     private DatePicker validFromDatePicker;
     private DatePicker validToDatePicker;
 
-    private final SupplierService supplierService;
-    private final SupplierNrService supplierNrService;
-    private final AssignmentService assignmentService;
+    // Suppliers, numbers and assignments are taken from here, opening the dialog needs no database access
+    private final ReferenceDataStore referenceData;
 
     private final Assignment existingAssignment;
     private final boolean isEditMode;
+    // Set once the fields show the existing assignment, later reloads must not overwrite user input
+    private boolean fieldsPopulated;
 
-    private AssignmentDialog(SupplierService supplierService,
-                             SupplierNrService supplierNrService,
-                             AssignmentService assignmentService) {
-        this(null, supplierService, supplierNrService, assignmentService);
+    private AssignmentDialog(ReferenceDataStore referenceData) {
+        this(null, referenceData);
     }
 
-    private AssignmentDialog(Assignment existingAssignment,
-                             SupplierService supplierService,
-                             SupplierNrService supplierNrService,
-                             AssignmentService assignmentService) {
+    private AssignmentDialog(Assignment existingAssignment, ReferenceDataStore referenceData) {
         this.existingAssignment = existingAssignment;
-        this.supplierService = supplierService;
-        this.supplierNrService = supplierNrService;
-        this.assignmentService = assignmentService;
+        this.referenceData = referenceData;
         this.isEditMode = existingAssignment != null;
 
         setupDialog();
         createForm();
         setupValidation();
         setupResultConverter();
+        setupCellFactories();
 
-        // Load data asynchronously
-        loadSuppliersAsync();
-        loadSupplierNumbersAsync();
-
-        if (isEditMode) {
-            populateFieldsWhenDataLoaded();
-        }
+        // Called now and after every reload of the reference data while the dialog is open
+        Subscription subscription = referenceData.versionProperty().subscribe(version -> showReferenceData());
+        setOnHidden(event -> subscription.unsubscribe());
     }
 
     private void setupDialog() {
@@ -123,96 +112,102 @@ public class AssignmentDialog extends Dialog<Assignment> {
         supplierComboBox.requestFocus();
     }
 
-    private void loadSuppliersAsync() {
-        AsyncDatabaseTask.run(
-                supplierService::getDatabaseEntries,
-                getDialogPane(),
-                suppliers -> {
-                    supplierComboBox.getItems().addAll(suppliers);
-
-                    supplierComboBox.setCellFactory(param -> new ListCell<>() {
-                        @Override
-                        protected void updateItem(Company item, boolean empty) {
-                            super.updateItem(item, empty);
-                            if (empty || item == null) {
-                                setText(null);
-                            } else {
-                                setText(item.getAddress().getName() + " (" + item.getAddress().getCity() + ")");
-                            }
-                        }
-                    });
-
-                    supplierComboBox.setButtonCell(new ListCell<>() {
-                        @Override
-                        protected void updateItem(Company item, boolean empty) {
-                            super.updateItem(item, empty);
-                            if (empty || item == null) {
-                                setText(null);
-                            } else {
-                                setText(item.getAddress().getName() + " (" + item.getAddress().getCity() + ")");
-                            }
-                        }
-                    });
-
-                    supplierComboBox.setDisable(false);
-                },
-                error -> DialogUtils.showError("Fehler beim Laden", "Lieferanten konnten nicht geladen werden.\n" + error.getMessage())
-        );
+    private void setupCellFactories() {
+        supplierComboBox.setCellFactory(param -> new ListCell<>() {
+            @Override
+            protected void updateItem(Company item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    setText(item.getAddress().getName() + " (" + item.getAddress().getCity() + ")");
+                }
+            }
+        });
+
+        supplierComboBox.setButtonCell(new ListCell<>() {
+            @Override
+            protected void updateItem(Company item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    setText(item.getAddress().getName() + " (" + item.getAddress().getCity() + ")");
+                }
+            }
+        });
     }
 
-    private void loadSupplierNumbersAsync() {
-        AsyncDatabaseTask.run(
-                () -> {
-                    java.util.List<SupplierNumber> numbers = supplierNrService.getDatabaseEntries();
-                    java.util.Map<Integer, String> activeSuppliers = assignmentService.getActiveSupplierNames(LocalDate.now());
-                    return new Object[]{numbers, activeSuppliers};
-                },
-                getDialogPane(),
-                result -> {
-                    java.util.List<SupplierNumber> supplierNumbers = (java.util.List<SupplierNumber>) result[0];
-                    java.util.Map<Integer, String> activeSuppliers = (java.util.Map<Integer, String>) result[1];
-
-                    supplierNumberComboBox.getItems().clear();
-                    supplierNumberComboBox.getItems().addAll(supplierNumbers);
-
-                    supplierNumberComboBox.setCellFactory(param -> new ListCell<>() {
-                        @Override
-                        protected void updateItem(SupplierNumber item, boolean empty) {
-                            super.updateItem(item, empty);
-                            if (empty || item == null) {
-                                setText(null);
-                            } else {
-                                String supplierName = activeSuppliers.get(item.getId());
-                                if (supplierName != null) {
-                                    setText("Nr. " + item.getId() + " (" + supplierName + ")");
-                                } else {
-                                    setText("Nr. " + item.getId() + " (Keine aktive Zuweisung)");
-                                }
-                            }
-                        }
-                    });
-
-                    supplierNumberComboBox.setButtonCell(new ListCell<>() {
-                        @Override
-                        protected void updateItem(SupplierNumber item, boolean empty) {
-                            super.updateItem(item, empty);
-                            if (empty || item == null) {
-                                setText(null);
-                            } else {
-                                String supplierName = activeSuppliers.get(item.getId());
-                                if (supplierName != null) {
-                                    setText("Nr. " + item.getId() + " (" + supplierName + ")");
-                                } else {
-                                    setText("Nr. " + item.getId() + " (Keine aktive Zuweisung)");
-                                }
-                            }
-                        }
-                    });
-
-                    supplierNumberComboBox.setDisable(false);
-                },
-                error -> DialogUtils.showError("Fehler beim Laden", "Lieferantennummern konnten nicht geladen werden.\n" + error.getMessage())
-        );
+    private void showReferenceData() {
+        if (!referenceData.isLoaded()) {
+            return; // Shown once the first load is applied
+        }
+
+        // Reloads replace the instances, the selection is kept by ID
+        Company selectedSupplier = supplierComboBox.getValue();
+        SupplierNumber selectedSupplierNumber = supplierNumberComboBox.getValue();
+
+        supplierComboBox.getItems().setAll(referenceData.getSuppliers());
+        supplierNumberComboBox.getItems().setAll(referenceData.getSupplierNumbers());
+        showActiveSuppliers(referenceData.getActiveSupplierNames(LocalDate.now()));
+
+        if (selectedSupplier != null) {
+            supplierComboBox.setValue(referenceData.getSupplier(selectedSupplier.getCompanyId()));
+        }
+        if (selectedSupplierNumber != null) {
+            selectSupplierNumber(selectedSupplierNumber.getId());
+        }
+
+        supplierComboBox.setDisable(false);
+        supplierNumberComboBox.setDisable(false);
+
+        if (isEditMode && !fieldsPopulated) {
+            populateFields();
+            fieldsPopulated = true;
+        }
+    }
+
+    private void showActiveSuppliers(Map<Integer, String> activeSuppliers) {
+        supplierNumberComboBox.setCellFactory(param -> new ListCell<>() {
+            @Override
+            protected void updateItem(SupplierNumber item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    String supplierName = activeSuppliers.get(item.getId());
+                    if (supplierName != null) {
+                        setText("Nr. " + item.getId() + " (" + supplierName + ")");
+                    } else {
+                        setText("Nr. " + item.getId() + " (Keine aktive Zuweisung)");
+                    }
+                }
+            }
+        });
+
+        supplierNumberComboBox.setButtonCell(new ListCell<>() {
+            @Override
+            protected void updateItem(SupplierNumber item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    String supplierName = activeSuppliers.get(item.getId());
+                    if (supplierName != null) {
+                        setText("Nr. " + item.getId() + " (" + supplierName + ")");
+                    } else {
+                        setText("Nr. " + item.getId() + " (Keine aktive Zuweisung)");
+                    }
+                }
+            }
+        });
+    }
+
+    private void selectSupplierNumber(int supplierNrId) {
+        supplierNumberComboBox.getItems().stream()
+                .filter(sn -> sn.getId() == supplierNrId)
+                .findFirst()
+                .ifPresent(supplierNumberComboBox::setValue);
     }
 
     private void setupValidation() {
@@ -310,39 +305,10 @@ public class AssignmentDialog extends Dialog<Assignment> {
         return true;
     }
 
-    private void populateFieldsWhenDataLoaded() {
-        if (existingAssignment != null) {
-            // Wait for data to be loaded, then populate
-            new Thread(() -> {
-                // Wait max 5 seconds for data
-                for (int i = 0; i < 50; i++) {
-                    if (!supplierComboBox.getItems().isEmpty() &&
-                            !supplierNumberComboBox.getItems().isEmpty()) {
-                        Platform.runLater(this::populateFields);
-                        break;
-                    }
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException e) {
-                        break;
-                    }
-                }
-            }).start();
-        }
-    }
-
     private void populateFields() {
         if (existingAssignment != null) {
-            supplierComboBox.getItems().stream()
-                    .filter(c -> c.getCompanyId().equals(existingAssignment.getSupplierId()))
-                    .findFirst()
-                    .ifPresent(supplierComboBox::setValue);
-
-            int supplierNrId = existingAssignment.getSupplierNumber().getId();
-            supplierNumberComboBox.getItems().stream()
-                    .filter(sn -> sn.getId() == supplierNrId)
-                    .findFirst()
-                    .ifPresent(supplierNumberComboBox::setValue);
+            supplierComboBox.setValue(referenceData.getSupplier(existingAssignment.getSupplierId()));
+            selectSupplierNumber(existingAssignment.getSupplierNumber().getId());
 
             validFromDatePicker.setValue(existingAssignment.getValidFrom());
 
@@ -360,28 +326,7 @@ public class AssignmentDialog extends Dialog<Assignment> {
                 LocalDate validFrom = validFromDatePicker.getValue();
                 LocalDate validTo = validToDatePicker.getValue();
 
-                // Validation: Check for overlapping assignments
-                java.util.UUID excludeId = isEditMode ? existingAssignment.getAssignmentId() : null;
-
-                // Perform check synchronously (dialog blocks anyway)
-                boolean hasOverlap = assignmentService.hasOverlappingAssignment(
-                        selectedSupplierNumber.getId(),
-                        validFrom,
-                        validTo,
-                        excludeId
-                );
-
-                if (hasOverlap) {
-                    DialogUtils.showError(
-                            "Überschneidung erkannt",
-                            "Die Lieferantennummer " + selectedSupplierNumber.getId() +
-                                    " ist im gewählten Zeitraum bereits zugewiesen.",
-                            "Bitte wählen Sie eine andere Nummer oder passen Sie den Zeitraum an."
-                    );
-                    return null;
-                }
-
-                // Create assignment if validation passed
+                // Overlaps are rejected on save (exclusion constraint in the database)
                 if (isEditMode) {
                     return new Assignment(
                             existingAssignment.getAssignmentId(),
@@ -403,18 +348,13 @@ public class AssignmentDialog extends Dialog<Assignment> {
         });
     }
 
-    public static Optional<Assignment> showAddDialog(SupplierService supplierService,
-                                                     SupplierNrService supplierNrService,
-                                                     AssignmentService assignmentService) {
-        AssignmentDialog dialog = new AssignmentDialog(supplierService, supplierNrService, assignmentService);
+    public static Optional<Assignment> showAddDialog(ReferenceDataStore referenceData) {
+        AssignmentDialog dialog = new AssignmentDialog(referenceData);
         return dialog.showAndWait();
     }
 
-    public static Optional<Assignment> showEditDialog(Assignment assignment,
-                                                      SupplierService supplierService,
-                                                      SupplierNrService supplierNrService,
-                                                      AssignmentService assignmentService) {
-        AssignmentDialog dialog = new AssignmentDialog(assignment, supplierService, supplierNrService, assignmentService);
+    public static Optional<Assignment> showEditDialog(Assignment assignment, ReferenceDataStore referenceData) {
+        AssignmentDialog dialog = new AssignmentDialog(assignment, referenceData);
         return dialog.showAndWait();
     }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.example.transferprojekt.javafx.dialogs;
+
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Asks for the period (and options) of a milk delivery export.
+ */
+public class DeliveryExportDialog extends Dialog<DeliveryExportDialog.ExportSettings> {
+
+    private DatePicker fromDatePicker;
+    private DatePicker toDatePicker;
+    private CheckBox includeSupplierCheckBox;
+
+    private DeliveryExportDialog() {
+        setupDialog();
+        createForm();
+        setupValidation();
+        setupResultConverter();
+    }
+
+    private void setupDialog() {
+        setTitle("Milchlieferungen exportieren");
+        setHeaderText("Wählen Sie den Zeitraum für den Export:");
+
+        ButtonType exportButtonType = new ButtonType("Exportieren", ButtonBar.ButtonData.OK_DONE);
+        getDialogPane().getButtonTypes().addAll(exportButtonType, ButtonType.CANCEL);
+    }
+
+    private void createForm() {
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 150, 10, 10));
+
+        // Default: previous year, the typical year-end export
+        LocalDate lastYear = LocalDate.now().minusYears(1);
+
+        fromDatePicker = new DatePicker(lastYear.withDayOfYear(1));
+        fromDatePicker.setPrefWidth(150);
+        grid.add(new Label("Von:"), 0, 0);
+        grid.add(fromDatePicker, 1, 0);
+
+        toDatePicker = new DatePicker(lastYear.withMonth(12).withDayOfMonth(31));
+        toDatePicker.setPrefWidth(150);
+        grid.add(new Label("Bis:"), 0, 1);
+        grid.add(toDatePicker, 1, 1);
+
+        includeSupplierCheckBox = new CheckBox("Zugewiesenen Lieferanten mitexportieren");
+        includeSupplierCheckBox.setSelected(true);
+        grid.add(includeSupplierCheckBox, 1, 2);
+
+        getDialogPane().setContent(grid);
+    }
+
+    private void setupValidation() {
+        Button exportButton = (Button) getDialogPane().lookupButton(
+                getDialogPane().getButtonTypes().getFirst()
+        );
+
+        fromDatePicker.valueProperty().addListener((obs, oldVal, newVal) ->
+                exportButton.setDisable(!isFormValid())
+        );
+        toDatePicker.valueProperty().addListener((obs, oldVal, newVal) ->
+                exportButton.setDisable(!isFormValid())
+        );
+    }
+
+    private boolean isFormValid() {
+        return fromDatePicker.getValue() != null
+                && toDatePicker.getValue() != null
+                && !toDatePicker.getValue().isBefore(fromDatePicker.getValue());
+    }
+
+    private void setupResultConverter() {
+        setResultConverter(dialogButton -> {
+            if (dialogButton.getButtonData() == ButtonBar.ButtonData.OK_DONE) {
+                return new ExportSettings(
+                        fromDatePicker.getValue(),
+                        toDatePicker.getValue(),
+                        includeSupplierCheckBox.isSelected()
+                );
+            }
+            return null;
+        });
+    }
+
+    public static Optional<ExportSettings> showDialog() {
+        DeliveryExportDialog dialog = new DeliveryExportDialog();
+        return dialog.showAndWait();
+    }
+
+    /**
+     * The values chosen in the dialog
+     */
+    public static class ExportSettings {
+
+        private final LocalDate fromDate;
+        private final LocalDate toDate;
+        private final boolean includeSupplier;
+
+        public ExportSettings(LocalDate fromDate, LocalDate toDate, boolean includeSupplier) {
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+            this.includeSupplier = includeSupplier;
+        }
+
+        public LocalDate getFromDate() {
+            return fromDate;
+        }
+
+        public LocalDate getToDate() {
+            return toDate;
+        }
+
+        public boolean isIncludeSupplier() {
+            return includeSupplier;
+        }
+    }
+}
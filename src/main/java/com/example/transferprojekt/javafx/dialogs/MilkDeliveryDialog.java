@@ -1,22 +1,22 @@
 package com.example.transferprojekt.javafx.dialogs;
 
 import com.example.transferprojekt.dataclasses.Assignment;
+import com.example.transferprojekt.dataclasses.KgAmount;
 import com.example.transferprojekt.dataclasses.MilkDelivery;
 import com.example.transferprojekt.dataclasses.SupplierNumber;
 import com.example.transferprojekt.enumerations.TimeWindow;
-import com.example.transferprojekt.javafx.utils.AsyncDatabaseTask;
 import com.example.transferprojekt.javafx.utils.DialogUtils;
-import com.example.transferprojekt.services.AssignmentService;
-import com.example.transferprojekt.services.SupplierNrService;
-import javafx.application.Platform;
+import com.example.transferprojekt.javafx.utils.ReferenceDataStore;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
+import javafx.util.Subscription;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
 import java.util.Optional;
 
 public class MilkDeliveryDialog extends Dialog<MilkDelivery> {
@@ -26,20 +26,21 @@ public class MilkDeliveryDialog extends Dialog<MilkDelivery> {
     private ComboBox<TimeWindow> timeWindowComboBox;
     private TextField amountField;
 
-    private final SupplierNrService supplierNrService;
-    private final AssignmentService assignmentService;
+    // Supplier numbers and assignments are taken from here, opening the dialog needs no database access
+    private final ReferenceDataStore referenceData;
 
     private final MilkDelivery existingDelivery;
     private final boolean isEditMode;
+    // Set once the fields show the existing delivery, later reloads must not overwrite user input
+    private boolean fieldsPopulated;
 
-    private MilkDeliveryDialog(SupplierNrService supplierNrService, AssignmentService assignmentService) {
-        this(null, supplierNrService, assignmentService);
+    private MilkDeliveryDialog(ReferenceDataStore referenceData) {
+        this(null, referenceData);
     }
 
-    private MilkDeliveryDialog(MilkDelivery existingDelivery, SupplierNrService supplierNrService, AssignmentService assignmentService) {
+    private MilkDeliveryDialog(MilkDelivery existingDelivery, ReferenceDataStore referenceData) {
         this.existingDelivery = existingDelivery;
-        this.supplierNrService = supplierNrService;
-        this.assignmentService = assignmentService;
+        this.referenceData = referenceData;
         this.isEditMode = existingDelivery != null;
 
         setupDialog();
@@ -47,11 +48,9 @@ public class MilkDeliveryDialog extends Dialog<MilkDelivery> {
         setupValidation();
         setupResultConverter();
 
-        loadSupplierNumbersAsync();
-
-        if (isEditMode) {
-            populateFieldsWhenDataLoaded();
-        }
+        // Called now and after every reload of the reference data while the dialog is open
+        Subscription subscription = referenceData.versionProperty().subscribe(version -> showSupplierNumbers());
+        setOnHidden(event -> subscription.unsubscribe());
     }
 
     private void setupDialog() {
@@ -145,64 +144,72 @@ public class MilkDeliveryDialog extends Dialog<MilkDelivery> {
         supplierNumberComboBox.requestFocus();
     }
 
-    private void loadSupplierNumbersAsync() {
-        AsyncDatabaseTask.run(
-                () -> {
-                    java.util.List<SupplierNumber> numbers = supplierNrService.getDatabaseEntries();
-                    java.util.Map<Integer, String> activeSuppliers = assignmentService.getActiveSupplierNames(datePicker.getValue());
-                    return new Object[]{numbers, activeSuppliers};
-                },
-                getDialogPane(),
-                result -> {
-                    java.util.List<SupplierNumber> supplierNumbers = (java.util.List<SupplierNumber>) result[0];
-                    java.util.Map<Integer, String> activeSuppliers = (java.util.Map<Integer, String>) result[1];
-
-                    supplierNumberComboBox.getItems().clear();
-                    supplierNumberComboBox.getItems().addAll(supplierNumbers);
-
-                    supplierNumberComboBox.setCellFactory(param -> new ListCell<>() {
-                        @Override
-                        protected void updateItem(SupplierNumber item, boolean empty) {
-                            super.updateItem(item, empty);
-                            if (empty || item == null) {
-                                setText(null);
-                            } else {
-                                String supplierName = activeSuppliers.get(item.getId());
-                                if (supplierName != null) {
-                                    setText("Nr. " + item.getId() + " (" + supplierName + ")");
-                                } else {
-                                    setText("Nr. " + item.getId() + " (Keine aktive Zuweisung)");
-                                }
-                            }
-                        }
-                    });
-
-                    supplierNumberComboBox.setButtonCell(new ListCell<>() {
-                        @Override
-                        protected void updateItem(SupplierNumber item, boolean empty) {
-                            super.updateItem(item, empty);
-                            if (empty || item == null) {
-                                setText(null);
-                            } else {
-                                String supplierName = activeSuppliers.get(item.getId());
-                                if (supplierName != null) {
-                                    setText("Nr. " + item.getId() + " (" + supplierName + ")");
-                                } else {
-                                    setText("Nr. " + item.getId() + " (Keine aktive Zuweisung)");
-                                }
-                            }
-                        }
-                    });
-
-                    supplierNumberComboBox.setDisable(false);
-
-                    // If in edit mode, make sure the selection is correctly displayed
-                    if (isEditMode && existingDelivery != null) {
-                        populateFields();
+    private void showSupplierNumbers() {
+        if (!referenceData.isLoaded()) {
+            return; // Shown once the first load is applied
+        }
+
+        // Reloads replace the instances, the selection is kept by ID
+        SupplierNumber selected = supplierNumberComboBox.getValue();
+        supplierNumberComboBox.getItems().setAll(referenceData.getSupplierNumbers());
+        if (selected != null) {
+            selectSupplierNumber(selected.getId());
+        }
+
+        showActiveSuppliers();
+        supplierNumberComboBox.setDisable(false);
+
+        if (isEditMode && !fieldsPopulated) {
+            populateFields();
+            fieldsPopulated = true;
+        }
+    }
+
+    /* Labels the numbers with the supplier holding them on the selected date (calculated in memory) */
+    private void showActiveSuppliers() {
+        LocalDate date = datePicker.getValue();
+        Map<Integer, String> activeSuppliers = date != null ? referenceData.getActiveSupplierNames(date) : Map.of();
+
+        supplierNumberComboBox.setCellFactory(param -> new ListCell<>() {
+            @Override
+            protected void updateItem(SupplierNumber item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    String supplierName = activeSuppliers.get(item.getId());
+                    if (supplierName != null) {
+                        setText("Nr. " + item.getId() + " (" + supplierName + ")");
+                    } else {
+                        setText("Nr. " + item.getId() + " (Keine aktive Zuweisung)");
                     }
-                },
-                error -> DialogUtils.showError("Fehler beim Laden", "Lieferantennummern konnten nicht geladen werden.\n" + error.getMessage())
-        );
+                }
+            }
+        });
+
+        supplierNumberComboBox.setButtonCell(new ListCell<>() {
+            @Override
+            protected void updateItem(SupplierNumber item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    String supplierName = activeSuppliers.get(item.getId());
+                    if (supplierName != null) {
+                        setText("Nr. " + item.getId() + " (" + supplierName + ")");
+                    } else {
+                        setText("Nr. " + item.getId() + " (Keine aktive Zuweisung)");
+                    }
+                }
+            }
+        });
+    }
+
+    private void selectSupplierNumber(int supplierNrId) {
+        supplierNumberComboBox.getItems().stream()
+                .filter(sn -> sn.getId() == supplierNrId)
+                .findFirst()
+                .ifPresent(supplierNumberComboBox::setValue);
     }
 
     private void setupValidation() {
@@ -215,7 +222,7 @@ public class MilkDeliveryDialog extends Dialog<MilkDelivery> {
         });
         datePicker.valueProperty().addListener((obs, oldVal, newVal) -> {
             saveButton.setDisable(!isFormValid());
-            loadSupplierNumbersAsync();
+            showActiveSuppliers();
         });
         timeWindowComboBox.valueProperty().addListener((obs, oldVal, newVal) ->
                 saveButton.setDisable(!isFormValid())
@@ -271,38 +278,17 @@ public class MilkDeliveryDialog extends Dialog<MilkDelivery> {
         }
 
         try {
-            BigDecimal amount = new BigDecimal(text.trim());
+            // Saved rounded to two decimals, e.g. 0.004 would become 0
+            BigDecimal amount = KgAmount.round(new BigDecimal(text.trim()));
             return amount.compareTo(BigDecimal.ZERO) > 0;
         } catch (NumberFormatException e) {
             return false;
         }
     }
 
-    private void populateFieldsWhenDataLoaded() {
-        if (existingDelivery != null) {
-            new Thread(() -> {
-                for (int i = 0; i < 50; i++) {
-                    if (!supplierNumberComboBox.getItems().isEmpty()) {
-                        Platform.runLater(this::populateFields);
-                        break;
-                    }
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException e) {
-                        break;
-                    }
-                }
-            }).start();
-        }
-    }
-
     private void populateFields() {
         if (existingDelivery != null) {
-            int supplierNrId = existingDelivery.getSupplierNumber().getId();
-            supplierNumberComboBox.getItems().stream()
-                    .filter(sn -> sn.getId() == supplierNrId)
-                    .findFirst()
-                    .ifPresent(supplierNumberComboBox::setValue);
+            selectSupplierNumber(existingDelivery.getSupplierNumber().getId());
 
             datePicker.setValue(existingDelivery.getDate());
             timeWindowComboBox.setValue(existingDelivery.getTimeWindow());
@@ -358,16 +344,13 @@ public class MilkDeliveryDialog extends Dialog<MilkDelivery> {
         });
     }
 
-    public static Optional<MilkDelivery> showAddDialog(SupplierNrService supplierNrService,
-                                                       AssignmentService assignmentService) {
-        MilkDeliveryDialog dialog = new MilkDeliveryDialog(supplierNrService, assignmentService);
+    public static Optional<MilkDelivery> showAddDialog(ReferenceDataStore referenceData) {
+        MilkDeliveryDialog dialog = new MilkDeliveryDialog(referenceData);
         return dialog.showAndWait();
     }
 
-    public static Optional<MilkDelivery> showEditDialog(MilkDelivery delivery,
-                                                        SupplierNrService supplierNrService,
-                                                        AssignmentService assignmentService) {
-        MilkDeliveryDialog dialog = new MilkDeliveryDialog(delivery, supplierNrService, assignmentService);
+    public static Optional<MilkDelivery> showEditDialog(MilkDelivery delivery, ReferenceDataStore referenceData) {
+        MilkDeliveryDialog dialog = new MilkDeliveryDialog(delivery, referenceData);
         return dialog.showAndWait();
     }
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.example.transferprojekt.javafx.dialogs;
+
+import com.example.transferprojekt.enumerations.TimeWindow;
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Asks for a new milk price or time window surcharge.
+ * Without a time window the entry is a base price, otherwise a surcharge (negative = deduction).
+ */
+public class MilkPriceDialog extends Dialog<MilkPriceDialog.PriceInput> {
+
+    private static final String BASE_PRICE = "Grundpreis";
+
+    private ComboBox<String> typeComboBox;
+    private DatePicker validFromPicker;
+    private DatePicker validToPicker;
+    private TextField perKgField;
+
+    private MilkPriceDialog() {
+        setupDialog();
+        createForm();
+        setupValidation();
+        setupResultConverter();
+    }
+
+    private void setupDialog() {
+        setTitle("Milchpreis erfassen");
+        setHeaderText("Grundpreis oder Zuschlag pro kg erfassen:");
+
+        ButtonType saveButtonType = new ButtonType("Speichern", ButtonBar.ButtonData.OK_DONE);
+        getDialogPane().getButtonTypes().addAll(saveButtonType, ButtonType.CANCEL);
+    }
+
+    private void createForm() {
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 150, 10, 10));
+
+        typeComboBox = new ComboBox<>();
+        typeComboBox.getItems().add(BASE_PRICE);
+        for (TimeWindow timeWindow : TimeWindow.values()) {
+            typeComboBox.getItems().add(timeWindow.name());
+        }
+        typeComboBox.setValue(BASE_PRICE);
+        typeComboBox.setPrefWidth(150);
+        grid.add(new Label("Art / Zeitfenster:"), 0, 0);
+        grid.add(typeComboBox, 1, 0);
+
+        validFromPicker = new DatePicker(LocalDate.now().withDayOfMonth(1));
+        validFromPicker.setPrefWidth(150);
+        grid.add(new Label("Gültig ab:"), 0, 1);
+        grid.add(validFromPicker, 1, 1);
+
+        validToPicker = new DatePicker();
+        validToPicker.setPromptText("Optional");
+        validToPicker.setPrefWidth(150);
+        grid.add(new Label("Gültig bis:"), 0, 2);
+        grid.add(validToPicker, 1, 2);
+
+        perKgField = new TextField();
+        perKgField.setPromptText("z.B. 0.7800");
+        perKgField.setPrefWidth(150);
+        grid.add(new Label("CHF pro kg:"), 0, 3);
+        grid.add(perKgField, 1, 3);
+
+        getDialogPane().setContent(grid);
+    }
+
+    private void setupValidation() {
+        Button saveButton = (Button) getDialogPane().lookupButton(
+                getDialogPane().getButtonTypes().getFirst()
+        );
+        saveButton.setDisable(true);
+
+        validFromPicker.valueProperty().addListener((obs, oldVal, newVal) ->
+                saveButton.setDisable(!isFormValid())
+        );
+        validToPicker.valueProperty().addListener((obs, oldVal, newVal) ->
+                saveButton.setDisable(!isFormValid())
+        );
+        perKgField.textProperty().addListener((obs, oldVal, newVal) ->
+                saveButton.setDisable(!isFormValid())
+        );
+    }
+
+    private boolean isFormValid() {
+        if (validFromPicker.getValue() == null) {
+            return false;
+        }
+        if (validToPicker.getValue() != null && validToPicker.getValue().isBefore(validFromPicker.getValue())) {
+            return false;
+        }
+        return parsePerKg() != null;
+    }
+
+    private BigDecimal parsePerKg() {
+        try {
+            BigDecimal perKg = new BigDecimal(perKgField.getText().trim().replace(',', '.'));
+            return perKg.scale() <= 4 ? perKg : null;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private void setupResultConverter() {
+        setResultConverter(dialogButton -> {
+            if (dialogButton.getButtonData() == ButtonBar.ButtonData.OK_DONE) {
+                TimeWindow timeWindow = BASE_PRICE.equals(typeComboBox.getValue())
+                        ? null
+                        : TimeWindow.valueOf(typeComboBox.getValue());
+                return new PriceInput(timeWindow, validFromPicker.getValue(), validToPicker.getValue(), parsePerKg());
+            }
+            return null;
+        });
+    }
+
+    public static Optional<PriceInput> showDialog() {
+        MilkPriceDialog dialog = new MilkPriceDialog();
+        return dialog.showAndWait();
+    }
+
+    /**
+     * The values entered in the dialog
+     */
+    public static class PriceInput {
+
+        private final TimeWindow timeWindow;
+        private final LocalDate validFrom;
+        private final LocalDate validTo;
+        private final BigDecimal perKg;
+
+        public PriceInput(TimeWindow timeWindow, LocalDate validFrom, LocalDate validTo, BigDecimal perKg) {
+            this.timeWindow = timeWindow;
+            this.validFrom = validFrom;
+            this.validTo = validTo;
+            this.perKg = perKg;
+        }
+
+        /**
+         * @return The time window of a surcharge, null for a base price
+         */
+        public TimeWindow getTimeWindow() {
+            return timeWindow;
+        }
+
+        public LocalDate getValidFrom() {
+            return validFrom;
+        }
+
+        public LocalDate getValidTo() {
+            return validTo;
+        }
+
+        public BigDecimal getPerKg() {
+            return perKg;
+        }
+    }
+}
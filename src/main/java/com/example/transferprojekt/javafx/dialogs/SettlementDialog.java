@@ -0,0 +1,80 @@
+package com.example.transferprojekt.javafx.dialogs;
+
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
+
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Asks for the month of a milk money settlement.
+ */
+public class SettlementDialog extends Dialog<YearMonth> {
+
+    private ComboBox<Month> monthComboBox;
+    private Spinner<Integer> yearSpinner;
+
+    private SettlementDialog() {
+        setupDialog();
+        createForm();
+        setupResultConverter();
+    }
+
+    private void setupDialog() {
+        setTitle("Milchgeldabrechnung");
+        setHeaderText("Wählen Sie den abzurechnenden Monat:");
+
+        ButtonType runButtonType = new ButtonType("Abrechnen", ButtonBar.ButtonData.OK_DONE);
+        getDialogPane().getButtonTypes().addAll(runButtonType, ButtonType.CANCEL);
+    }
+
+    private void createForm() {
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 150, 10, 10));
+
+        // Default: previous month, the typical settlement at the beginning of a month
+        YearMonth previousMonth = YearMonth.now().minusMonths(1);
+
+        monthComboBox = new ComboBox<>();
+        monthComboBox.getItems().addAll(Month.values());
+        monthComboBox.setValue(previousMonth.getMonth());
+        monthComboBox.setCellFactory(param -> new ListCell<>() {
+            @Override
+            protected void updateItem(Month item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.getDisplayName(TextStyle.FULL, Locale.GERMAN));
+            }
+        });
+        monthComboBox.setButtonCell(monthComboBox.getCellFactory().call(null));
+        monthComboBox.setPrefWidth(150);
+        grid.add(new Label("Monat:"), 0, 0);
+        grid.add(monthComboBox, 1, 0);
+
+        yearSpinner = new Spinner<>(2000, 2100, previousMonth.getYear());
+        yearSpinner.setPrefWidth(150);
+        grid.add(new Label("Jahr:"), 0, 1);
+        grid.add(yearSpinner, 1, 1);
+
+        getDialogPane().setContent(grid);
+    }
+
+    private void setupResultConverter() {
+        setResultConverter(dialogButton -> {
+            if (dialogButton.getButtonData() == ButtonBar.ButtonData.OK_DONE) {
+                return YearMonth.of(yearSpinner.getValue(), monthComboBox.getValue());
+            }
+            return null;
+        });
+    }
+
+    public static Optional<YearMonth> showDialog() {
+        SettlementDialog dialog = new SettlementDialog();
+        return dialog.showAndWait();
+    }
+}
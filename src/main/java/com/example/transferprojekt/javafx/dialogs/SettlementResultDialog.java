@@ -0,0 +1,69 @@
+package com.example.transferprojekt.javafx.dialogs;
+
+import com.example.transferprojekt.dataclasses.SettlementRun;
+import com.example.transferprojekt.dataclasses.SupplierStatement;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.layout.VBox;
+
+import java.math.BigDecimal;
+import java.time.format.TextStyle;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Shows the statements of a settlement run, one row per supplier.
+ */
+public class SettlementResultDialog extends Dialog<Void> {
+
+    private SettlementResultDialog(SettlementRun run) {
+        String month = run.getPeriod().getMonth().getDisplayName(TextStyle.FULL, Locale.GERMAN) + " " + run.getPeriod().getYear();
+        setTitle("Milchgeldabrechnung " + month);
+        setHeaderText(run.getStatements().size() + " Abrechnungen, " + run.getDeliveryCount() + " Lieferungen, "
+                + String.format("%.2f kg, CHF %.2f", run.getTotalAmount().toBigDecimal(), run.getTotalChf()));
+        getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+
+        TableView<SupplierStatement> table = new TableView<>();
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        table.setPrefSize(750, 450);
+
+        TableColumn<SupplierStatement, String> nameCol = new TableColumn<>("Lieferant");
+        nameCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getSupplierName()));
+
+        TableColumn<SupplierStatement, String> numbersCol = new TableColumn<>("Lieferantennummern");
+        numbersCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getLines().stream()
+                .map(line -> String.valueOf(line.getSupplierNr()))
+                .collect(Collectors.joining(", "))));
+
+        TableColumn<SupplierStatement, Long> countCol = new TableColumn<>("Lieferungen");
+        countCol.setCellValueFactory(data -> new SimpleObjectProperty<>(data.getValue().getDeliveryCount()));
+
+        TableColumn<SupplierStatement, BigDecimal> amountCol = new TableColumn<>("Menge kg");
+        amountCol.setCellValueFactory(data -> new SimpleObjectProperty<>(data.getValue().getTotalAmount().toBigDecimal()));
+
+        TableColumn<SupplierStatement, BigDecimal> valueCol = new TableColumn<>("Betrag CHF");
+        valueCol.setCellValueFactory(data -> new SimpleObjectProperty<>(data.getValue().getTotalChf()));
+
+        table.getColumns().addAll(List.of(nameCol, numbersCol, countCol, amountCol, valueCol));
+        table.getItems().setAll(run.getStatements());
+
+        VBox content = new VBox(10, table);
+        content.setPadding(new Insets(10));
+        if (run.getUnassignedDeliveryCount() > 0) {
+            Label unassigned = new Label(String.format(
+                    "%d Lieferungen (%.2f kg) konnten keinem Lieferanten zugeordnet werden und wurden nicht abgerechnet.",
+                    run.getUnassignedDeliveryCount(), run.getUnassignedAmount().toBigDecimal()));
+            unassigned.setStyle("-fx-text-fill: #c62828;");
+            content.getChildren().add(unassigned);
+        }
+        getDialogPane().setContent(content);
+        setResizable(true);
+    }
+
+    public static void showDialog(SettlementRun run) {
+        new SettlementResultDialog(run).showAndWait();
+    }
+}
@@ -1,16 +1,25 @@
 package com.example.transferprojekt.javafx.utils;
 
+import com.example.transferprojekt.services.ProgressListener;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
 import javafx.scene.layout.Region;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Generic helper class for executing database operations asynchronously
  * to prevent GUI freezing during long-running operations.
  * Shows wait cursor during operation.
+ * The time from scheduling until the callback is recorded as milkcalc.ui.task (tag view).
+ * Operations taking a ProgressListener report their progress to the progress and message properties of the task.
+ * Tasks run on the shared, bounded {@link DatabaseTaskExecutor}; tasks started with a key replace
+ * their predecessor of the same key, whose callbacks are then never called.
  *
  * @param <T> The return type of the database operation
  */
@@ -18,6 +27,12 @@ public class AsyncDatabaseTask<T> extends Task<T> {
 
     private final Callable<T> databaseOperation;
 
+    // Start of the queue-to-completion measurement
+    private long scheduledNanos;
+
+    // Replaced by a newer task of the same key, the newer task takes over the cursor
+    private volatile boolean superseded;
+
     /**
      * Creates a new asynchronous database task
      *
@@ -27,6 +42,19 @@ public class AsyncDatabaseTask<T> extends Task<T> {
         this.databaseOperation = operation;
     }
 
+    /**
+     * Creates a new asynchronous database task reporting its progress
+     *
+     * @param operation The database operation, receives the listener updating progress and message
+     */
+    public AsyncDatabaseTask(Function<ProgressListener, T> operation) {
+        ProgressListener listener = (done, total, message) -> {
+            updateProgress(done, total);
+            updateMessage(message);
+        };
+        this.databaseOperation = () -> operation.apply(listener);
+    }
+
     @Override
     protected T call() throws Exception {
         return databaseOperation.call();
@@ -44,11 +72,34 @@ public class AsyncDatabaseTask<T> extends Task<T> {
             Consumer<T> onSuccess,
             Consumer<Throwable> onError
     ) {
+        execute(null, parent, onSuccess, onError);
+    }
+
+    /**
+     * Executes the database operation like {@link #executeWithProgress}, cancelling the previous
+     * task started with an equal key ("latest wins")
+     *
+     * @param key Identifies the result the task loads, e.g. the control displaying it
+     */
+    public void executeLatest(
+            Object key,
+            Region parent,
+            Consumer<T> onSuccess,
+            Consumer<Throwable> onError
+    ) {
+        execute(key, parent, onSuccess, onError);
+    }
+
+    private void execute(Object key, Region parent, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        String view = parent.getClass().getSimpleName();
+        scheduledNanos = System.nanoTime();
+
         // Change cursor to wait cursor
         Platform.runLater(() -> parent.setCursor(javafx.scene.Cursor.WAIT));
 
         // Handle success
         setOnSucceeded(event -> {
+            recordDuration(view, "success");
             Platform.runLater(() -> parent.setCursor(javafx.scene.Cursor.DEFAULT));
             if (onSuccess != null) {
                 @SuppressWarnings("unchecked")
@@ -59,6 +110,7 @@ public class AsyncDatabaseTask<T> extends Task<T> {
 
         // Handle failure
         setOnFailed(event -> {
+            recordDuration(view, "error");
             Platform.runLater(() -> parent.setCursor(javafx.scene.Cursor.DEFAULT));
             Throwable exception = event.getSource().getException();
             if (onError != null) {
@@ -66,10 +118,32 @@ public class AsyncDatabaseTask<T> extends Task<T> {
             }
         });
 
-        // Execute in background thread
-        Thread thread = new Thread(this);
-        thread.setDaemon(true);
-        thread.start();
+        // Cancelled: no callback, the result is discarded
+        setOnCancelled(event -> {
+            recordDuration(view, "cancelled");
+            if (!superseded) {
+                Platform.runLater(() -> parent.setCursor(javafx.scene.Cursor.DEFAULT));
+            }
+        });
+
+        // Execute on the shared executor
+        DatabaseTaskExecutor.submit(this, key);
+    }
+
+    /* Cancels the task because a newer task of the same key was submitted */
+    void supersede() {
+        superseded = true;
+        // Not interrupted: a running query finishes in the background, its result is dropped
+        cancel(false);
+    }
+
+    private void recordDuration(String view, String outcome) {
+        Timer.builder("milkcalc.ui.task")
+                .description("Time from scheduling a UI database operation until its result reaches the FX thread")
+                .tag("view", view)
+                .tag("outcome", outcome)
+                .register(Metrics.globalRegistry)
+                .record(System.nanoTime() - scheduledNanos, TimeUnit.NANOSECONDS);
     }
 
     /**
@@ -91,6 +165,50 @@ public class AsyncDatabaseTask<T> extends Task<T> {
         task.executeWithProgress(parent, onSuccess, onError);
     }
 
+    /**
+     * Static helper that cancels the previous task of the same key ("latest wins"),
+     * e.g. for reloads triggered by every change of an input field
+     *
+     * @param key Identifies the result the task loads, e.g. the control displaying it
+     * @param operation The database operation
+     * @param parent The parent region for loading overlay
+     * @param onSuccess Success callback, only called for the latest task of the key
+     * @param onError Error callback
+     * @param <T> Return type
+     */
+    public static <T> void runLatest(
+            Object key,
+            Callable<T> operation,
+            Region parent,
+            Consumer<T> onSuccess,
+            Consumer<Throwable> onError
+    ) {
+        AsyncDatabaseTask<T> task = new AsyncDatabaseTask<>(operation);
+        task.executeLatest(key, parent, onSuccess, onError);
+    }
+
+    /**
+     * Static helper for operations reporting their progress.
+     * The returned task can be used to bind a progress bar to progressProperty() and messageProperty().
+     *
+     * @param operation The database operation, receives the progress listener
+     * @param parent The parent region for loading overlay
+     * @param onSuccess Success callback
+     * @param onError Error callback
+     * @param <T> Return type
+     * @return The started task
+     */
+    public static <T> AsyncDatabaseTask<T> runWithProgress(
+            Function<ProgressListener, T> operation,
+            Region parent,
+            Consumer<T> onSuccess,
+            Consumer<Throwable> onError
+    ) {
+        AsyncDatabaseTask<T> task = new AsyncDatabaseTask<>(operation);
+        task.executeWithProgress(parent, onSuccess, onError);
+        return task;
+    }
+
     /**
      * Static helper for void operations (no return value)
      *
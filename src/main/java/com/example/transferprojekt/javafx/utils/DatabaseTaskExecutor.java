@@ -0,0 +1,126 @@
+package com.example.transferprojekt.javafx.utils;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared executor of all {@link AsyncDatabaseTask}s.
+ * Every task gets a virtual thread, but at most MAX_CONCURRENT tasks run at once; the others wait
+ * for a permit in submission order. A burst of UI events therefore cannot exhaust the connection pool.
+ *
+ * Tasks submitted with a key replace the previous task of that key ("latest wins"): the previous task
+ * is cancelled, a waiting one never runs and a running one finishes in the background without delivering
+ * its result, so stale results cannot overwrite newer ones.
+ *
+ * Queue depth and in-flight count are published as milkcalc.ui.tasks.queued and milkcalc.ui.tasks.in-flight.
+ */
+public final class DatabaseTaskExecutor {
+
+    // Below the connection pool size (10), so the UI leaves connections for the other callers
+    private static final int MAX_CONCURRENT = Integer.getInteger("milkcalc.ui.max-concurrent-tasks", 4);
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("db-task-", 0).factory());
+    private static final Semaphore PERMITS = new Semaphore(MAX_CONCURRENT, true);
+
+    private static final AtomicInteger QUEUED = new AtomicInteger();
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+
+    // The latest task per key, removed when it completes
+    private static final Map<Object, AsyncDatabaseTask<?>> LATEST_BY_KEY = new ConcurrentHashMap<>();
+
+    static {
+        Gauge.builder("milkcalc.ui.tasks.queued", QUEUED, AtomicInteger::get)
+                .description("UI database operations waiting for a permit")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("milkcalc.ui.tasks.in-flight", IN_FLIGHT, AtomicInteger::get)
+                .description("UI database operations currently running")
+                .register(Metrics.globalRegistry);
+    }
+
+    private DatabaseTaskExecutor() {
+    }
+
+    /**
+     * Schedules a task
+     *
+     * @param task The task to run
+     * @param key Tasks with an equal key replace each other, null for independent tasks
+     */
+    static void submit(AsyncDatabaseTask<?> task, Object key) {
+        if (key != null) {
+            AsyncDatabaseTask<?> previous = LATEST_BY_KEY.put(key, task);
+            if (previous != null) {
+                previous.supersede();
+            }
+        }
+
+        QUEUED.incrementAndGet();
+        EXECUTOR.execute(() -> run(task, key));
+    }
+
+    private static void run(AsyncDatabaseTask<?> task, Object key) {
+        try {
+            if (!acquire(task)) {
+                return;
+            }
+
+            IN_FLIGHT.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                IN_FLIGHT.decrementAndGet();
+                PERMITS.release();
+            }
+        } finally {
+            if (key != null) {
+                LATEST_BY_KEY.remove(key, task);
+            }
+        }
+    }
+
+    /* Waits for a permit, false if the task was cancelled meanwhile (then no permit is held) */
+    private static boolean acquire(AsyncDatabaseTask<?> task) {
+        try {
+            if (task.isCancelled()) {
+                return false;
+            }
+            PERMITS.acquireUninterruptibly();
+            if (task.isCancelled()) {
+                PERMITS.release();
+                return false;
+            }
+            return true;
+        } finally {
+            QUEUED.decrementAndGet();
+        }
+    }
+
+    /**
+     * Number of tasks waiting for a permit
+     */
+    public static int getQueuedCount() {
+        return QUEUED.get();
+    }
+
+    /**
+     * Number of tasks currently running
+     */
+    public static int getInFlightCount() {
+        return IN_FLIGHT.get();
+    }
+
+    /**
+     * Maximum number of tasks running at once (system property milkcalc.ui.max-concurrent-tasks)
+     */
+    public static int getMaxConcurrent() {
+        return MAX_CONCURRENT;
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.transferprojekt.javafx.utils;
+
+import com.example.transferprojekt.dataclasses.Assignment;
+import com.example.transferprojekt.dataclasses.Company;
+import com.example.transferprojekt.dataclasses.SupplierNumber;
+import com.example.transferprojekt.services.AssignmentIndex;
+import com.example.transferprojekt.services.AssignmentService;
+import com.example.transferprojekt.services.SupplierNrService;
+import com.example.transferprojekt.services.SupplierService;
+import javafx.beans.property.ReadOnlyLongProperty;
+import javafx.beans.property.ReadOnlyLongWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.layout.Region;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reference data shared by all views and dialogs of the GUI: suppliers, supplier numbers and assignments.
+ * Loaded once in the background; opening a dialog then needs no database access.
+ *
+ * Every applied load increments the version. Views and dialogs bind to the lists or subscribe to
+ * {@link #versionProperty()} to update derived data (e.g. the active supplier per number).
+ * The store reloads only after {@link #invalidate()} (writes of this client) or when {@link #refresh()}
+ * finds changes in the change log (e.g. writes of other clients).
+ *
+ * Only used on the FX thread.
+ */
+public class ReferenceDataStore {
+
+    private final SupplierService supplierService;
+    private final SupplierNrService supplierNrService;
+    private final AssignmentService assignmentService;
+    // Loading indicator of the loads
+    private final Region owner;
+
+    private final ObservableList<Company> suppliers = FXCollections.observableArrayList();
+    private final ObservableList<SupplierNumber> supplierNumbers = FXCollections.observableArrayList();
+    private Map<UUID, Company> suppliersById = Map.of();
+    private AssignmentIndex assignments = new AssignmentIndex(List.of());
+
+    private final ReadOnlyLongWrapper version = new ReadOnlyLongWrapper(this, "version");
+    // Change log watermark of the loaded data
+    private long watermark;
+    // Set by invalidate(), a refresh then reloads without asking the change log
+    private boolean stale = true;
+
+    private record Snapshot(long watermark, List<Company> suppliers, List<SupplierNumber> supplierNumbers,
+                            AssignmentIndex assignments) {
+    }
+
+    public ReferenceDataStore(SupplierService supplierService,
+                              SupplierNrService supplierNrService,
+                              AssignmentService assignmentService,
+                              Region owner) {
+        this.supplierService = supplierService;
+        this.supplierNrService = supplierNrService;
+        this.assignmentService = assignmentService;
+        this.owner = owner;
+    }
+
+    /**
+     * Reloads everything, called after writes of this client
+     */
+    public void invalidate() {
+        stale = true;
+        refresh();
+    }
+
+    /**
+     * Reloads if the suppliers, supplier numbers or assignments changed since the last load,
+     * otherwise the version stays
+     */
+    public void refresh() {
+        boolean reload = stale;
+        long since = watermark;
+
+        // Loads of this store replace each other, only the latest result is applied
+        AsyncDatabaseTask.runLatest(
+                this,
+                () -> reload || hasChangesSince(since) ? loadSnapshot() : null,
+                owner,
+                snapshot -> {
+                    if (snapshot != null) {
+                        apply(snapshot);
+                    }
+                },
+                error -> DialogUtils.showError("Fehler beim Laden",
+                        "Stammdaten konnten nicht geladen werden.\n" + error.getMessage())
+        );
+    }
+
+    private boolean hasChangesSince(long since) {
+        // Not short-circuited: each check drops the service cache of its table if it changed,
+        // so the reload below reads current data instead of a snapshot cached in this JVM
+        boolean suppliersChanged = !supplierService.getChangesSince(since).isEmpty();
+        boolean numbersChanged = supplierNrService.hasChangesSince(since);
+        // Assignments count as changed when their supplier changed, but suppliers without assignment do not
+        boolean assignmentsChanged = !assignmentService.getChangesSince(since).isEmpty();
+        return suppliersChanged || numbersChanged || assignmentsChanged;
+    }
+
+    private Snapshot loadSnapshot() {
+        // Read before loading, changes during the load are found by the next refresh
+        long loadWatermark = supplierService.getChangeWatermark();
+        return new Snapshot(
+                loadWatermark,
+                supplierService.getDatabaseEntries(),
+                supplierNrService.getDatabaseEntries(),
+                assignmentService.getAssignmentIndex());
+    }
+
+    private void apply(Snapshot snapshot) {
+        Map<UUID, Company> byId = new HashMap<>();
+        for (Company supplier : snapshot.suppliers()) {
+            byId.put(supplier.getCompanyId(), supplier);
+        }
+
+        suppliersById = byId;
+        assignments = snapshot.assignments();
+        watermark = snapshot.watermark();
+        stale = false;
+        suppliers.setAll(snapshot.suppliers());
+        supplierNumbers.setAll(snapshot.supplierNumbers());
+        version.set(version.get() + 1);
+    }
+
+    /**
+     * All suppliers, updated in place on every load
+     */
+    public ObservableList<Company> getSuppliers() {
+        return suppliers;
+    }
+
+    /**
+     * All supplier numbers sorted ascending, updated in place on every load
+     */
+    public ObservableList<SupplierNumber> getSupplierNumbers() {
+        return supplierNumbers;
+    }
+
+    /**
+     * Returns a supplier by ID
+     *
+     * @return The supplier or null if it does not exist (or is not loaded yet)
+     */
+    public Company getSupplier(UUID supplierId) {
+        return suppliersById.get(supplierId);
+    }
+
+    /**
+     * Names of the suppliers holding a number on a date, calculated from the loaded assignments
+     *
+     * @param date The date
+     * @return A map from supplier number to supplier name, numbers without assignment are missing
+     */
+    public Map<Integer, String> getActiveSupplierNames(LocalDate date) {
+        Map<Integer, String> names = new LinkedHashMap<>();
+        assignments.findActive(date).forEach((supplierNr, assignment) ->
+                names.put(supplierNr, getSupplierName(assignment)));
+        return names;
+    }
+
+    /**
+     * The assignments of a supplier from the loaded data
+     *
+     * @return The assignments, empty if the supplier has none (or nothing is loaded yet)
+     */
+    public List<Assignment> getAssignments(UUID supplierId) {
+        return assignments.findBySupplier(supplierId);
+    }
+
+    private String getSupplierName(Assignment assignment) {
+        Company supplier = suppliersById.get(assignment.getSupplierId());
+        return supplier != null ? supplier.getAddress().getName() : assignment.getSupplierName();
+    }
+
+    /**
+     * True once the first load has been applied
+     */
+    public boolean isLoaded() {
+        return version.get() > 0;
+    }
+
+    /**
+     * Incremented by every applied load, 0 before the first
+     */
+    public ReadOnlyLongProperty versionProperty() {
+        return version.getReadOnlyProperty();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+}
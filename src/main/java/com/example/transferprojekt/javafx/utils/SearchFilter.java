@@ -0,0 +1,34 @@
+package com.example.transferprojekt.javafx.utils;
+
+import java.util.List;
+import java.util.function.BiPredicate;
+
+/**
+ * Utility class for the search field filtering of the list views.
+ * Free of JavaFX types, so it can run on any thread and be benchmarked.
+ */
+public class SearchFilter {
+
+    /**
+     * Returns the items matching the search text
+     *
+     * @param items The items to filter
+     * @param searchText The text from the search field, blank returns all items
+     * @param matcher Called with each item and the lower case search text
+     * @return The matching items in their original order
+     */
+    public static <T> List<T> filter(List<T> items, String searchText, BiPredicate<T, String> matcher) {
+        if (isBlank(searchText)) {
+            return items;
+        }
+
+        String lowerCaseFilter = searchText.toLowerCase();
+        return items.stream()
+                .filter(item -> matcher.test(item, lowerCaseFilter))
+                .toList();
+    }
+
+    public static boolean isBlank(String searchText) {
+        return searchText == null || searchText.trim().isEmpty();
+    }
+}
@@ -0,0 +1,453 @@
+package com.example.transferprojekt.javafx.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * Search index of a list view: the searchable text of every row is normalised (lower case) once
+ * when the row is added, a search is then one String.contains per row.
+ * Free of JavaFX types, so searches can run on a background thread and be benchmarked.
+ *
+ * Optionally the index also keeps a trigram index: for every three characters of a text the sorted
+ * positions of the rows containing them. A query of three or more characters then only checks the rows
+ * found in the posting lists of all its trigrams instead of scanning every row.
+ *
+ * Rows are changed by one thread at a time (the FX thread once the index is shown). A search is prepared
+ * on that thread and works on the rows present at that moment; rows appended meanwhile are picked up by
+ * {@link #refresh(Result)}, after other changes it searches again. If the query only narrows the
+ * previous one (e.g. one more character), just the previous matches are checked again.
+ *
+ * @param <T> The row type
+ */
+public class SearchIndex<T> {
+
+    // Separates the fields of a search text, trigrams spanning two fields are not indexed
+    private static final char FIELD_SEPARATOR = '\n';
+
+    private final Function<T, String> searchText;
+    // Trigram -> sorted row positions, null without trigram index. The arrays are never modified
+    // once published, a change puts a new array, so running searches read a consistent list.
+    private final Map<Long, int[]> trigrams;
+
+    private Object[] rows = new Object[16];
+    private String[] texts = new String[16];
+    private int size;
+    // Incremented by insert, set and remove, results of an older state are searched again
+    private int modCount;
+
+    /**
+     * @param searchText The text of a row the search matches against, fields separated by a line break
+     */
+    public SearchIndex(Function<T, String> searchText) {
+        this(searchText, false);
+    }
+
+    /**
+     * @param searchText The text of a row the search matches against, fields separated by a line break
+     * @param trigramIndex Whether to keep a trigram index in addition to the texts
+     */
+    public SearchIndex(Function<T, String> searchText, boolean trigramIndex) {
+        this.searchText = searchText;
+        this.trigrams = trigramIndex ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Appends rows and normalises their text
+     */
+    public void addAll(Collection<? extends T> items) {
+        ensureCapacity(size + items.size());
+        int first = size;
+        for (T item : items) {
+            rows[size] = item;
+            texts[size] = normalize(searchText.apply(item));
+            size++;
+        }
+        if (trigrams != null) {
+            indexAppended(first);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > rows.length) {
+            // New arrays, running searches keep reading the old ones
+            int newCapacity = Math.max(capacity, rows.length + (rows.length >> 1));
+            rows = Arrays.copyOf(rows, newCapacity);
+            texts = Arrays.copyOf(texts, newCapacity);
+        }
+    }
+
+    /* Adds the rows from first to the posting lists, one new array per touched trigram */
+    private void indexAppended(int first) {
+        Map<Long, IntList> appended = new HashMap<>();
+        for (int row = first; row < size; row++) {
+            int position = row;
+            forEachTrigram(texts[row], trigram -> appended.computeIfAbsent(trigram, t -> new IntList()).addOnce(position));
+        }
+        appended.forEach((trigram, positions) -> {
+            int[] posting = trigrams.get(trigram);
+            if (posting == null) {
+                trigrams.put(trigram, positions.toArray());
+            } else {
+                // Appended rows have the highest positions, the list stays sorted
+                int[] merged = Arrays.copyOf(posting, posting.length + positions.size);
+                System.arraycopy(positions.values, 0, merged, posting.length, positions.size);
+                trigrams.put(trigram, merged);
+            }
+        });
+    }
+
+    /**
+     * Inserts a row before a position, e.g. to keep a sorted list sorted.
+     * The rows from there move up by one, with a trigram index all their postings are shifted.
+     */
+    public void insert(int position, T item) {
+        ensureCapacity(size + 1);
+        System.arraycopy(rows, position, rows, position + 1, size - position);
+        System.arraycopy(texts, position, texts, position + 1, size - position);
+        String text = normalize(searchText.apply(item));
+        rows[position] = item;
+        texts[position] = text;
+        size++;
+        if (trigrams != null) {
+            trigrams.replaceAll((trigram, posting) -> shift(posting, position));
+            reindex(position, null, text);
+        }
+        modCount++;
+    }
+
+    /* Posting list with the positions from position on moved up by one, the same array if there are none */
+    private static int[] shift(int[] posting, int position) {
+        if (posting[posting.length - 1] < position) {
+            return posting;
+        }
+        int[] shifted = posting.clone();
+        for (int i = 0; i < shifted.length; i++) {
+            if (shifted[i] >= position) shifted[i]++;
+        }
+        return shifted;
+    }
+
+    /**
+     * The row at a position, null if it was removed
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int row) {
+        return (T) rows[row];
+    }
+
+    /**
+     * Position of a row (same instance), -1 if it is not in the index
+     */
+    public int indexOf(T item) {
+        for (int row = 0; row < size; row++) {
+            if (rows[row] == item) return row;
+        }
+        return -1;
+    }
+
+    /**
+     * Replaces a row, e.g. with its saved version after an edit
+     */
+    public void set(int row, T item) {
+        String text = normalize(searchText.apply(item));
+        if (trigrams != null) {
+            reindex(row, texts[row], text);
+        }
+        rows[row] = item;
+        texts[row] = text;
+        modCount++;
+    }
+
+    /**
+     * Removes a row, the positions of the other rows stay unchanged
+     */
+    public void remove(int row) {
+        if (trigrams != null) {
+            reindex(row, texts[row], null);
+        }
+        rows[row] = null;
+        texts[row] = null;
+        modCount++;
+    }
+
+    /* Moves a row from the posting lists of its old text to those of its new text (null when removed) */
+    private void reindex(int row, String oldText, String newText) {
+        Set<Long> oldTrigrams = new HashSet<>();
+        Set<Long> newTrigrams = new HashSet<>();
+        forEachTrigram(oldText, oldTrigrams::add);
+        forEachTrigram(newText, newTrigrams::add);
+
+        for (Long trigram : oldTrigrams) {
+            if (newTrigrams.contains(trigram)) continue;
+            int[] posting = trigrams.get(trigram);
+            int found = posting != null ? Arrays.binarySearch(posting, row) : -1;
+            if (found < 0) continue;
+            if (posting.length == 1) {
+                trigrams.remove(trigram);
+            } else {
+                int[] reduced = new int[posting.length - 1];
+                System.arraycopy(posting, 0, reduced, 0, found);
+                System.arraycopy(posting, found + 1, reduced, found, posting.length - found - 1);
+                trigrams.put(trigram, reduced);
+            }
+        }
+        for (Long trigram : newTrigrams) {
+            if (oldTrigrams.contains(trigram)) continue;
+            int[] posting = trigrams.getOrDefault(trigram, new int[0]);
+            int insert = Arrays.binarySearch(posting, row);
+            if (insert >= 0) continue;
+            insert = -insert - 1;
+            int[] extended = new int[posting.length + 1];
+            System.arraycopy(posting, 0, extended, 0, insert);
+            extended[insert] = row;
+            System.arraycopy(posting, insert, extended, insert + 1, posting.length - insert);
+            trigrams.put(trigram, extended);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Result showing all rows (blank search text)
+     */
+    public Result all() {
+        return new Result(this, null, null, 0, size, modCount);
+    }
+
+    /**
+     * Prepares a search over the rows added so far. Call on the thread changing the index,
+     * the returned operation can then run on any thread.
+     *
+     * @param text The text from the search field
+     * @param previous The result currently shown, reused if the new text only narrows it
+     */
+    public Callable<Result> prepareSearch(String text, Result previous) {
+        String query = normalizeQuery(text);
+        String[] texts = this.texts;
+        int size = this.size;
+        int modCount = this.modCount;
+        return () -> search(texts, size, modCount, query, previous);
+    }
+
+    private Result search(String[] texts, int size, int modCount, String query, Result previous) {
+        if (query == null) {
+            return new Result(this, null, null, 0, size, modCount);
+        }
+
+        int[][] postings = trigrams != null ? postings(query) : null;
+        int[] matches;
+        int count = 0;
+        if (postings != null) {
+            // Rows containing all trigrams of the query, the shortest posting list first
+            int[] candidates = postings[0];
+            int[] positions = new int[postings.length];
+            matches = new int[candidates.length];
+            candidates:
+            for (int row : candidates) {
+                // Appended after the search was prepared
+                if (row >= size) break;
+                for (int i = 1; i < postings.length; i++) {
+                    int[] posting = postings[i];
+                    int found = Arrays.binarySearch(posting, positions[i], posting.length, row);
+                    if (found < 0) {
+                        positions[i] = -found - 1;
+                        continue candidates;
+                    }
+                    positions[i] = found + 1;
+                }
+                // The trigrams may be spread over the text
+                if (matches(texts[row], query)) matches[count++] = row;
+            }
+        } else if (isNarrowing(query, previous, modCount)) {
+            // Only the previous matches can still match, plus the rows appended since
+            int scanned = Math.min(previous.scanned, size);
+            matches = new int[previous.count + size - scanned];
+            for (int i = 0; i < previous.count; i++) {
+                int row = previous.matches[i];
+                if (matches(texts[row], query)) matches[count++] = row;
+            }
+            for (int row = scanned; row < size; row++) {
+                if (matches(texts[row], query)) matches[count++] = row;
+            }
+        } else {
+            matches = new int[size];
+            for (int row = 0; row < size; row++) {
+                if (matches(texts[row], query)) matches[count++] = row;
+            }
+        }
+        return new Result(this, query, matches, count, size, modCount);
+    }
+
+    /* The posting lists of all trigrams of the query, shortest first; null if the query has no trigram */
+    private int[][] postings(String query) {
+        Set<Long> queryTrigrams = new HashSet<>();
+        forEachTrigram(query, queryTrigrams::add);
+        if (queryTrigrams.isEmpty()) {
+            return null;
+        }
+
+        int[][] postings = new int[queryTrigrams.size()][];
+        int i = 0;
+        for (Long trigram : queryTrigrams) {
+            int[] posting = trigrams.get(trigram);
+            if (posting == null) {
+                // No row contains this trigram
+                return new int[][]{new int[0]};
+            }
+            postings[i++] = posting;
+        }
+        Arrays.sort(postings, Comparator.comparingInt(posting -> posting.length));
+        return postings;
+    }
+
+    private boolean isNarrowing(String query, Result previous, int modCount) {
+        return previous != null && previous.index == this && previous.modCount == modCount
+                && previous.query != null && query.contains(previous.query);
+    }
+
+    /**
+     * Brings a result up to date (call on the thread changing the index): the rows appended since
+     * it was searched are added, after edits or removals the search runs again
+     *
+     * @return A result covering all rows of the index
+     */
+    public Result refresh(Result result) {
+        if (result.modCount != modCount) {
+            return search(texts, size, modCount, result.query, null);
+        }
+        if (result.scanned == size) {
+            return result;
+        }
+        if (result.query == null) {
+            return all();
+        }
+
+        int[] matches = Arrays.copyOf(result.matches, result.count + size - result.scanned);
+        int count = result.count;
+        for (int row = result.scanned; row < size; row++) {
+            if (matches(texts[row], result.query)) matches[count++] = row;
+        }
+        return new Result(this, result.query, matches, count, size, modCount);
+    }
+
+    /**
+     * The matching rows in their original order
+     */
+    public List<T> toList(Result result) {
+        return toList(result, 0);
+    }
+
+    /**
+     * The matching rows starting at a match position, e.g. the matches added by {@link #refresh(Result)}
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> toList(Result result, int from) {
+        List<T> list = new ArrayList<>(Math.max(0, result.size() - from));
+        if (result.query == null) {
+            for (int row = from; row < result.scanned; row++) {
+                if (rows[row] != null) list.add((T) rows[row]);
+            }
+        } else {
+            for (int i = from; i < result.count; i++) list.add((T) rows[result.matches[i]]);
+        }
+        return list;
+    }
+
+    /**
+     * Whether the result belongs to this index and was searched for the same text
+     */
+    public boolean isSameSearch(Result result, String text) {
+        return result != null && result.index == this && Objects.equals(result.query, normalizeQuery(text));
+    }
+
+    /* Removed rows have no text */
+    private static boolean matches(String text, String query) {
+        return text != null && text.contains(query);
+    }
+
+    /* Three characters packed into one key */
+    private static void forEachTrigram(String text, LongConsumer consumer) {
+        if (text == null) return;
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            char first = text.charAt(i);
+            char second = text.charAt(i + 1);
+            char third = text.charAt(i + 2);
+            if (first == FIELD_SEPARATOR || second == FIELD_SEPARATOR || third == FIELD_SEPARATOR) continue;
+            consumer.accept(((long) first << 32) | ((long) second << 16) | third);
+        }
+    }
+
+    /* Blank search texts show all rows (null), like SearchFilter */
+    private static String normalizeQuery(String text) {
+        return SearchFilter.isBlank(text) ? null : normalize(text);
+    }
+
+    private static String normalize(String text) {
+        return text != null ? text.toLowerCase(Locale.ROOT) : "";
+    }
+
+    /* Growable int array for building posting lists */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        /* Positions arrive in ascending order, a repeated trigram of the same row is added once */
+        void addOnce(int value) {
+            if (size > 0 && values[size - 1] == value) return;
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Rows matching a search text, as positions in the index
+     */
+    public static final class Result {
+
+        private final SearchIndex<?> index;
+        // Normalised search text, null for all rows
+        private final String query;
+        private final int[] matches;
+        private final int count;
+        // Number of index rows the result covers
+        private final int scanned;
+        // State of the index the result was searched on
+        private final int modCount;
+
+        private Result(SearchIndex<?> index, String query, int[] matches, int count, int scanned, int modCount) {
+            this.index = index;
+            this.query = query;
+            this.matches = matches;
+            this.count = count;
+            this.scanned = scanned;
+            this.modCount = modCount;
+        }
+
+        /**
+         * Number of match positions; for all rows the covered positions, removed rows included
+         */
+        public int size() {
+            return query == null ? scanned : count;
+        }
+    }
+}
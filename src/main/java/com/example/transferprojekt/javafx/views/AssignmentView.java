@@ -4,9 +4,10 @@ import com.example.transferprojekt.dataclasses.Assignment;
 import com.example.transferprojekt.javafx.dialogs.AssignmentDialog;
 import com.example.transferprojekt.javafx.utils.AsyncDatabaseTask;
 import com.example.transferprojekt.javafx.utils.DialogUtils;
+import com.example.transferprojekt.javafx.utils.ReferenceDataStore;
+import com.example.transferprojekt.services.AssignmentOverlapException;
 import com.example.transferprojekt.services.AssignmentService;
-import com.example.transferprojekt.services.SupplierService;
-import com.example.transferprojekt.services.SupplierNrService;
+import com.example.transferprojekt.services.ChangeSource;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 
@@ -20,15 +21,11 @@ import java.util.concurrent.Callable;
 public class AssignmentView extends BaseView<Assignment> {
 
     private final AssignmentService assignmentService;
-    private final SupplierService supplierService;
-    private final SupplierNrService supplierNrService;
+    private final ReferenceDataStore referenceData;
 
-    public AssignmentView(AssignmentService assignmentService,
-                          SupplierService supplierService,
-                          SupplierNrService supplierNrService) {
+    public AssignmentView(AssignmentService assignmentService, ReferenceDataStore referenceData) {
         this.assignmentService = assignmentService;
-        this.supplierService = supplierService;
-        this.supplierNrService = supplierNrService;
+        this.referenceData = referenceData;
     }
 
     @Override
@@ -89,17 +86,17 @@ public class AssignmentView extends BaseView<Assignment> {
     }
 
     @Override
-    protected boolean filterMatch(Assignment assignment, String lowerCaseFilter) {
-        boolean matchesSupplierNumber = String.valueOf(assignment.getSupplierNumber().getId())
-                .contains(lowerCaseFilter);
+    protected ChangeSource<Assignment> getChangeSource() {
+        return assignmentService;
+    }
 
-        boolean matchesSupplierName = false;
-        String supplierName = assignment.getSupplierName();
-        if (supplierName != null) {
-            matchesSupplierName = supplierName.toLowerCase().contains(lowerCaseFilter);
-        }
+    @Override
+    protected boolean isTrigramIndexed() {
+        return true;
+    }
 
-        boolean matchesStatus;
+    @Override
+    protected String getSearchText(Assignment assignment) {
         LocalDate validFrom = assignment.getValidFrom();
         LocalDate validTo = assignment.getValidTo();
         LocalDate now = LocalDate.now();
@@ -112,22 +109,27 @@ public class AssignmentView extends BaseView<Assignment> {
         } else {
             status = "aktiv";
         }
-        matchesStatus = status.contains(lowerCaseFilter);
 
-        return matchesSupplierNumber || matchesSupplierName || matchesStatus;
+        String supplierName = assignment.getSupplierName();
+        return assignment.getSupplierNumber().getId() + "\n"
+                + (supplierName != null ? supplierName : "") + "\n"
+                + status;
     }
 
     @Override
     protected void onAdd() {
-        AssignmentDialog.showAddDialog(supplierService, supplierNrService, assignmentService).ifPresent(newAssignment -> {
+        AssignmentDialog.showAddDialog(referenceData).ifPresent(newAssignment -> {
             setButtonsEnabled(false);
-            AsyncDatabaseTask.runVoid(
-                    () -> assignmentService.save(newAssignment),
+            AsyncDatabaseTask.run(
+                    () -> assignmentService.saveAndGet(newAssignment),
                     this,
-                    this::loadData,
+                    savedAssignment -> {
+                        appendData(List.of(savedAssignment));
+                        referenceData.invalidate();
+                        setButtonsEnabled(true);
+                    },
                     error -> {
-                        DialogUtils.showError("Fehler beim Hinzufügen",
-                                "Zuweisung konnte nicht gespeichert werden.\n" + error.getMessage());
+                        showSaveError("Fehler beim Hinzufügen", "Zuweisung konnte nicht gespeichert werden.", error);
                         setButtonsEnabled(true);
                     }
             );
@@ -139,22 +141,38 @@ public class AssignmentView extends BaseView<Assignment> {
         Assignment selectedAssignment = tableView.getSelectionModel().getSelectedItem();
         if (selectedAssignment == null) return;
 
-        AssignmentDialog.showEditDialog(selectedAssignment, supplierService, supplierNrService, assignmentService)
+        AssignmentDialog.showEditDialog(selectedAssignment, referenceData)
                 .ifPresent(updatedAssignment -> {
                     setButtonsEnabled(false);
-                    AsyncDatabaseTask.runVoid(
-                            () -> assignmentService.save(updatedAssignment),
+                    AsyncDatabaseTask.run(
+                            () -> assignmentService.saveAndGet(updatedAssignment),
                             this,
-                            this::loadData,
+                            savedAssignment -> {
+                                replaceData(selectedAssignment, savedAssignment);
+                                referenceData.invalidate();
+                                setButtonsEnabled(true);
+                            },
                             error -> {
-                                DialogUtils.showError("Fehler beim Speichern",
-                                        "Änderungen konnten nicht gespeichert werden.\n" + error.getMessage());
+                                showSaveError("Fehler beim Speichern", "Änderungen konnten nicht gespeichert werden.", error);
                                 setButtonsEnabled(true);
                             }
                     );
                 });
     }
 
+    private void showSaveError(String title, String message, Throwable error) {
+        if (error instanceof AssignmentOverlapException) {
+            // Overlap with another assignment of the number, rejected by the database
+            DialogUtils.showError(
+                    "Überschneidung erkannt",
+                    error.getMessage(),
+                    "Bitte wählen Sie eine andere Nummer oder passen Sie den Zeitraum an."
+            );
+        } else {
+            DialogUtils.showError(title, message + "\n" + error.getMessage());
+        }
+    }
+
     @Override
     protected void onDelete() {
         Assignment selectedAssignment = tableView.getSelectionModel().getSelectedItem();
@@ -174,7 +192,9 @@ public class AssignmentView extends BaseView<Assignment> {
                     this,
                     success -> {
                         if (success) {
-                            loadData();
+                            removeData(selectedAssignment);
+                            referenceData.invalidate();
+                            setButtonsEnabled(true);
                         } else {
                             DialogUtils.showError("Fehler", "Zuweisung konnte nicht gelöscht werden.\n" +
                                     "Möglicherweise existieren noch Abhängigkeiten.");
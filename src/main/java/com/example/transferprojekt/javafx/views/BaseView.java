@@ -1,32 +1,67 @@
 package com.example.transferprojekt.javafx.views;
 
+import com.example.transferprojekt.dataclasses.RowChanges;
 import com.example.transferprojekt.javafx.utils.AsyncDatabaseTask;
 import com.example.transferprojekt.javafx.utils.DialogUtils;
+import com.example.transferprojekt.javafx.utils.SearchIndex;
+import com.example.transferprojekt.services.ChangeSource;
+import javafx.animation.PauseTransition;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.Callable;
 
 /**
  * Base class for all list-based views in the GUI.
  * Provides a standardized layout with a search bar, CRUD buttons, and a TableView.
+ * The search runs SEARCH_DELAY after the last keystroke on a background thread (SearchIndex),
+ * the result replaces the table content in one operation.
+ * Views with a ChangeSource are refreshed differentially: only the rows changed since the last load
+ * are fetched and patched into the table.
+ * Views loading page by page only search the loaded rows; while more rows exist, a hint below the
+ * search field says so and offers to load the next page.
  *
  * @param <T> The type of the data model displayed in the table
  */
 public abstract class BaseView<T> extends BorderPane {
 
+    // Pause after the last keystroke before searching
+    private static final Duration SEARCH_DELAY = Duration.millis(150);
+
     protected final TableView<T> tableView = new TableView<>();
     protected final ObservableList<T> dataList = FXCollections.observableArrayList();
     protected List<T> allDataCached;
 
+    private final PauseTransition searchDelay = new PauseTransition(SEARCH_DELAY);
+    private SearchIndex<T> searchIndex;
+    // The search result shown in the table
+    private SearchIndex.Result searchResult;
+    // A search is running, only the latest one calls back
+    private boolean searchPending;
+    // Watermark of the loaded rows, see ChangeSource
+    private long changeWatermark;
+
     protected TextField searchField;
+    // Shown while a search covers only the loaded rows of a paged view
+    private Label partialSearchLabel;
+    private HBox partialSearchBar;
     protected Button addButton;
     protected Button editButton;
     protected Button deleteButton;
@@ -63,7 +98,7 @@ public abstract class BaseView<T> extends BorderPane {
         });
 
         // Layout
-        VBox content = new VBox(15, toolbar, tableView);
+        VBox content = new VBox(15, toolbar, createPartialSearchBar(), tableView);
         VBox.setVgrow(tableView, Priority.ALWAYS);
         setCenter(content);
     }
@@ -72,7 +107,8 @@ public abstract class BaseView<T> extends BorderPane {
         searchField = new TextField();
         searchField.setPromptText("Suchen...");
         searchField.setPrefWidth(300);
-        searchField.textProperty().addListener((obs, oldText, newText) -> filterData(newText));
+        searchField.textProperty().addListener((obs, oldText, newText) -> searchDelay.playFromStart());
+        searchDelay.setOnFinished(event -> filterData(searchField.getText()));
 
         addButton = new Button("Hinzufügen");
         addButton.setOnAction(e -> onAdd());
@@ -92,6 +128,31 @@ public abstract class BaseView<T> extends BorderPane {
         return toolbar;
     }
 
+    private HBox createPartialSearchBar() {
+        partialSearchLabel = new Label();
+        partialSearchLabel.setStyle("-fx-text-fill: #8a6d3b;");
+
+        Button loadMoreButton = new Button("Weitere laden");
+        loadMoreButton.setOnAction(e -> loadMoreRows());
+
+        partialSearchBar = new HBox(10, partialSearchLabel, loadMoreButton);
+        partialSearchBar.setAlignment(Pos.CENTER_LEFT);
+        partialSearchBar.setVisible(false);
+        partialSearchBar.setManaged(false);
+        return partialSearchBar;
+    }
+
+    /* Shows the hint while a search text is set and not all rows are loaded */
+    private void updatePartialSearchHint() {
+        boolean partial = searchIndex != null && !searchField.getText().isBlank() && hasMoreRows();
+        if (partial) {
+            partialSearchLabel.setText("Suche nur in den " + allDataCached.size()
+                    + " geladenen Einträgen, weitere Einträge sind noch nicht geladen.");
+        }
+        partialSearchBar.setVisible(partial);
+        partialSearchBar.setManaged(partial);
+    }
+
     protected void updateButtonStates(boolean hasSelection) {
         editButton.setDisable(!hasSelection);
         deleteButton.setDisable(!hasSelection);
@@ -108,9 +169,52 @@ public abstract class BaseView<T> extends BorderPane {
     protected abstract Callable<List<T>> getLoadTask();
 
     /**
-     * Defines how to filter the data.
+     * The text the search field matches against, fields separated by a line break.
+     * Called once per row when the data is loaded, the text is lower-cased by the search index.
+     */
+    protected abstract String getSearchText(T item);
+
+    /**
+     * Whether the search keeps a trigram index (see SearchIndex). Worthwhile for lists searched by
+     * name or number and changed row by row; lists appended page by page are only scanned.
+     */
+    protected boolean isTrigramIndexed() {
+        return false;
+    }
+
+    /**
+     * Source of the rows changed since the last load, null if the view is only reloaded as a whole.
+     */
+    protected ChangeSource<T> getChangeSource() {
+        return null;
+    }
+
+    /**
+     * Order of the loaded rows, rows added elsewhere are inserted at their place; null appends them.
+     */
+    protected Comparator<T> getRowOrder() {
+        return null;
+    }
+
+    /**
+     * Whether a row added elsewhere belongs to the loaded rows; views loading page by page skip rows beyond the last page.
+     */
+    protected boolean isWithinLoadedRows(T row) {
+        return true;
+    }
+
+    /**
+     * Whether rows exist beyond the loaded ones (views loading page by page), the search then covers only part of the list.
+     */
+    protected boolean hasMoreRows() {
+        return false;
+    }
+
+    /**
+     * Loads the next rows and appends them with {@link #appendData(List)}, offered while a search covers only the loaded rows.
      */
-    protected abstract boolean filterMatch(T item, String searchText);
+    protected void loadMoreRows() {
+    }
 
     /**
      * Logic for adding a new item.
@@ -138,15 +242,31 @@ public abstract class BaseView<T> extends BorderPane {
     protected void loadData() {
         setButtonsEnabled(false);
 
+        Callable<List<T>> loadTask = getLoadTask();
+        ChangeSource<T> changeSource = getChangeSource();
+        boolean trigramIndexed = isTrigramIndexed();
         AsyncDatabaseTask.run(
-                getLoadTask(),
+                () -> {
+                    // Read before the rows, changes committed while loading come with the next refresh
+                    long watermark = changeSource != null ? changeSource.getChangeWatermark() : 0;
+                    List<T> data = loadTask.call();
+                    // The index is built in the background too, then handed to the FX thread
+                    SearchIndex<T> index = new SearchIndex<>(this::getSearchText, trigramIndexed);
+                    index.addAll(data);
+                    return new LoadedData<>(data, index, watermark);
+                },
                 this,
-                data -> {
-                    allDataCached = data;
-                    dataList.clear();
-                    dataList.addAll(data);
+                loaded -> {
+                    List<T> data = loaded.data();
+                    allDataCached = new ArrayList<>(data);
+                    searchIndex = loaded.index();
+                    changeWatermark = loaded.watermark();
+                    searchResult = searchIndex.all();
+                    dataList.setAll(data);
                     searchField.clear();
                     setButtonsEnabled(true);
+                    onDataLoaded(data);
+                    updatePartialSearchHint();
                 },
                 error -> {
                     DialogUtils.showError("Fehler beim Laden", getLoadErrorMessage() + "\n" + error.getMessage());
@@ -156,24 +276,216 @@ public abstract class BaseView<T> extends BorderPane {
     }
 
     /**
-     * Filters the cached data and updates the observable list.
+     * Hook called after a (re)load has replaced the cached data.
      */
-    private void filterData(String searchText) {
-        if (allDataCached == null) return;
+    protected void onDataLoaded(List<T> data) {
+    }
 
-        if (searchText == null || searchText.trim().isEmpty()) {
-            dataList.clear();
-            dataList.addAll(allDataCached);
+    /**
+     * Appends additional rows (e.g. the next page or a saved new row) to the cached data.
+     * Rows not matching the current search text are only cached, not shown.
+     */
+    protected void appendData(List<T> data) {
+        if (allDataCached == null) {
+            loadData();
             return;
         }
+        allDataCached.addAll(data);
+        searchIndex.addAll(data);
 
-        String lowerCaseFilter = searchText.toLowerCase();
-        List<T> filtered = allDataCached.stream()
-                .filter(item -> filterMatch(item, lowerCaseFilter))
-                .toList();
+        int shown = searchResult.size();
+        searchResult = searchIndex.refresh(searchResult);
+        dataList.addAll(searchIndex.toList(searchResult, shown));
+        updatePartialSearchHint();
+    }
 
-        dataList.clear();
-        dataList.addAll(filtered);
+    /**
+     * Replaces a row with its saved version without reloading the list
+     */
+    protected void replaceData(T item, T updated) {
+        int row = searchIndex != null ? searchIndex.indexOf(item) : -1;
+        if (row < 0) {
+            loadData();
+            return;
+        }
+        allDataCached.replaceAll(cached -> cached == item ? updated : cached);
+        searchIndex.set(row, updated);
+        showSearchResult();
+    }
+
+    /**
+     * Removes a deleted row without reloading the list
+     */
+    protected void removeData(T item) {
+        int row = searchIndex != null ? searchIndex.indexOf(item) : -1;
+        if (row < 0) {
+            loadData();
+            return;
+        }
+        allDataCached.removeIf(cached -> cached == item);
+        searchIndex.remove(row);
+        showSearchResult();
+    }
+
+    /**
+     * Applies the rows changed since the last load or refresh, also by other clients, without rebuilding
+     * the table: selection, scroll position and sort order are kept.
+     * Reloads instead if the view has no change source, is not loaded yet or after bulk changes.
+     */
+    public void refresh() {
+        ChangeSource<T> changeSource = getChangeSource();
+        if (changeSource == null || searchIndex == null) {
+            loadData();
+            return;
+        }
+
+        SearchIndex<T> index = searchIndex;
+        long watermark = changeWatermark;
+        AsyncDatabaseTask.runLatest(
+                tableView,
+                () -> changeSource.getChangesSince(watermark),
+                this,
+                changes -> {
+                    // Data reloaded meanwhile
+                    if (index != searchIndex) return;
+
+                    if (changes.isReloadRequired()) {
+                        loadData();
+                    } else {
+                        applyChanges(changeSource, changes);
+                        changeWatermark = changes.getWatermark();
+                    }
+                },
+                error -> DialogUtils.showError("Fehler beim Aktualisieren",
+                        getLoadErrorMessage() + "\n" + error.getMessage())
+        );
+    }
+
+    /* Patches the loaded rows by ID, then the table with one change event per changed row */
+    private void applyChanges(ChangeSource<T> changeSource, RowChanges<T> changes) {
+        if (changes.isEmpty()) return;
+
+        Map<UUID, Integer> positions = new HashMap<>();
+        for (int row = 0; row < searchIndex.size(); row++) {
+            T item = searchIndex.get(row);
+            if (item != null) positions.put(changeSource.getRowId(item), row);
+        }
+
+        Comparator<T> order = getRowOrder();
+        Set<T> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<T, T> replaced = new IdentityHashMap<>();
+        List<T> added = new ArrayList<>();
+        for (UUID id : changes.getDeletedIds()) {
+            Integer row = positions.get(id);
+            if (row == null) continue;
+            removed.add(searchIndex.get(row));
+            searchIndex.remove(row);
+        }
+        for (T changed : changes.getChangedRows()) {
+            Integer row = positions.get(changeSource.getRowId(changed));
+            T item = row != null ? searchIndex.get(row) : null;
+            if (item == null) {
+                if (isWithinLoadedRows(changed)) added.add(changed);
+            } else if (order == null || order.compare(item, changed) == 0) {
+                replaced.put(item, changed);
+                searchIndex.set(row, changed);
+            } else {
+                // Moved within the order (e.g. another date), inserted again at its new place
+                removed.add(item);
+                searchIndex.remove(row);
+                if (isWithinLoadedRows(changed)) added.add(changed);
+            }
+        }
+
+        allDataCached.removeIf(removed::contains);
+        allDataCached.replaceAll(cached -> replaced.getOrDefault(cached, cached));
+        if (order == null) {
+            allDataCached.addAll(added);
+            searchIndex.addAll(added);
+        } else {
+            for (T item : added) {
+                // allDataCached has no gaps, its successor gives the position in the index
+                int at = Collections.binarySearch(allDataCached, item, order);
+                at = at < 0 ? -at - 1 : at;
+                searchIndex.insert(at < allDataCached.size() ? searchIndex.indexOf(allDataCached.get(at)) : searchIndex.size(), item);
+                allDataCached.add(at, item);
+            }
+        }
+
+        searchResult = searchIndex.refresh(searchResult);
+        patchShownRows(searchIndex.toList(searchResult), replaced);
+    }
+
+    /* Changes the table content to the given rows (in index order) without replacing the whole list */
+    private void patchShownRows(List<T> rows, Map<T, T> replaced) {
+        Set<T> shown = Collections.newSetFromMap(new IdentityHashMap<>());
+        shown.addAll(rows);
+
+        // Edited rows are replaced in place, rows no longer shown removed; from the end, so indexes stay valid
+        for (int i = dataList.size() - 1; i >= 0; i--) {
+            T item = dataList.get(i);
+            T replacement = replaced.get(item);
+            if (replacement != null && shown.contains(replacement)) {
+                dataList.set(i, replacement);
+            } else if (!shown.contains(item)) {
+                dataList.remove(i);
+            }
+        }
+
+        if (dataList.size() < rows.size()) {
+            Set<T> present = Collections.newSetFromMap(new IdentityHashMap<>());
+            present.addAll(dataList);
+            boolean sortedByUser = !tableView.getSortOrder().isEmpty();
+            for (int i = 0; i < rows.size(); i++) {
+                T row = rows.get(i);
+                if (present.contains(row)) continue;
+                // The remaining rows are in index order, so position i is the row's place
+                if (sortedByUser) {
+                    dataList.add(row);
+                } else {
+                    dataList.add(i, row);
+                }
+            }
+        }
+        if (!tableView.getSortOrder().isEmpty()) {
+            tableView.sort();
+        }
+    }
+
+    /* Searches the shown text again after a row changed, with a trigram index well below a millisecond */
+    private void showSearchResult() {
+        searchResult = searchIndex.refresh(searchResult);
+        dataList.setAll(searchIndex.toList(searchResult));
+    }
+
+    /**
+     * Searches the cached data in the background, only the latest search is shown.
+     */
+    private void filterData(String searchText) {
+        if (searchIndex == null) return;
+        if (!searchPending && searchIndex.isSameSearch(searchResult, searchText)) return;
+
+        SearchIndex<T> index = searchIndex;
+        searchPending = true;
+        AsyncDatabaseTask.runLatest(
+                searchField,
+                index.prepareSearch(searchText, searchResult),
+                this,
+                result -> {
+                    searchPending = false;
+                    // Data reloaded meanwhile, the reload has reset the search
+                    if (index != searchIndex) return;
+
+                    // Rows changed while searching are taken into account before the swap
+                    searchResult = index.refresh(result);
+                    dataList.setAll(index.toList(searchResult));
+                    updatePartialSearchHint();
+                },
+                error -> {
+                    searchPending = false;
+                    DialogUtils.showError("Fehler bei der Suche", error.getMessage());
+                }
+        );
     }
 
     protected void setButtonsEnabled(boolean enabled) {
@@ -185,4 +497,7 @@ public abstract class BaseView<T> extends BorderPane {
             deleteButton.setDisable(true);
         }
     }
+
+    private record LoadedData<T>(List<T> data, SearchIndex<T> index, long watermark) {
+    }
 }
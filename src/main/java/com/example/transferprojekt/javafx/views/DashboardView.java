@@ -2,28 +2,31 @@ package com.example.transferprojekt.javafx.views;
 
 import com.example.transferprojekt.dataclasses.Assignment;
 import com.example.transferprojekt.dataclasses.Company;
-import com.example.transferprojekt.dataclasses.MilkDelivery;
+import com.example.transferprojekt.dataclasses.DeliveryStatistics;
 import com.example.transferprojekt.javafx.utils.AsyncDatabaseTask;
 import com.example.transferprojekt.javafx.utils.DialogUtils;
-import com.example.transferprojekt.services.AssignmentService;
-import com.example.transferprojekt.services.MilkDeliveryService;
-import com.example.transferprojekt.services.SupplierService;
+import com.example.transferprojekt.javafx.utils.ReferenceDataStore;
+import com.example.transferprojekt.services.DeliveryPrefixSums;
+import com.example.transferprojekt.services.StatisticsService;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 public class DashboardView extends BorderPane {
 
-    private final MilkDeliveryService milkDeliveryService;
-    private final SupplierService supplierService;
-    private final AssignmentService assignmentService;
+    private final StatisticsService statisticsService;
+    private final ReferenceDataStore referenceData;
 
     // Filter Controls
     private ComboBox<Company> supplierFilter;
@@ -43,19 +46,23 @@ public class DashboardView extends BorderPane {
     private Label selectedAverageAmountValue;
     private VBox selectedSupplierSection;
 
-    // Cached data for local filtering
-    private List<MilkDelivery> allDeliveries;
-    private List<Assignment> allAssignments;
+    // Chart
+    private ComboBox<DeliveryPrefixSums.Granularity> granularitySelector;
+    private LineChart<String, Number> deliveryChart;
 
-    public DashboardView(MilkDeliveryService milkDeliveryService,
-                         SupplierService supplierService,
-                         AssignmentService assignmentService) {
-        this.milkDeliveryService = milkDeliveryService;
-        this.supplierService = supplierService;
-        this.assignmentService = assignmentService;
+    // Data (loaded per refresh for the selected period, statistics are then calculated in memory;
+    // the assignments of the selected supplier come from the shared reference data)
+    private DeliveryPrefixSums deliverySums;
+    private LocalDate loadedFromDate;
+    private LocalDate loadedToDate;
+
+    public DashboardView(StatisticsService statisticsService,
+                         ReferenceDataStore referenceData) {
+        this.statisticsService = statisticsService;
+        this.referenceData = referenceData;
 
         initializeUI();
-        loadDataAndCalculate();
+        loadDeliveries();
     }
 
     private void initializeUI() {
@@ -69,12 +76,15 @@ public class DashboardView extends BorderPane {
 
         VBox filterSection = createFilterSection();
         HBox statsContainer = createStatisticsContainer();
+        VBox chartSection = createChartSection();
 
         VBox content = new VBox(30);
         content.setPadding(new Insets(20));
-        content.getChildren().addAll(topBox, filterSection, statsContainer);
+        content.getChildren().addAll(topBox, filterSection, statsContainer, chartSection);
 
-        setCenter(content);
+        ScrollPane scrollPane = new ScrollPane(content);
+        scrollPane.setFitToWidth(true);
+        setCenter(scrollPane);
     }
 
     private VBox createFilterSection() {
@@ -94,8 +104,14 @@ public class DashboardView extends BorderPane {
         supplierFilter = new ComboBox<>();
         supplierFilter.setPromptText("Alle Lieferanten");
         supplierFilter.setPrefWidth(250);
+        setupSupplierFilterCells();
 
-        loadSuppliers();
+        // Filled from the shared reference data, again after every reload of it
+        // (changed assignments also change the statistics of the selected supplier)
+        referenceData.versionProperty().subscribe(version -> {
+            showSuppliers();
+            calculateStatistics();
+        });
 
         supplierBox.getChildren().addAll(supplierLabel, supplierFilter);
 
@@ -125,7 +141,7 @@ public class DashboardView extends BorderPane {
 
         // Refresh Button
         Button refreshButton = new Button("Aktualisieren");
-        refreshButton.setOnAction(e -> loadDataAndCalculate());
+        refreshButton.setOnAction(e -> loadDeliveries());
 
         HBox buttonBox = new HBox(10);
         buttonBox.setAlignment(Pos.CENTER_LEFT);
@@ -256,108 +272,139 @@ public class DashboardView extends BorderPane {
         return section;
     }
 
+    private VBox createChartSection() {
+        VBox section = new VBox(15);
+        section.setPadding(new Insets(20));
+        section.setStyle("-fx-background-color: #f5f5f5; -fx-border-color: #ddd; -fx-border-radius: 5; -fx-background-radius: 5;");
+
+        Label sectionTitle = new Label("Verlauf");
+        sectionTitle.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
+
+        granularitySelector = new ComboBox<>();
+        granularitySelector.getItems().addAll(DeliveryPrefixSums.Granularity.values());
+        granularitySelector.setValue(DeliveryPrefixSums.Granularity.MONTH);
+        granularitySelector.setCellFactory(param -> new ListCell<>() {
+            @Override
+            protected void updateItem(DeliveryPrefixSums.Granularity item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : getGranularityName(item));
+            }
+        });
+        granularitySelector.setButtonCell(granularitySelector.getCellFactory().call(null));
+        granularitySelector.setOnAction(e -> updateChart());
+
+        HBox granularityBox = new HBox(10, new Label("Intervall:"), granularitySelector);
+        granularityBox.setAlignment(Pos.CENTER_LEFT);
+
+        CategoryAxis xAxis = new CategoryAxis();
+        NumberAxis yAxis = new NumberAxis();
+        yAxis.setLabel("Menge kg");
+        deliveryChart = new LineChart<>(xAxis, yAxis);
+        deliveryChart.setAnimated(false);
+        deliveryChart.setCreateSymbols(false);
+        deliveryChart.setPrefHeight(350);
+
+        section.getChildren().addAll(sectionTitle, granularityBox, deliveryChart);
+
+        return section;
+    }
+
     /**
      * Public method to refresh dashboard data
      * Called when dashboard tab is selected
      */
     public void refresh() {
-        loadSuppliers();
-        loadDataAndCalculate();
+        loadDeliveries();
+    }
+
+    private void setupSupplierFilterCells() {
+        supplierFilter.setCellFactory(param -> new ListCell<>() {
+            @Override
+            protected void updateItem(Company item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? "Alle Lieferanten" : item.getAddress().getName());
+            }
+        });
+
+        supplierFilter.setButtonCell(new ListCell<>() {
+            @Override
+            protected void updateItem(Company item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? "Alle Lieferanten" : item.getAddress().getName());
+            }
+        });
     }
 
     /**
-     * Loads suppliers for the filter dropdown
+     * Shows the suppliers of the reference data in the filter dropdown
      */
-    private void loadSuppliers() {
+    private void showSuppliers() {
         Company currentSelection = supplierFilter.getValue();
 
-        AsyncDatabaseTask.run(
-                supplierService::getDatabaseEntries,
-                this,
-                suppliers -> {
-                    supplierFilter.getItems().clear();
-                    supplierFilter.getItems().add(null); // "Alle" option
-                    supplierFilter.getItems().addAll(suppliers);
-
-                    supplierFilter.setCellFactory(param -> new ListCell<>() {
-                        @Override
-                        protected void updateItem(Company item, boolean empty) {
-                            super.updateItem(item, empty);
-                            setText(empty || item == null ? "Alle Lieferanten" : item.getAddress().getName());
-                        }
-                    });
-
-                    supplierFilter.setButtonCell(new ListCell<>() {
-                        @Override
-                        protected void updateItem(Company item, boolean empty) {
-                            super.updateItem(item, empty);
-                            setText(empty || item == null ? "Alle Lieferanten" : item.getAddress().getName());
-                        }
-                    });
-
-                    // Restore selection if it still exists
-                    if (currentSelection != null) {
-                        suppliers.stream()
-                                .filter(s -> s.getCompanyId().equals(currentSelection.getCompanyId()))
-                                .findFirst()
-                                .ifPresentOrElse(
-                                        supplierFilter::setValue,
-                                        () -> supplierFilter.setValue(null)
-                                );
-                    } else {
-                        supplierFilter.setValue(null);
-                    }
-                },
-                error -> DialogUtils.showError("Fehler beim Laden", "Lieferanten konnten nicht geladen werden.\n" + error.getMessage())
-        );
+        supplierFilter.getItems().clear();
+        supplierFilter.getItems().add(null); // "Alle" option
+        supplierFilter.getItems().addAll(referenceData.getSuppliers());
+
+        // Restore selection if it still exists
+        supplierFilter.setValue(currentSelection != null
+                ? referenceData.getSupplier(currentSelection.getCompanyId())
+                : null);
     }
 
     /**
-     * Initial data load (ASYNC)
+     * Loads the daily rollup of the selected period and builds the prefix sums (ASYNC)
      */
-    private void loadDataAndCalculate() {
+    private void loadDeliveries() {
+        LocalDate fromDate = fromDatePicker.getValue();
+        LocalDate toDate = toDatePicker.getValue();
+        if (fromDate == null || toDate == null || toDate.isBefore(fromDate)) {
+            return;
+        }
+
         calculateButton.setDisable(true);
 
-        AsyncDatabaseTask.run(
-                () -> {
-                    // Load all data in one go
-                    List<MilkDelivery> deliveries = milkDeliveryService.getDatabaseEntries();
-                    List<Assignment> assignments = assignmentService.getDatabaseEntries();
-                    return new Object[] { deliveries, assignments };
-                },
+        // Loads replace each other, only the latest period is applied
+        AsyncDatabaseTask.runLatest(
+                this,
+                () -> statisticsService.loadDeliverySums(fromDate, toDate),
                 this,
-                result -> {
-                    allDeliveries = (List<MilkDelivery>) result[0];
-                    allAssignments = (List<Assignment>) result[1];
+                sums -> {
+                    deliverySums = sums;
+                    loadedFromDate = fromDate;
+                    loadedToDate = toDate;
+
                     calculateButton.setDisable(false);
-                    calculateStatistics(); // Calculate with loaded data
+                    calculateStatistics();
                 },
                 error -> {
-                    DialogUtils.showError("Fehler beim Laden", "Daten konnten nicht geladen werden.\n" + error.getMessage());
+                    DialogUtils.showError("Fehler beim Laden", "Milchlieferungen konnten nicht geladen werden.\n" + error.getMessage());
                     calculateButton.setDisable(false);
                 }
         );
     }
 
     /**
-     * Calculate statistics (LOCAL - uses cached data)
+     * Calculate statistics (LOCAL - two prefix sum lookups per range),
+     * a period outside of the loaded one is loaded first
      */
     private void calculateStatistics() {
-        if (allDeliveries == null || allAssignments == null) {
+        if (deliverySums == null) {
             return;
         }
 
         LocalDate fromDate = fromDatePicker.getValue();
         LocalDate toDate = toDatePicker.getValue();
-
-        // Filter by period - LOCAL operation
-        List<MilkDelivery> allFilteredDeliveries = allDeliveries.stream()
-                .filter(d -> !d.getDate().isBefore(fromDate) && !d.getDate().isAfter(toDate))
-                .collect(Collectors.toList());
+        if (fromDate == null || toDate == null) {
+            return;
+        }
+        if (!isLoaded(fromDate, toDate)) {
+            loadDeliveries();
+            return;
+        }
 
         // Calculate statistics for all suppliers
         updateStatistics(
-                allFilteredDeliveries,
+                deliverySums.getStatistics(fromDate, toDate),
                 allDeliveryCountValue,
                 allTotalAmountValue,
                 allAverageAmountValue
@@ -371,21 +418,8 @@ public class DashboardView extends BorderPane {
 
             selectedSupplierTitle.setText("Statistiken - " + selectedSupplier.getAddress().getName());
 
-            // Find all supplier numbers assigned to this supplier - LOCAL
-            List<Integer> supplierNumbersForSupplier = allAssignments.stream()
-                    .filter(a -> a.getSupplierId().equals(selectedSupplier.getCompanyId()))
-                    .map(a -> a.getSupplierNumber().getId())
-                    .toList();
-
-            // Filter deliveries by supplier numbers and period - LOCAL
-            List<MilkDelivery> selectedFilteredDeliveries = allDeliveries.stream()
-                    .filter(d -> supplierNumbersForSupplier.contains(d.getSupplierNumber().getId()))
-                    .filter(d -> !d.getDate().isBefore(fromDate) && !d.getDate().isAfter(toDate))
-                    .collect(Collectors.toList());
-
-            // Calculate statistics for selected supplier
             updateStatistics(
-                    selectedFilteredDeliveries,
+                    deliverySums.getStatistics(fromDate, toDate, getAssignments(selectedSupplier)),
                     selectedDeliveryCountValue,
                     selectedTotalAmountValue,
                     selectedAverageAmountValue
@@ -394,24 +428,79 @@ public class DashboardView extends BorderPane {
             selectedSupplierSection.setVisible(false);
             selectedSupplierSection.setManaged(false);
         }
+
+        updateChart();
     }
 
-    private void updateStatistics(List<MilkDelivery> deliveries,
-                                  Label countLabel,
-                                  Label totalLabel,
-                                  Label averageLabel) {
-        int count = deliveries.size();
+    /**
+     * Draws the series of the selected period (all suppliers and the selected supplier)
+     */
+    private void updateChart() {
+        deliveryChart.getData().clear();
 
-        BigDecimal totalAmount = deliveries.stream()
-                .map(MilkDelivery::getAmountKg)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        LocalDate fromDate = fromDatePicker.getValue();
+        LocalDate toDate = toDatePicker.getValue();
+        if (deliverySums == null || fromDate == null || toDate == null || toDate.isBefore(fromDate)) {
+            return;
+        }
+        if (!isLoaded(fromDate, toDate)) {
+            loadDeliveries();
+            return;
+        }
 
-        BigDecimal averageAmount = count > 0
-                ? totalAmount.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP)
-                : BigDecimal.ZERO;
+        DeliveryPrefixSums.Granularity granularity = granularitySelector.getValue();
+        deliveryChart.getData().add(createSeries("Alle Lieferanten",
+                deliverySums.getSeries(fromDate, toDate, granularity, null), granularity));
 
-        countLabel.setText(String.valueOf(count));
-        totalLabel.setText(String.format("%.2f kg", totalAmount.doubleValue()));
-        averageLabel.setText(String.format("%.2f kg", averageAmount.doubleValue()));
+        Company selectedSupplier = supplierFilter.getValue();
+        if (selectedSupplier != null) {
+            deliveryChart.getData().add(createSeries(selectedSupplier.getAddress().getName(),
+                    deliverySums.getSeries(fromDate, toDate, granularity, getAssignments(selectedSupplier)), granularity));
+        }
+    }
+
+    private XYChart.Series<String, Number> createSeries(String name,
+                                                        Map<LocalDate, DeliveryStatistics> values,
+                                                        DeliveryPrefixSums.Granularity granularity) {
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        series.setName(name);
+        values.forEach((bucket, statistics) -> series.getData().add(
+                new XYChart.Data<>(formatBucket(bucket, granularity), statistics.getTotalAmountKg())));
+        return series;
+    }
+
+    /* Whether the loaded sums cover the period, days outside of it would count as empty */
+    private boolean isLoaded(LocalDate fromDate, LocalDate toDate) {
+        return !fromDate.isBefore(loadedFromDate) && !toDate.isAfter(loadedToDate);
+    }
+
+    private List<Assignment> getAssignments(Company supplier) {
+        return referenceData.getAssignments(supplier.getCompanyId());
+    }
+
+    private static String formatBucket(LocalDate bucket, DeliveryPrefixSums.Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> bucket.format(DateTimeFormatter.ofPattern("dd.MM.yyyy"));
+            case WEEK -> "KW " + bucket.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR) + "/" + bucket.get(IsoFields.WEEK_BASED_YEAR);
+            case MONTH -> bucket.format(DateTimeFormatter.ofPattern("MM.yyyy"));
+        };
+    }
+
+    private static String getGranularityName(DeliveryPrefixSums.Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> "Täglich";
+            case WEEK -> "Wöchentlich";
+            case MONTH -> "Monatlich";
+        };
+    }
+
+    private void updateStatistics(DeliveryStatistics statistics,
+                                  Label countLabel,
+                                  Label totalLabel,
+                                  Label averageLabel) {
+        countLabel.setText(String.valueOf(statistics.getDeliveryCount()));
+        // Formatted from the exact fixed-point values, no detour via double
+        totalLabel.setText(String.format("%.2f kg", statistics.getTotalAmountKg()));
+        averageLabel.setText(String.format("%.2f kg", statistics.getAverageAmountKg()));
     }
 }
\ No newline at end of file
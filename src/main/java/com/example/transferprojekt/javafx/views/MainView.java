@@ -1,28 +1,61 @@
 package com.example.transferprojekt.javafx.views;
 
+import com.example.transferprojekt.dataclasses.DeliveryImportResult;
+import com.example.transferprojekt.dataclasses.MilkPrice;
+import com.example.transferprojekt.dataclasses.PriceSurcharge;
+import com.example.transferprojekt.dataclasses.SettlementRun;
+import com.example.transferprojekt.javafx.dialogs.DeliveryExportDialog;
+import com.example.transferprojekt.javafx.dialogs.MilkPriceDialog;
+import com.example.transferprojekt.javafx.dialogs.SettlementDialog;
+import com.example.transferprojekt.javafx.dialogs.SettlementResultDialog;
 import com.example.transferprojekt.javafx.utils.AsyncDatabaseTask;
 import com.example.transferprojekt.javafx.utils.DialogUtils;
+import com.example.transferprojekt.javafx.utils.ReferenceDataStore;
 import com.example.transferprojekt.services.AdminToolsService;
 import com.example.transferprojekt.services.AssignmentService;
+import com.example.transferprojekt.services.MilkDeliveryExportService;
+import com.example.transferprojekt.services.MilkDeliveryImportService;
 import com.example.transferprojekt.services.MilkDeliveryService;
+import com.example.transferprojekt.services.MilkPriceService;
+import com.example.transferprojekt.services.SettlementService;
+import com.example.transferprojekt.services.StatisticsService;
 import com.example.transferprojekt.services.SupplierService;
 import com.example.transferprojekt.services.SupplierNrService;
 import com.example.transferprojekt.services.TestdataService;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.util.stream.Collectors;
 
 public class MainView extends BorderPane {
 
     private final TabPane tabPane;
     private final MenuBar menuBar;
+    private final HBox statusBar;
+    private final ProgressBar progressBar = new ProgressBar(0);
+    private final Label progressLabel = new Label();
     private final SupplierService supplierService;
     private final AssignmentService assignmentService;
     private final SupplierNrService supplierNrService;
     private final MilkDeliveryService milkDeliveryService;
     private final TestdataService testdataService;
     private final AdminToolsService adminToolsService;
-
+    private final StatisticsService statisticsService;
+    private final MilkDeliveryImportService milkDeliveryImportService;
+    private final MilkDeliveryExportService milkDeliveryExportService;
+    private final MilkPriceService milkPriceService;
+    private final SettlementService settlementService;
+    // Suppliers, supplier numbers and assignments shared by all views and dialogs
+    private final ReferenceDataStore referenceData;
+
+    private SupplierView supplierView;
+    private AssignmentView assignmentView;
+    private MilkDeliveryView deliveryView;
     private DashboardView dashboardView;
 
     public MainView(SupplierService supplierService,
@@ -30,19 +63,32 @@ public class MainView extends BorderPane {
                     SupplierNrService supplierNrService,
                     MilkDeliveryService milkDeliveryService,
                     TestdataService testdataService,
-                    AdminToolsService adminToolsService) {
+                    AdminToolsService adminToolsService,
+                    StatisticsService statisticsService,
+                    MilkDeliveryImportService milkDeliveryImportService,
+                    MilkDeliveryExportService milkDeliveryExportService,
+                    MilkPriceService milkPriceService,
+                    SettlementService settlementService) {
         this.supplierService = supplierService;
         this.assignmentService = assignmentService;
         this.supplierNrService = supplierNrService;
         this.milkDeliveryService = milkDeliveryService;
         this.testdataService = testdataService;
         this.adminToolsService = adminToolsService;
+        this.statisticsService = statisticsService;
+        this.milkDeliveryImportService = milkDeliveryImportService;
+        this.milkDeliveryExportService = milkDeliveryExportService;
+        this.milkPriceService = milkPriceService;
+        this.settlementService = settlementService;
+        this.referenceData = new ReferenceDataStore(supplierService, supplierNrService, assignmentService, this);
 
         menuBar = createMenuBar();
         tabPane = createTabPane();
+        statusBar = createStatusBar();
 
         setTop(menuBar);
         setCenter(tabPane);
+        setBottom(statusBar);
         setPadding(new Insets(0));
 
         setupTabSelectionListener();
@@ -59,44 +105,86 @@ public class MainView extends BorderPane {
         Menu dataMenu = new Menu("Daten");
         MenuItem refreshItem = new MenuItem("Aktualisieren");
         refreshItem.setOnAction(e -> refreshAllViews());
+        MenuItem importItem = new MenuItem("Milchlieferungen importieren...");
+        importItem.setOnAction(e -> importDeliveries());
+        MenuItem exportItem = new MenuItem("Milchlieferungen exportieren...");
+        exportItem.setOnAction(e -> exportDeliveries());
+        MenuItem rebuildRollupItem = new MenuItem("Tagessummen neu berechnen");
+        rebuildRollupItem.setOnAction(e -> rebuildDeliveryRollup());
         MenuItem testDataItem = new MenuItem("Testdaten einfügen");
         testDataItem.setOnAction(e -> insertTestData());
         MenuItem clearDataItem = new MenuItem("Alle Daten löschen");
         clearDataItem.setOnAction(e -> clearAllData());
-        dataMenu.getItems().addAll(refreshItem, new SeparatorMenuItem(), testDataItem, clearDataItem);
+        dataMenu.getItems().addAll(refreshItem, new SeparatorMenuItem(), importItem, exportItem, new SeparatorMenuItem(), rebuildRollupItem, testDataItem, clearDataItem);
+
+        Menu settlementMenu = new Menu("Abrechnung");
+        MenuItem priceItem = new MenuItem("Milchpreis erfassen...");
+        priceItem.setOnAction(e -> addMilkPrice());
+        MenuItem settlementItem = new MenuItem("Milchgeldabrechnung erstellen...");
+        settlementItem.setOnAction(e -> runSettlement());
+        settlementMenu.getItems().addAll(priceItem, settlementItem);
 
         Menu helpMenu = new Menu("Hilfe");
         MenuItem aboutItem = new MenuItem("Über MilkCalc");
         aboutItem.setOnAction(e -> showAboutDialog());
         helpMenu.getItems().add(aboutItem);
 
-        menuBar.getMenus().addAll(fileMenu, dataMenu, helpMenu);
+        menuBar.getMenus().addAll(fileMenu, dataMenu, settlementMenu, helpMenu);
         return menuBar;
     }
 
+    /**
+     * Progress of long-running operations (e.g. settlement runs), hidden while idle
+     */
+    private HBox createStatusBar() {
+        progressBar.setPrefWidth(200);
+        HBox.setHgrow(progressLabel, Priority.ALWAYS);
+
+        HBox bar = new HBox(10, progressBar, progressLabel);
+        bar.setPadding(new Insets(5, 10, 5, 10));
+        bar.setVisible(false);
+        bar.setManaged(false);
+        return bar;
+    }
+
+    private void showProgress(AsyncDatabaseTask<?> task) {
+        progressBar.progressProperty().bind(task.progressProperty());
+        progressLabel.textProperty().bind(task.messageProperty());
+        statusBar.setVisible(true);
+        statusBar.setManaged(true);
+    }
+
+    private void hideProgress() {
+        progressBar.progressProperty().unbind();
+        progressLabel.textProperty().unbind();
+        statusBar.setVisible(false);
+        statusBar.setManaged(false);
+    }
+
     private TabPane createTabPane() {
         TabPane tabPane = new TabPane();
         tabPane.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
 
         Tab supplierTab = new Tab("Lieferanten");
-        SupplierView supplierView = new SupplierView(supplierService);
+        supplierView = new SupplierView(supplierService, referenceData);
         supplierTab.setContent(supplierView);
 
         Tab assignmentTab = new Tab("Zuweisungen");
-        AssignmentView assignmentView = new AssignmentView(assignmentService, supplierService, supplierNrService);
+        assignmentView = new AssignmentView(assignmentService, referenceData);
         assignmentTab.setContent(assignmentView);
 
         Tab deliveryTab = new Tab("Milchlieferungen");
-        MilkDeliveryView deliveryView = new MilkDeliveryView(milkDeliveryService, supplierNrService, assignmentService);
+        deliveryView = new MilkDeliveryView(milkDeliveryService, referenceData);
         deliveryTab.setContent(deliveryView);
 
         Tab dashboardTab = new Tab("Dashboard");
-        dashboardView = new DashboardView(milkDeliveryService, supplierService, assignmentService);
+        dashboardView = new DashboardView(statisticsService, referenceData);
         dashboardTab.setContent(dashboardView);
 
         tabPane.getTabs().addAll(dashboardTab, supplierTab, assignmentTab, deliveryTab);
 
         // Load data after views are constructed
+        referenceData.refresh();
         supplierView.loadData();
         assignmentView.loadData();
         deliveryView.loadData();
@@ -114,34 +202,147 @@ public class MainView extends BorderPane {
         });
     }
 
+    /**
+     * Applies the changes since the last load to the lists (also those of other clients),
+     * the views are kept with their selection, scroll position and sort order.
+     * Bulk changes such as imports make the affected lists reload.
+     * The reference data is reloaded only if suppliers or assignments changed.
+     */
     private void refreshAllViews() {
-        try {
-            Tab supplierTab = tabPane.getTabs().get(1);
-            SupplierView supplierView = new SupplierView(supplierService);
-            supplierTab.setContent(supplierView);
+        referenceData.refresh();
+        supplierView.refresh();
+        assignmentView.refresh();
+        deliveryView.refresh();
+
+        Tab dashboardTab = tabPane.getTabs().get(0);
+        if (tabPane.getSelectionModel().getSelectedItem() == dashboardTab) {
+            dashboardView.refresh();
+        } else {
+            // Refreshed by the tab selection listener
+            tabPane.getSelectionModel().select(dashboardTab);
+        }
+    }
 
-            Tab assignmentTab = tabPane.getTabs().get(2);
-            AssignmentView assignmentView = new AssignmentView(assignmentService, supplierService, supplierNrService);
-            assignmentTab.setContent(assignmentView);
+    private void importDeliveries() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Milchlieferungen importieren");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV-Dateien", "*.csv", "*.txt"),
+                new FileChooser.ExtensionFilter("Alle Dateien", "*.*"));
+
+        File file = fileChooser.showOpenDialog(getScene().getWindow());
+        if (file == null) return;
+
+        AsyncDatabaseTask.run(
+                () -> milkDeliveryImportService.importCsv(file.toPath()),
+                this,
+                result -> {
+                    // The import may have created supplier numbers, which the change log does not cover
+                    referenceData.invalidate();
+                    refreshAllViews();
+                    showImportResult(result);
+                },
+                error -> DialogUtils.showError("Fehler beim Import",
+                        "Milchlieferungen konnten nicht importiert werden.\n" + error.getMessage())
+        );
+    }
 
-            Tab deliveryTab = tabPane.getTabs().get(3);
-            MilkDeliveryView deliveryView = new MilkDeliveryView(milkDeliveryService, supplierNrService, assignmentService);
-            deliveryTab.setContent(deliveryView);
+    private void showImportResult(DeliveryImportResult result) {
+        String message = "Importiert: " + result.getImportedRows() + "\n" +
+                "Abgelehnt: " + result.getRejectedRows();
+
+        if (result.getRejectedRows() > 0) {
+            // Keep the dialog readable, the full list is limited by the service anyway
+            message += "\n\n" + result.getRejectedLines().stream()
+                    .limit(15)
+                    .map(DeliveryImportResult.RejectedLine::toString)
+                    .collect(Collectors.joining("\n"));
+            if (result.getRejectedRows() > 15) {
+                message += "\n...";
+            }
+            DialogUtils.showWarning("Import abgeschlossen", "Nicht alle Zeilen konnten importiert werden", message);
+        } else {
+            DialogUtils.showInfo("Import abgeschlossen", "Milchlieferungen erfolgreich importiert", message);
+        }
+    }
 
-            Tab dashboardTab = tabPane.getTabs().get(0);
-            dashboardView = new DashboardView(milkDeliveryService, supplierService, assignmentService);
-            dashboardTab.setContent(dashboardView);
+    private void exportDeliveries() {
+        DeliveryExportDialog.showDialog().ifPresent(settings -> {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Milchlieferungen exportieren");
+            fileChooser.setInitialFileName("milchlieferungen_" + settings.getFromDate() + "_" + settings.getToDate() + ".csv");
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV-Dateien", "*.csv"));
+
+            File file = fileChooser.showSaveDialog(getScene().getWindow());
+            if (file == null) return;
+
+            AsyncDatabaseTask.run(
+                    () -> milkDeliveryExportService.exportCsv(
+                            file.toPath(),
+                            settings.getFromDate(),
+                            settings.getToDate(),
+                            settings.isIncludeSupplier()),
+                    this,
+                    count -> DialogUtils.showInfo("Export abgeschlossen", "Milchlieferungen erfolgreich exportiert",
+                            count + " Lieferungen wurden nach " + file.getAbsolutePath() + " exportiert."),
+                    error -> DialogUtils.showError("Fehler beim Export",
+                            "Milchlieferungen konnten nicht exportiert werden.\n" + error.getMessage())
+            );
+        });
+    }
 
-            // Load data after views are constructed
-            supplierView.loadData();
-            assignmentView.loadData();
-            deliveryView.loadData();
+    private void rebuildDeliveryRollup() {
+        AsyncDatabaseTask.run(
+                adminToolsService::rebuildDeliveryRollup,
+                this,
+                rows -> {
+                    refreshAllViews();
+                    DialogUtils.showInfo("Erfolg", "Tagessummen neu berechnet",
+                            rows + " Tagessummen wurden aus den Milchlieferungen berechnet.");
+                },
+                error -> DialogUtils.showError("Fehler",
+                        "Tagessummen konnten nicht berechnet werden.\n" + error.getMessage())
+        );
+    }
 
-            tabPane.getSelectionModel().select(dashboardTab);
+    private void addMilkPrice() {
+        MilkPriceDialog.showDialog().ifPresent(input -> AsyncDatabaseTask.runVoid(
+                () -> {
+                    if (input.getTimeWindow() == null) {
+                        milkPriceService.savePrice(new MilkPrice(input.getValidFrom(), input.getValidTo(), input.getPerKg()));
+                    } else {
+                        milkPriceService.saveSurcharge(new PriceSurcharge(input.getTimeWindow(),
+                                input.getValidFrom(), input.getValidTo(), input.getPerKg()));
+                    }
+                },
+                this,
+                () -> DialogUtils.showInfo("Erfolg", "Milchpreis gespeichert",
+                        (input.getTimeWindow() == null ? "Grundpreis" : "Zuschlag " + input.getTimeWindow())
+                                + " von CHF " + input.getPerKg() + " pro kg ab " + input.getValidFrom() + " gespeichert."),
+                error -> DialogUtils.showError("Fehler",
+                        "Milchpreis konnte nicht gespeichert werden.\n" + error.getMessage())
+        ));
+    }
 
-        } catch (Exception e) {
-            DialogUtils.showError("Fehler beim Aktualisieren", "Die Views konnten nicht aktualisiert werden.\n" + e.getMessage());
-        }
+    private void runSettlement() {
+        SettlementDialog.showDialog().ifPresent(period -> {
+            AsyncDatabaseTask<SettlementRun> task = AsyncDatabaseTask.runWithProgress(
+                    progress -> settlementService.runSettlement(period, progress),
+                    this,
+                    run -> {
+                        hideProgress();
+                        SettlementResultDialog.showDialog(run);
+                    },
+                    error -> {
+                        hideProgress();
+                        // Finished partitions are kept, running the same month again resumes the run
+                        DialogUtils.showError("Fehler bei der Abrechnung",
+                                "Die Milchgeldabrechnung konnte nicht abgeschlossen werden.\n" + error.getMessage()
+                                        + "\n\nBereits abgerechnete Partitionen bleiben erhalten, eine erneute Abrechnung des Monats setzt den Lauf fort.");
+                    }
+            );
+            showProgress(task);
+        });
     }
 
     private void insertTestData() {
@@ -151,7 +352,8 @@ public class MainView extends BorderPane {
                 Testdaten:
                 - 3 Lieferanten
                 - 3 Zuweisungen
-                - 4 Milchlieferungen""";
+                - 5 Milchlieferungen
+                - 1 Milchpreis mit Abendzuschlag""";
 
         if (DialogUtils.showConfirmation("Testdaten einfügen", "Testdaten einfügen?", message)) {
             AsyncDatabaseTask.runVoid(
@@ -161,6 +363,7 @@ public class MainView extends BorderPane {
                     },
                     this,
                     () -> {
+                        referenceData.invalidate();
                         refreshAllViews();
 
                         DialogUtils.showInfo("Erfolg", "Testdaten erfolgreich eingefügt", "Sie befinden sich jetzt im Dashboard mit den aktualisierten Statistiken.");
@@ -180,7 +383,8 @@ public class MainView extends BorderPane {
                 Folgende Daten werden gelöscht:
                 - Alle Lieferanten
                 - Alle Zuweisungen
-                - Alle Milchlieferungen""";
+                - Alle Milchlieferungen
+                - Alle Milchpreise und Abrechnungen""";
 
         if (DialogUtils.showConfirmation("Alle Daten löschen", "WARNUNG: Alle Daten löschen?", message)) {
             TextInputDialog dialog = new TextInputDialog();
@@ -194,6 +398,7 @@ public class MainView extends BorderPane {
                             () -> adminToolsService.flushAllDataTables("DELETE"),
                             this,
                             () -> {
+                                referenceData.invalidate();
                                 refreshAllViews();
                                 DialogUtils.showInfo("Erfolg", "Daten erfolgreich gelöscht",
                                         "Alle Daten wurden erfolgreich aus der Datenbank entfernt!");
@@ -5,30 +5,123 @@ import com.example.transferprojekt.enumerations.TimeWindow;
 import com.example.transferprojekt.javafx.dialogs.MilkDeliveryDialog;
 import com.example.transferprojekt.javafx.utils.AsyncDatabaseTask;
 import com.example.transferprojekt.javafx.utils.DialogUtils;
+import com.example.transferprojekt.javafx.utils.ReferenceDataStore;
+import com.example.transferprojekt.services.ChangeSource;
 import com.example.transferprojekt.services.MilkDeliveryService;
-import com.example.transferprojekt.services.SupplierNrService;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.Callable;
 
 /**
  * View for managing milk deliveries.
  */
 public class MilkDeliveryView extends BaseView<MilkDelivery> {
+
+    // Number of deliveries fetched per page (keyset pagination)
+    private static final int PAGE_SIZE = 500;
+
+    // Order of the pages, PostgreSQL compares UUIDs as unsigned bytes
+    private static final Comparator<MilkDelivery> PAGE_ORDER = Comparator
+            .comparing(MilkDelivery::getDate)
+            .thenComparing(MilkDelivery::getDeliveryId, MilkDeliveryView::compareUnsigned);
+
     private final MilkDeliveryService milkDeliveryService;
-    private final SupplierNrService supplierNrService;
-    private final com.example.transferprojekt.services.AssignmentService assignmentService;
+    private final ReferenceDataStore referenceData;
 
-    public MilkDeliveryView(MilkDeliveryService milkDeliveryService,
-                            SupplierNrService supplierNrService,
-                            com.example.transferprojekt.services.AssignmentService assignmentService) {
+    // Paging state
+    private boolean hasMorePages;
+    private boolean loadingPage;
+
+    public MilkDeliveryView(MilkDeliveryService milkDeliveryService, ReferenceDataStore referenceData) {
         this.milkDeliveryService = milkDeliveryService;
-        this.supplierNrService = supplierNrService;
-        this.assignmentService = assignmentService;
+        this.referenceData = referenceData;
+
+        setupPaging();
+    }
+
+    /**
+     * Loads the next page as soon as the user scrolls close to the end of the table.
+     * The scroll bar only exists once the table skin has been created.
+     */
+    private void setupPaging() {
+        tableView.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+            if (newSkin == null) return;
+            for (Node node : tableView.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar scrollBar && scrollBar.getOrientation() == Orientation.VERTICAL) {
+                    scrollBar.valueProperty().addListener((valueObs, oldValue, newValue) -> {
+                        if (newValue.doubleValue() >= scrollBar.getMax() * 0.9) {
+                            loadNextPage();
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private void loadNextPage() {
+        if (!hasMorePages || loadingPage || allDataCached == null || allDataCached.isEmpty()) return;
+
+        loadingPage = true;
+        MilkDelivery lastLoaded = allDataCached.getLast();
+        AsyncDatabaseTask.run(
+                () -> milkDeliveryService.getDatabaseEntriesAfter(lastLoaded, PAGE_SIZE),
+                this,
+                page -> {
+                    // Set first, appending updates the hint of a search over the loaded rows
+                    hasMorePages = page.size() == PAGE_SIZE;
+                    loadingPage = false;
+                    appendData(page);
+                },
+                error -> {
+                    DialogUtils.showError("Fehler beim Laden", getLoadErrorMessage() + "\n" + error.getMessage());
+                    loadingPage = false;
+                }
+        );
+    }
+
+    private static int compareUnsigned(UUID first, UUID second) {
+        int result = Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits());
+        return result != 0 ? result : Long.compareUnsigned(first.getLeastSignificantBits(), second.getLeastSignificantBits());
+    }
+
+    @Override
+    protected boolean hasMoreRows() {
+        return hasMorePages;
+    }
+
+    @Override
+    protected void loadMoreRows() {
+        loadNextPage();
+    }
+
+    @Override
+    protected ChangeSource<MilkDelivery> getChangeSource() {
+        return milkDeliveryService;
+    }
+
+    @Override
+    protected Comparator<MilkDelivery> getRowOrder() {
+        return PAGE_ORDER;
+    }
+
+    @Override
+    protected boolean isWithinLoadedRows(MilkDelivery delivery) {
+        // Deliveries after the last loaded one come with the next page
+        return !hasMorePages || allDataCached.isEmpty() || PAGE_ORDER.compare(delivery, allDataCached.getLast()) < 0;
+    }
+
+    @Override
+    protected void onDataLoaded(List<MilkDelivery> data) {
+        hasMorePages = data.size() == PAGE_SIZE;
+        loadingPage = false;
     }
 
     @Override
@@ -75,32 +168,36 @@ public class MilkDeliveryView extends BaseView<MilkDelivery> {
 
     @Override
     protected Callable<List<MilkDelivery>> getLoadTask() {
-        return milkDeliveryService::getDatabaseEntries;
+        // First page only, further pages are fetched on scroll
+        return () -> milkDeliveryService.getDatabaseEntriesAfter(null, PAGE_SIZE);
     }
 
     @Override
-    protected boolean filterMatch(MilkDelivery delivery, String lowerCaseFilter) {
-        boolean matchesSupplierNumber = String.valueOf(delivery.getSupplierNumber().getId())
-                .contains(lowerCaseFilter);
-
-        boolean matchesDate = delivery.getDate().toString().contains(lowerCaseFilter);
-
-        boolean matchesTimeWindow = delivery.getTimeWindow().toString()
-                .toLowerCase().contains(lowerCaseFilter);
-
-        boolean matchesAmount = delivery.getAmountKg().toString().contains(lowerCaseFilter);
+    protected String getSearchText(MilkDelivery delivery) {
+        return searchText(delivery);
+    }
 
-        return matchesSupplierNumber || matchesDate || matchesTimeWindow || matchesAmount;
+    /**
+     * Search text of a delivery, static so the benchmarks use the same text without a JavaFX toolkit
+     */
+    public static String searchText(MilkDelivery delivery) {
+        return delivery.getSupplierNumber().getId() + "\n"
+                + delivery.getDate() + "\n"
+                + delivery.getTimeWindow() + "\n"
+                + delivery.getAmountKg();
     }
 
     @Override
     protected void onAdd() {
-        MilkDeliveryDialog.showAddDialog(supplierNrService, assignmentService).ifPresent(newDelivery -> {
+        MilkDeliveryDialog.showAddDialog(referenceData).ifPresent(newDelivery -> {
             setButtonsEnabled(false);
             AsyncDatabaseTask.runVoid(
                     () -> milkDeliveryService.save(newDelivery),
                     this,
-                    this::loadData,
+                    () -> {
+                        refresh();
+                        setButtonsEnabled(true);
+                    },
                     error -> {
                         DialogUtils.showError("Fehler beim Hinzufügen",
                                 "Milchlieferung konnte nicht gespeichert werden.\n" + error.getMessage());
@@ -115,13 +212,16 @@ public class MilkDeliveryView extends BaseView<MilkDelivery> {
         MilkDelivery selectedDelivery = tableView.getSelectionModel().getSelectedItem();
         if (selectedDelivery == null) return;
 
-        MilkDeliveryDialog.showEditDialog(selectedDelivery, supplierNrService, assignmentService)
+        MilkDeliveryDialog.showEditDialog(selectedDelivery, referenceData)
                 .ifPresent(updatedDelivery -> {
                     setButtonsEnabled(false);
                     AsyncDatabaseTask.runVoid(
                             () -> milkDeliveryService.save(updatedDelivery),
                             this,
-                            this::loadData,
+                            () -> {
+                                refresh();
+                                setButtonsEnabled(true);
+                            },
                             error -> {
                                 DialogUtils.showError("Fehler beim Speichern",
                                         "Änderungen konnten nicht gespeichert werden.\n" + error.getMessage());
@@ -147,7 +247,8 @@ public class MilkDeliveryView extends BaseView<MilkDelivery> {
                     this,
                     success -> {
                         if (success) {
-                            loadData();
+                            refresh();
+                            setButtonsEnabled(true);
                         } else {
                             DialogUtils.showError("Fehler", "Milchlieferung konnte nicht gelöscht werden.\n" +
                                     "Möglicherweise existieren noch Abhängigkeiten.");
@@ -4,6 +4,8 @@ import com.example.transferprojekt.dataclasses.Company;
 import com.example.transferprojekt.javafx.dialogs.SupplierDialog;
 import com.example.transferprojekt.javafx.utils.AsyncDatabaseTask;
 import com.example.transferprojekt.javafx.utils.DialogUtils;
+import com.example.transferprojekt.javafx.utils.ReferenceDataStore;
+import com.example.transferprojekt.services.ChangeSource;
 import com.example.transferprojekt.services.SupplierService;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -17,9 +19,11 @@ import java.util.concurrent.Callable;
 public class SupplierView extends BaseView<Company> {
 
     private final SupplierService supplierService;
+    private final ReferenceDataStore referenceData;
 
-    public SupplierView(SupplierService supplierService) {
+    public SupplierView(SupplierService supplierService, ReferenceDataStore referenceData) {
         this.supplierService = supplierService;
+        this.referenceData = referenceData;
     }
 
     @Override
@@ -74,22 +78,36 @@ public class SupplierView extends BaseView<Company> {
     }
 
     @Override
-    protected boolean filterMatch(Company supplier, String lowerCaseFilter) {
-        return supplier.getAddress().getName().toLowerCase().contains(lowerCaseFilter) ||
-                supplier.getAddress().getStreet().toLowerCase().contains(lowerCaseFilter) ||
-                supplier.getAddress().getCity().toLowerCase().contains(lowerCaseFilter) ||
-                supplier.getAddress().getZip().toLowerCase().contains(lowerCaseFilter) ||
-                supplier.getMail().toLowerCase().contains(lowerCaseFilter);
+    protected ChangeSource<Company> getChangeSource() {
+        return supplierService;
+    }
+
+    @Override
+    protected boolean isTrigramIndexed() {
+        return true;
+    }
+
+    @Override
+    protected String getSearchText(Company supplier) {
+        return supplier.getAddress().getName() + "\n"
+                + supplier.getAddress().getStreet() + "\n"
+                + supplier.getAddress().getCity() + "\n"
+                + supplier.getAddress().getZip() + "\n"
+                + supplier.getMail();
     }
 
     @Override
     protected void onAdd() {
         SupplierDialog.showAddDialog().ifPresent(newSupplier -> {
             setButtonsEnabled(false);
-            AsyncDatabaseTask.runVoid(
-                    () -> supplierService.save(newSupplier),
+            AsyncDatabaseTask.run(
+                    () -> supplierService.mapToDataclass(supplierService.save(newSupplier)),
                     this,
-                    this::loadData,
+                    savedSupplier -> {
+                        appendData(List.of(savedSupplier));
+                        referenceData.invalidate();
+                        setButtonsEnabled(true);
+                    },
                     error -> {
                         DialogUtils.showError("Fehler beim Hinzufügen",
                                 "Lieferant konnte nicht gespeichert werden.\n" + error.getMessage());
@@ -106,10 +124,14 @@ public class SupplierView extends BaseView<Company> {
 
         SupplierDialog.showEditDialog(selectedSupplier).ifPresent(updatedSupplier -> {
             setButtonsEnabled(false);
-            AsyncDatabaseTask.runVoid(
-                    () -> supplierService.save(updatedSupplier),
+            AsyncDatabaseTask.run(
+                    () -> supplierService.mapToDataclass(supplierService.save(updatedSupplier)),
                     this,
-                    this::loadData,
+                    savedSupplier -> {
+                        replaceData(selectedSupplier, savedSupplier);
+                        referenceData.invalidate();
+                        setButtonsEnabled(true);
+                    },
                     error -> {
                         DialogUtils.showError("Fehler beim Speichern",
                                 "Änderungen konnten nicht gespeichert werden.\n" + error.getMessage());
@@ -134,7 +156,9 @@ public class SupplierView extends BaseView<Company> {
                     this,
                     success -> {
                         if (success) {
-                            loadData();
+                            removeData(selectedSupplier);
+                            referenceData.invalidate();
+                            setButtonsEnabled(true);
                         } else {
                             DialogUtils.showError("Fehler",
                                     "Lieferant konnte nicht gelöscht werden.\n" +
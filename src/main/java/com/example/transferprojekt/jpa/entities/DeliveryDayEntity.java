@@ -0,0 +1,93 @@
+package com.example.transferprojekt.jpa.entities;
+
+import com.example.transferprojekt.enumerations.TimeWindow;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Daily rollup of milk deliveries (one row per supplier number, date and time window).
+ * Read-only for JPA, the rows are maintained by DeliveryRollupService.
+ */
+@Entity
+@Immutable
+@Table(name = "milchlieferung_tag")
+@IdClass(DeliveryDayEntity.Key.class)
+public class DeliveryDayEntity {
+
+    @Id
+    @Column(name = "lieferant_nr", nullable = false)
+    private int supplierNr;
+
+    @Id
+    @Column(name = "datum", nullable = false)
+    private LocalDate date;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "zeitfenster", nullable = false)
+    private TimeWindow timeWindow;
+
+    @Column(name = "anzahl", nullable = false)
+    private long deliveryCount;
+
+    @Column(name = "menge_kg", nullable = false)
+    private BigDecimal amountKg;
+
+    public int getSupplierNr() {
+        return supplierNr;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public TimeWindow getTimeWindow() {
+        return timeWindow;
+    }
+
+    public long getDeliveryCount() {
+        return deliveryCount;
+    }
+
+    public BigDecimal getAmountKg() {
+        return amountKg;
+    }
+
+    /**
+     * Composite primary key
+     */
+    public static class Key implements Serializable {
+
+        private int supplierNr;
+        private LocalDate date;
+        private TimeWindow timeWindow;
+
+        public Key() {
+        }
+
+        public Key(int supplierNr, LocalDate date, TimeWindow timeWindow) {
+            this.supplierNr = supplierNr;
+            this.date = date;
+            this.timeWindow = timeWindow;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return supplierNr == key.supplierNr
+                    && Objects.equals(date, key.date)
+                    && timeWindow == key.timeWindow;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(supplierNr, date, timeWindow);
+        }
+    }
+}
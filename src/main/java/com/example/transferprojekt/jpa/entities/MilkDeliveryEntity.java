@@ -1,5 +1,6 @@
 package com.example.transferprojekt.jpa.entities;
 
+import com.example.transferprojekt.dataclasses.KgAmount;
 import com.example.transferprojekt.enumerations.TimeWindow;
 import jakarta.persistence.*;
 import org.hibernate.annotations.UuidGenerator;
@@ -68,6 +69,16 @@ public class MilkDeliveryEntity {
     }
 
     public void setAmountKg(BigDecimal amountKg) {
-        this.amountKg = amountKg;
+        // Rounded like the column, so getAmount() never sees more than two decimals
+        this.amountKg = KgAmount.round(amountKg);
+    }
+
+    /* Fixed-point view of menge_kg for aggregations (null is treated as zero) */
+    public KgAmount getAmount() {
+        return KgAmount.of(amountKg);
+    }
+
+    public void setAmount(KgAmount amount) {
+        this.amountKg = amount.toBigDecimal();
     }
 }
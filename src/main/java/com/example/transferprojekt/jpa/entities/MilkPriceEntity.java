@@ -0,0 +1,59 @@
+package com.example.transferprojekt.jpa.entities;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Entity
+@Table(name = "milchpreis")
+public class MilkPriceEntity {
+
+    @Id
+    @GeneratedValue
+    @UuidGenerator
+    @Column(name = "milchpreis_id", updatable = false, nullable = false)
+    private UUID priceId;
+
+    @Column(name = "gueltig_ab", nullable = false)
+    private LocalDate validFrom;
+
+    @Column(name = "gueltig_bis")
+    private LocalDate validTo;
+
+    @Column(name = "preis_pro_kg", nullable = false)
+    private BigDecimal pricePerKg;
+
+    public UUID getPriceId() {
+        return priceId;
+    }
+
+    public void setPriceId(UUID priceId) {
+        this.priceId = priceId;
+    }
+
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(LocalDate validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public LocalDate getValidTo() {
+        return validTo;
+    }
+
+    public void setValidTo(LocalDate validTo) {
+        this.validTo = validTo;
+    }
+
+    public BigDecimal getPricePerKg() {
+        return pricePerKg;
+    }
+
+    public void setPricePerKg(BigDecimal pricePerKg) {
+        this.pricePerKg = pricePerKg;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.transferprojekt.jpa.entities;
+
+import com.example.transferprojekt.enumerations.TimeWindow;
+import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Entity
+@Table(name = "milchpreis_zuschlag")
+public class PriceSurchargeEntity {
+
+    @Id
+    @GeneratedValue
+    @UuidGenerator
+    @Column(name = "zuschlag_id", updatable = false, nullable = false)
+    private UUID surchargeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "zeitfenster", nullable = false)
+    private TimeWindow timeWindow;
+
+    @Column(name = "gueltig_ab", nullable = false)
+    private LocalDate validFrom;
+
+    @Column(name = "gueltig_bis")
+    private LocalDate validTo;
+
+    @Column(name = "zuschlag_pro_kg", nullable = false)
+    private BigDecimal surchargePerKg;
+
+    public UUID getSurchargeId() {
+        return surchargeId;
+    }
+
+    public void setSurchargeId(UUID surchargeId) {
+        this.surchargeId = surchargeId;
+    }
+
+    public TimeWindow getTimeWindow() {
+        return timeWindow;
+    }
+
+    public void setTimeWindow(TimeWindow timeWindow) {
+        this.timeWindow = timeWindow;
+    }
+
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(LocalDate validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public LocalDate getValidTo() {
+        return validTo;
+    }
+
+    public void setValidTo(LocalDate validTo) {
+        this.validTo = validTo;
+    }
+
+    public BigDecimal getSurchargePerKg() {
+        return surchargePerKg;
+    }
+
+    public void setSurchargePerKg(BigDecimal surchargePerKg) {
+        this.surchargePerKg = surchargePerKg;
+    }
+}
@@ -1,31 +1,38 @@
 package com.example.transferprojekt.jpa.repositories;
 
+import com.example.transferprojekt.dataclasses.Assignment;
 import com.example.transferprojekt.jpa.entities.AssignmentEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface AssignmentRepository extends JpaRepository<AssignmentEntity, UUID> {
 
-    @Query("SELECT a FROM AssignmentEntity a JOIN FETCH a.supplierId JOIN FETCH a.supplierNr")
-    List<AssignmentEntity> findAllWithSuppliers();
+    @Query("""
+        SELECT new com.example.transferprojekt.dataclasses.Assignment(
+            a.assignmentId, s.supplierId, s.name, a.supplierNr.supplierNr, a.assignmentStartDate, a.assignmentEndDate)
+        FROM AssignmentEntity a JOIN a.supplierId s
+    """)
+    List<Assignment> findAllAsDataclass();
 
+    /* Changed assignments and the assignments of changed (renamed) suppliers */
     @Query("""
-        SELECT a FROM AssignmentEntity a 
-        WHERE a.supplierNr.supplierNr = :supplierNr 
-        AND (:excludeId IS NULL OR a.assignmentId <> :excludeId)
-        AND (
-            (CAST(:validTo AS LocalDate) IS NULL AND (a.assignmentEndDate IS NULL OR a.assignmentEndDate >= :validFrom))
-            OR (a.assignmentEndDate IS NULL AND :validTo >= a.assignmentStartDate)
-            OR (CAST(:validTo AS LocalDate) IS NOT NULL AND a.assignmentEndDate IS NOT NULL AND NOT (:validTo < a.assignmentStartDate OR :validFrom > a.assignmentEndDate))
-        )
+        SELECT new com.example.transferprojekt.dataclasses.Assignment(
+            a.assignmentId, s.supplierId, s.name, a.supplierNr.supplierNr, a.assignmentStartDate, a.assignmentEndDate)
+        FROM AssignmentEntity a JOIN a.supplierId s
+        WHERE a.assignmentId IN :ids OR s.supplierId IN :supplierIds
     """)
-    List<AssignmentEntity> findOverlappingAssignments(
-            int supplierNr,
-            java.time.LocalDate validFrom,
-            java.time.LocalDate validTo,
-            java.util.UUID excludeId
-    );
-}
\ No newline at end of file
+    List<Assignment> findAllAsDataclassByIdsOrSupplierIds(Collection<UUID> ids, Collection<UUID> supplierIds);
+
+    /* Served by the GiST index of the exclusion constraint on (lieferant_nr, gueltig) */
+    @Query(value = """
+        SELECT a.zuweisung_id FROM zuweisung a
+        WHERE a.lieferant_nr = :supplierNr AND a.gueltig @> CAST(:date AS DATE)
+    """, nativeQuery = true)
+    Optional<UUID> findActiveAssignmentId(int supplierNr, LocalDate date);
+}
@@ -0,0 +1,70 @@
+package com.example.transferprojekt.jpa.repositories;
+
+import com.example.transferprojekt.dataclasses.DeliveryDayRow;
+import com.example.transferprojekt.dataclasses.DeliveryStatistics;
+import com.example.transferprojekt.dataclasses.SupplierDeliveryStatistics;
+import com.example.transferprojekt.jpa.entities.DeliveryDayEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface DeliveryDayRepository extends JpaRepository<DeliveryDayEntity, DeliveryDayEntity.Key> {
+
+    @Query("""
+        SELECT new com.example.transferprojekt.dataclasses.DeliveryStatistics(SUM(r.deliveryCount), SUM(r.amountKg))
+        FROM DeliveryDayEntity r
+        WHERE r.date BETWEEN :fromDate AND :toDate
+    """)
+    DeliveryStatistics aggregateByPeriod(LocalDate fromDate, LocalDate toDate);
+
+    /*
+     * A day row belongs to the supplier whose assignment of the number covers the day,
+     * so a number handed over to another supplier only counts within its validity.
+     */
+    @Query("""
+        SELECT new com.example.transferprojekt.dataclasses.DeliveryStatistics(SUM(r.deliveryCount), SUM(r.amountKg))
+        FROM DeliveryDayEntity r
+        JOIN AssignmentEntity a ON a.supplierNr.supplierNr = r.supplierNr
+            AND r.date >= a.assignmentStartDate
+            AND (a.assignmentEndDate IS NULL OR r.date <= a.assignmentEndDate)
+        WHERE r.date BETWEEN :fromDate AND :toDate
+        AND a.supplierId.supplierId = :supplierId
+    """)
+    DeliveryStatistics aggregateByPeriodAndSupplier(LocalDate fromDate, LocalDate toDate, UUID supplierId);
+
+    /*
+     * Same attribution for all suppliers in one statement. Assignments outside the period are
+     * excluded before the join; days of unassigned numbers are not part of any supplier's total.
+     */
+    @Query("""
+        SELECT new com.example.transferprojekt.dataclasses.SupplierDeliveryStatistics(
+            a.supplierId.supplierId, SUM(r.deliveryCount), SUM(r.amountKg))
+        FROM AssignmentEntity a
+        JOIN DeliveryDayEntity r ON r.supplierNr = a.supplierNr.supplierNr
+            AND r.date >= a.assignmentStartDate
+            AND (a.assignmentEndDate IS NULL OR r.date <= a.assignmentEndDate)
+        WHERE r.date BETWEEN :fromDate AND :toDate
+        AND a.assignmentStartDate <= :toDate
+        AND (a.assignmentEndDate IS NULL OR a.assignmentEndDate >= :fromDate)
+        GROUP BY a.supplierId.supplierId
+    """)
+    List<SupplierDeliveryStatistics> aggregateByPeriodPerSupplier(LocalDate fromDate, LocalDate toDate);
+
+    /* Totals per supplier number and day of a period ordered by date (both time windows together), for the dashboard */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("""
+        SELECT new com.example.transferprojekt.dataclasses.DeliveryDayRow(r.supplierNr, r.date, SUM(r.deliveryCount), SUM(r.amountKg))
+        FROM DeliveryDayEntity r
+        WHERE r.date BETWEEN :fromDate AND :toDate
+        GROUP BY r.date, r.supplierNr
+        ORDER BY r.date
+    """)
+    Stream<DeliveryDayRow> streamByPeriodOrderedByDate(LocalDate fromDate, LocalDate toDate);
+}
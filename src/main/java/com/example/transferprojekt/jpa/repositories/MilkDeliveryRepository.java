@@ -1,10 +1,77 @@
 package com.example.transferprojekt.jpa.repositories;
 
+import com.example.transferprojekt.dataclasses.DeliveryExportRow;
+import com.example.transferprojekt.dataclasses.MilkDelivery;
 import com.example.transferprojekt.jpa.entities.MilkDeliveryEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface MilkDeliveryRepository extends JpaRepository<MilkDeliveryEntity, UUID> {
 
-}
\ No newline at end of file
+    @Query("""
+        SELECT new com.example.transferprojekt.dataclasses.MilkDelivery(
+            d.deliveryId, d.amountKg, d.date, d.supplierNr.supplierNr, d.timeWindow)
+        FROM MilkDeliveryEntity d
+    """)
+    List<MilkDelivery> findAllAsDataclass();
+
+    @Query("""
+        SELECT new com.example.transferprojekt.dataclasses.MilkDelivery(
+            d.deliveryId, d.amountKg, d.date, d.supplierNr.supplierNr, d.timeWindow)
+        FROM MilkDeliveryEntity d
+        WHERE d.deliveryId IN :ids
+    """)
+    List<MilkDelivery> findAllAsDataclassByIds(Collection<UUID> ids);
+
+    @Query("""
+        SELECT new com.example.transferprojekt.dataclasses.MilkDelivery(
+            d.deliveryId, d.amountKg, d.date, d.supplierNr.supplierNr, d.timeWindow)
+        FROM MilkDeliveryEntity d
+        ORDER BY d.date, d.deliveryId
+    """)
+    List<MilkDelivery> findFirstPage(Limit limit);
+
+    @Query("""
+        SELECT new com.example.transferprojekt.dataclasses.MilkDelivery(
+            d.deliveryId, d.amountKg, d.date, d.supplierNr.supplierNr, d.timeWindow)
+        FROM MilkDeliveryEntity d
+        WHERE (d.date, d.deliveryId) > (:afterDate, :afterId)
+        ORDER BY d.date, d.deliveryId
+    """)
+    List<MilkDelivery> findPageAfter(LocalDate afterDate, UUID afterId, Limit limit);
+
+    /* Streams must be consumed inside a transaction, rows are fetched from the cursor in chunks */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+        SELECT new com.example.transferprojekt.dataclasses.DeliveryExportRow(
+            d.deliveryId, d.supplierNr.supplierNr, d.date, d.timeWindow, d.amountKg)
+        FROM MilkDeliveryEntity d
+        WHERE d.date BETWEEN :fromDate AND :toDate
+        ORDER BY d.date, d.deliveryId
+    """)
+    Stream<DeliveryExportRow> streamForExport(LocalDate fromDate, LocalDate toDate);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+        SELECT new com.example.transferprojekt.dataclasses.DeliveryExportRow(
+            d.deliveryId, d.supplierNr.supplierNr, d.date, d.timeWindow, d.amountKg, s.name)
+        FROM MilkDeliveryEntity d
+        LEFT JOIN AssignmentEntity a ON a.supplierNr = d.supplierNr
+            AND a.assignmentStartDate <= d.date
+            AND (a.assignmentEndDate IS NULL OR a.assignmentEndDate >= d.date)
+        LEFT JOIN a.supplierId s
+        WHERE d.date BETWEEN :fromDate AND :toDate
+        ORDER BY d.date, d.deliveryId
+    """)
+    Stream<DeliveryExportRow> streamForExportWithSupplier(LocalDate fromDate, LocalDate toDate);
+}
@@ -0,0 +1,29 @@
+package com.example.transferprojekt.jpa.repositories;
+
+import com.example.transferprojekt.dataclasses.MilkPrice;
+import com.example.transferprojekt.jpa.entities.MilkPriceEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface MilkPriceRepository extends JpaRepository<MilkPriceEntity, UUID> {
+
+    @Query("""
+        SELECT new com.example.transferprojekt.dataclasses.MilkPrice(
+            p.priceId, p.validFrom, p.validTo, p.pricePerKg)
+        FROM MilkPriceEntity p
+        ORDER BY p.validFrom
+    """)
+    List<MilkPrice> findAllAsDataclass();
+
+    @Query("""
+        SELECT COUNT(p) > 0 FROM MilkPriceEntity p
+        WHERE (:excludeId IS NULL OR p.priceId <> :excludeId)
+        AND (p.validTo IS NULL OR p.validTo >= :validFrom)
+        AND (CAST(:validTo AS LocalDate) IS NULL OR p.validFrom <= :validTo)
+    """)
+    boolean existsOverlapping(LocalDate validFrom, LocalDate validTo, UUID excludeId);
+}
@@ -0,0 +1,31 @@
+package com.example.transferprojekt.jpa.repositories;
+
+import com.example.transferprojekt.dataclasses.PriceSurcharge;
+import com.example.transferprojekt.enumerations.TimeWindow;
+import com.example.transferprojekt.jpa.entities.PriceSurchargeEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface PriceSurchargeRepository extends JpaRepository<PriceSurchargeEntity, UUID> {
+
+    @Query("""
+        SELECT new com.example.transferprojekt.dataclasses.PriceSurcharge(
+            s.surchargeId, s.timeWindow, s.validFrom, s.validTo, s.surchargePerKg)
+        FROM PriceSurchargeEntity s
+        ORDER BY s.timeWindow, s.validFrom
+    """)
+    List<PriceSurcharge> findAllAsDataclass();
+
+    @Query("""
+        SELECT COUNT(s) > 0 FROM PriceSurchargeEntity s
+        WHERE s.timeWindow = :timeWindow
+        AND (:excludeId IS NULL OR s.surchargeId <> :excludeId)
+        AND (s.validTo IS NULL OR s.validTo >= :validFrom)
+        AND (CAST(:validTo AS LocalDate) IS NULL OR s.validFrom <= :validTo)
+    """)
+    boolean existsOverlapping(TimeWindow timeWindow, LocalDate validFrom, LocalDate validTo, UUID excludeId);
+}
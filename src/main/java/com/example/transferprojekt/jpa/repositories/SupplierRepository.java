@@ -1,10 +1,28 @@
 package com.example.transferprojekt.jpa.repositories;
 
+import com.example.transferprojekt.dataclasses.Company;
 import com.example.transferprojekt.jpa.entities.SupplierEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface SupplierRepository extends JpaRepository<SupplierEntity, UUID> {
 
-}
\ No newline at end of file
+    @Query("""
+        SELECT new com.example.transferprojekt.dataclasses.Company(
+            s.supplierId, s.email, s.name, s.street, s.city, s.zip)
+        FROM SupplierEntity s
+    """)
+    List<Company> findAllAsDataclass();
+
+    @Query("""
+        SELECT new com.example.transferprojekt.dataclasses.Company(
+            s.supplierId, s.email, s.name, s.street, s.city, s.zip)
+        FROM SupplierEntity s
+        WHERE s.supplierId IN :ids
+    """)
+    List<Company> findAllAsDataclassByIds(Collection<UUID> ids);
+}
@@ -0,0 +1,106 @@
+package com.example.transferprojekt.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Records latency, call count and returned rows of the public service methods
+ * and of the query methods declared in our repositories.
+ *
+ * Meters: milkcalc.service / milkcalc.repository (timer, tags class, method, outcome)
+ * and milkcalc.service.rows / milkcalc.repository.rows (distribution of returned collection sizes).
+ * Methods returning a Stream (exports, dashboard rollup) fetch their rows while the caller consumes it,
+ * so they are timed until the stream is closed and the rows are counted as they pass.
+ * Calls within the same service (e.g. save -> mapToEntity) are not intercepted.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // outside of @Transactional, so commit and flush are included
+public class MetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.example.transferprojekt.services.SupplierService.*(..))"
+            + " || execution(public * com.example.transferprojekt.services.SupplierNrService.*(..))"
+            + " || execution(public * com.example.transferprojekt.services.AssignmentService.*(..))"
+            + " || execution(public * com.example.transferprojekt.services.MilkDeliveryService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record("milkcalc.service", joinPoint);
+    }
+
+    /* Inherited CRUD methods (findById, save, ...) are covered by spring.data.repository.invocations */
+    @Around("execution(* com.example.transferprojekt.jpa.repositories.*.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record("milkcalc.repository", joinPoint);
+    }
+
+    private Object record(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        String className = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String methodName = joinPoint.getSignature().getName();
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable ex) {
+            stop(sample, name, className, methodName, "error");
+            throw ex;
+        }
+
+        if (result instanceof Stream<?> stream) {
+            return timeUntilClosed(stream, sample, name, className, methodName);
+        }
+        if (result instanceof Collection<?> collection) {
+            recordRows(name, className, methodName, collection.size());
+        } else if (result instanceof Map<?, ?> map) {
+            recordRows(name, className, methodName, map.size());
+        }
+        stop(sample, name, className, methodName, "success");
+        return result;
+    }
+
+    /* Close handlers belong to the whole pipeline, so closing the returned stream also closes the result set */
+    private <T> Stream<T> timeUntilClosed(Stream<T> stream, Timer.Sample sample,
+                                          String name, String className, String methodName) {
+        LongAdder rows = new LongAdder();
+        return stream
+                .peek(row -> rows.increment())
+                .onClose(() -> {
+                    recordRows(name, className, methodName, rows.sum());
+                    stop(sample, name, className, methodName, "success");
+                });
+    }
+
+    private void stop(Timer.Sample sample, String name, String className, String methodName, String outcome) {
+        sample.stop(Timer.builder(name)
+                .tag("class", className)
+                .tag("method", methodName)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private void recordRows(String name, String className, String methodName, long rows) {
+        DistributionSummary.builder(name + ".rows")
+                .baseUnit("rows")
+                .tag("class", className)
+                .tag("method", methodName)
+                .register(meterRegistry)
+                .record(rows);
+    }
+}
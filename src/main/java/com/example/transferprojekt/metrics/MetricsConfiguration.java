@@ -0,0 +1,75 @@
+package com.example.transferprojekt.metrics;
+
+import com.example.transferprojekt.services.AssignmentService;
+import com.example.transferprojekt.services.ReferenceDataCache;
+import com.example.transferprojekt.services.SupplierNrService;
+import com.example.transferprojekt.services.SupplierService;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.logging.LoggingMeterRegistry;
+import io.micrometer.core.instrument.logging.LoggingRegistryConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Additional meters and the optional rolling log summary.
+ * Service and repository timings are recorded by {@link MetricsAspect},
+ * all meters are published via JMX (see management.* in application.yaml).
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Hit and miss counters of the in-memory reference data caches
+     */
+    @Bean
+    public MeterBinder referenceDataCacheMetrics(SupplierNrService supplierNrService,
+                                                 SupplierService supplierService,
+                                                 AssignmentService assignmentService) {
+        return registry -> {
+            for (ReferenceDataCache<?> cache : List.of(
+                    supplierNrService.getCache(), supplierService.getCache(), assignmentService.getCache())) {
+                FunctionCounter.builder("milkcalc.cache.hits", cache, ReferenceDataCache::getHits)
+                        .tag("cache", cache.getName())
+                        .register(registry);
+                FunctionCounter.builder("milkcalc.cache.misses", cache, ReferenceDataCache::getMisses)
+                        .tag("cache", cache.getName())
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * Logs a summary of the application meters every interval (milkcalc.metrics.log-summary.*)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "milkcalc.metrics.log-summary.enabled", havingValue = "true")
+    public LoggingMeterRegistry loggingMeterRegistry(
+            @Value("${milkcalc.metrics.log-summary.interval:1m}") Duration interval) {
+        LoggingRegistryConfig config = new LoggingRegistryConfig() {
+            @Override
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public Duration step() {
+                return interval;
+            }
+        };
+
+        LoggingMeterRegistry registry = new LoggingMeterRegistry(config, Clock.SYSTEM);
+        registry.config()
+                .meterFilter(MeterFilter.acceptNameStartsWith("milkcalc"))
+                .meterFilter(MeterFilter.acceptNameStartsWith("spring.data.repository"))
+                .meterFilter(MeterFilter.deny());
+        return registry;
+    }
+}
@@ -13,24 +13,63 @@ public class AdminToolsService {
     private final AssignmentRepository assignmentRepository;
     private final MilkDeliveryRepository milkDeliveryRepository;
     private final SupplierRepository supplierRepository;
+    private final SupplierService supplierService;
+    private final SupplierNrService supplierNrService;
+    private final AssignmentService assignmentService;
+    private final DeliveryRollupService deliveryRollupService;
+    private final SettlementService settlementService;
+    private final MilkPriceService milkPriceService;
+    private final ChangeTrackingService changeTrackingService;
 
     public AdminToolsService(
             AssignmentRepository assignmentRepository,
             MilkDeliveryRepository milkDeliveryRepository,
-            SupplierRepository supplierRepository) {
+            SupplierRepository supplierRepository,
+            SupplierService supplierService,
+            SupplierNrService supplierNrService,
+            AssignmentService assignmentService,
+            DeliveryRollupService deliveryRollupService,
+            SettlementService settlementService,
+            MilkPriceService milkPriceService,
+            ChangeTrackingService changeTrackingService) {
         this.assignmentRepository = assignmentRepository;
         this.milkDeliveryRepository = milkDeliveryRepository;
         this.supplierRepository = supplierRepository;
+        this.supplierService = supplierService;
+        this.supplierNrService = supplierNrService;
+        this.assignmentService = assignmentService;
+        this.deliveryRollupService = deliveryRollupService;
+        this.settlementService = settlementService;
+        this.milkPriceService = milkPriceService;
+        this.changeTrackingService = changeTrackingService;
     }
 
     public void flushAllDataTables(String key){
         if (key.equals("DELETE")){
+            // deleteAll removes row by row, one change log entry per table instead of one per row
+            changeTrackingService.recordBulkChange(ChangeTrackingService.SUPPLIERS,
+                    ChangeTrackingService.ASSIGNMENTS, ChangeTrackingService.DELIVERIES);
+            settlementService.deleteAllRuns();
+            milkPriceService.deleteAll();
             assignmentRepository.deleteAll();
             milkDeliveryRepository.deleteAll();
+            deliveryRollupService.clear();
             supplierRepository.deleteAll();
+            supplierService.invalidateCache();
+            supplierNrService.invalidateCache();
+            assignmentService.invalidateCache();
             System.out.println("All tables flushed!");
         } else {
             System.out.println("Invalid key, abborting");
         }
     }
+
+    /**
+     * Recalculates the daily delivery rollup from all milk deliveries
+     *
+     * @return The number of rollup rows
+     */
+    public int rebuildDeliveryRollup() {
+        return deliveryRollupService.rebuild();
+    }
 }
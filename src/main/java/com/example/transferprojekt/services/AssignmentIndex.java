@@ -0,0 +1,148 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.Assignment;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable interval index over all assignments.
+ * Per supplier number the assignments are kept sorted by start date in primitive arrays,
+ * so "who held number N on date D" is a binary search (O(log n)) without database access.
+ *
+ * Assignments of one number must not overlap (checked on save). If legacy data overlaps,
+ * the assignment with the latest start date wins.
+ */
+public class AssignmentIndex {
+
+    private static final long OPEN_END = Long.MAX_VALUE;
+
+    private final Map<Integer, Intervals> intervalsBySupplierNr;
+    private final Map<UUID, List<Assignment>> assignmentsBySupplier;
+    private final int[] supplierNrs;
+    private final int size;
+
+    public AssignmentIndex(Collection<Assignment> assignments) {
+        Map<Integer, List<Assignment>> grouped = new HashMap<>();
+        Map<UUID, List<Assignment>> bySupplier = new HashMap<>();
+        for (Assignment assignment : assignments) {
+            grouped.computeIfAbsent(assignment.getSupplierNumber().getId(), k -> new ArrayList<>()).add(assignment);
+            bySupplier.computeIfAbsent(assignment.getSupplierId(), k -> new ArrayList<>()).add(assignment);
+        }
+        this.assignmentsBySupplier = bySupplier;
+
+        Map<Integer, Intervals> intervals = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((supplierNr, list) -> intervals.put(supplierNr, new Intervals(list)));
+        this.intervalsBySupplierNr = intervals;
+        this.supplierNrs = intervals.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        this.size = assignments.size();
+    }
+
+    /**
+     * Finds the assignment holding a supplier number on a date
+     *
+     * @return The assignment or null if the number was not assigned on that date
+     */
+    public Assignment find(int supplierNr, LocalDate date) {
+        return find(supplierNr, date.toEpochDay());
+    }
+
+    /**
+     * Variant for bulk attribution of many deliveries, the date is given as epoch day
+     * so no LocalDate has to be created per delivery.
+     */
+    public Assignment find(int supplierNr, long epochDay) {
+        Intervals intervals = intervalsBySupplierNr.get(supplierNr);
+        return intervals != null ? intervals.find(epochDay) : null;
+    }
+
+    /**
+     * Returns the supplier holding a supplier number on a date (epoch day)
+     *
+     * @return The supplier ID or null if the number was not assigned on that date
+     */
+    public UUID findSupplierId(int supplierNr, long epochDay) {
+        Assignment assignment = find(supplierNr, epochDay);
+        return assignment != null ? assignment.getSupplierId() : null;
+    }
+
+    /**
+     * All assignments active on a date, keyed by supplier number (sorted)
+     */
+    public Map<Integer, Assignment> findActive(LocalDate date) {
+        long epochDay = date.toEpochDay();
+
+        Map<Integer, Assignment> active = new LinkedHashMap<>();
+        for (int supplierNr : supplierNrs) {
+            Assignment assignment = intervalsBySupplierNr.get(supplierNr).find(epochDay);
+            if (assignment != null) {
+                active.put(supplierNr, assignment);
+            }
+        }
+        return active;
+    }
+
+    /**
+     * All assignments of a supplier, e.g. to attribute deliveries to it by number and date
+     *
+     * @return The assignments, empty if the supplier has none
+     */
+    public List<Assignment> findBySupplier(UUID supplierId) {
+        return Collections.unmodifiableList(assignmentsBySupplier.getOrDefault(supplierId, List.of()));
+    }
+
+    /**
+     * Number of indexed assignments
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The assignments of one supplier number, sorted by start date
+     */
+    private static final class Intervals {
+
+        private final long[] starts;
+        private final long[] ends;
+        private final Assignment[] assignments;
+
+        private Intervals(List<Assignment> list) {
+            list.sort(Comparator.comparing(Assignment::getValidFrom));
+            int n = list.size();
+            starts = new long[n];
+            ends = new long[n];
+            assignments = list.toArray(new Assignment[0]);
+            for (int i = 0; i < n; i++) {
+                Assignment assignment = assignments[i];
+                starts[i] = assignment.getValidFrom().toEpochDay();
+                ends[i] = assignment.getValidTo() != null ? assignment.getValidTo().toEpochDay() : OPEN_END;
+            }
+        }
+
+        private Assignment find(long epochDay) {
+            // Last assignment starting on or before the day
+            int pos = Arrays.binarySearch(starts, epochDay);
+            if (pos < 0) {
+                pos = -pos - 2;
+            } else {
+                // Equal start dates only occur with overlapping legacy data, take the last one
+                while (pos + 1 < starts.length && starts[pos + 1] == epochDay) pos++;
+            }
+
+            if (pos < 0 || ends[pos] < epochDay) {
+                return null;
+            }
+            return assignments[pos];
+        }
+    }
+}
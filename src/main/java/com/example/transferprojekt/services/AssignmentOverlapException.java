@@ -0,0 +1,19 @@
+package com.example.transferprojekt.services;
+
+/**
+ * A supplier number is already assigned within the period of a saved assignment,
+ * rejected by the exclusion constraint ex_zuweisung_lieferant_nr_gueltig (SQLSTATE 23P01).
+ */
+public class AssignmentOverlapException extends IllegalArgumentException {
+
+    private final int supplierNr;
+
+    public AssignmentOverlapException(int supplierNr, Throwable cause) {
+        super("Die Lieferantennummer " + supplierNr + " ist im gewählten Zeitraum bereits zugewiesen.", cause);
+        this.supplierNr = supplierNr;
+    }
+
+    public int getSupplierNr() {
+        return supplierNr;
+    }
+}
@@ -1,51 +1,79 @@
 package com.example.transferprojekt.services;
 
 import com.example.transferprojekt.dataclasses.Assignment;
+import com.example.transferprojekt.dataclasses.Company;
+import com.example.transferprojekt.dataclasses.RowChanges;
 import com.example.transferprojekt.dataclasses.SupplierNumber;
 import com.example.transferprojekt.jpa.entities.AssignmentEntity;
 import com.example.transferprojekt.jpa.entities.SupplierNrEntity;
 import com.example.transferprojekt.jpa.repositories.AssignmentRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 @Transactional
-public class AssignmentService {
+public class AssignmentService implements ChangeSource<Assignment> {
+
+    // PostgreSQL SQLSTATE of a violated exclusion constraint
+    private static final String EXCLUSION_VIOLATION = "23P01";
 
     private final AssignmentRepository assignmentRepository;
     private final SupplierService supplierService;
     private final SupplierNrService supplierNrService;
+    private final ChangeTrackingService changeTrackingService;
+
+    // Interval index over all assignments, rebuilt after every assignment change
+    private final ReferenceDataCache<AssignmentIndex> cache;
 
     public AssignmentService(AssignmentRepository assignmentRepository,
                              SupplierService supplierService,
-                             SupplierNrService supplierNrService) {
+                             SupplierNrService supplierNrService,
+                             ChangeTrackingService changeTrackingService) {
         this.assignmentRepository = assignmentRepository;
         this.supplierService = supplierService;
         this.supplierNrService = supplierNrService;
+        this.changeTrackingService = changeTrackingService;
+        this.cache = new ReferenceDataCache<>("assignments",
+                () -> new AssignmentIndex(assignmentRepository.findAllAsDataclass()),
+                changeTrackingService, ChangeTrackingService.ASSIGNMENTS);
     }
 
     /**
-     * Finds the active assignment for a given supplier number and date
+     * Finds the active assignment for a given supplier number and date.
+     * Uses the interval index if it is loaded, otherwise a single lookup on the
+     * GiST index of zuweisung instead of loading all assignments.
      *
      * @param supplierNumberId The supplier number to check
      * @param date The date for which the assignment should be active
      * @return The active assignment or null if none found
      */
     public Assignment getActiveAssignment(int supplierNumberId, LocalDate date) {
-        List<AssignmentEntity> overlapping = assignmentRepository.findOverlappingAssignments(
-                supplierNumberId, date, date, null);
+        AssignmentIndex index = cache.getIfLoaded();
+        if (index == null) {
+            return assignmentRepository.findActiveAssignmentId(supplierNumberId, date)
+                    .flatMap(assignmentRepository::findById)
+                    .map(this::mapToDataclass)
+                    .orElse(null);
+        }
 
-        if (overlapping.isEmpty()) {
+        Assignment assignment = index.find(supplierNumberId, date);
+        if (assignment == null) {
             return null;
         }
 
-        // Return the first one found (there should only be one due to overlap checks during save)
-        return mapToDataclass(overlapping.get(0));
+        // Copy with the current supplier name, suppliers may have been renamed since the index was built
+        return new Assignment(assignment.getAssignmentId(), assignment.getSupplierId(),
+                getSupplierName(assignment), assignment.getSupplierNumber(),
+                assignment.getValidFrom(), assignment.getValidTo());
     }
 
     /**
@@ -54,37 +82,32 @@ public class AssignmentService {
      * @param date The date to check for active assignments
      * @return A map where key is supplier number ID and value is the supplier name
      */
-    public java.util.Map<Integer, String> getActiveSupplierNames(LocalDate date) {
-        List<Assignment> allAssignments = getDatabaseEntries();
-        return allAssignments.stream()
-                .filter(a -> !a.getValidFrom().isAfter(date) &&
-                        (a.getValidTo() == null || !a.getValidTo().isBefore(date)))
-                .collect(java.util.stream.Collectors.toMap(
-                        a -> a.getSupplierNumber().getId(),
-                        Assignment::getSupplierName,
-                        (existing, replacement) -> existing // Keep the first one in case of overlaps (shouldn't happen)
-                ));
+    public Map<Integer, String> getActiveSupplierNames(LocalDate date) {
+        Map<Integer, String> names = new LinkedHashMap<>();
+        cache.get().findActive(date).forEach((supplierNr, assignment) ->
+                names.put(supplierNr, getSupplierName(assignment)));
+        return names;
     }
 
     /**
-     * Checks if there is an overlapping assignment for the given supplier number
-     * in the specified time range (excluding the assignment with excludeId if editing)
-     *
-     * @param supplierNumberId The supplier number to check
-     * @param validFrom Start date of the assignment
-     * @param validTo End date of the assignment (can be null for open-ended)
-     * @param excludeAssignmentId Assignment ID to exclude from check (for edit mode)
-     * @return true if there is an overlapping assignment, false otherwise
+     * Interval index over all assignments, e.g. to attribute many deliveries to their suppliers
      */
-    public boolean hasOverlappingAssignment(int supplierNumberId, LocalDate validFrom, LocalDate validTo, UUID excludeAssignmentId) {
-        List<AssignmentEntity> overlapping = assignmentRepository.findOverlappingAssignments(
-                supplierNumberId, validFrom, validTo, excludeAssignmentId);
-        return !overlapping.isEmpty();
+    public AssignmentIndex getAssignmentIndex() {
+        return cache.get();
+    }
+
+    private String getSupplierName(Assignment assignment) {
+        Company company = supplierService.getDataclassById(assignment.getSupplierId());
+        return company != null ? company.getAddress().getName() : assignment.getSupplierName();
     }
 
     /**
      * Saves an assignment (CREATE or UPDATE)
-     * If assignment has an ID, it updates; otherwise creates new
+     * If assignment has an ID, it updates; otherwise creates new.
+     * Overlaps with other assignments of the number are rejected by the exclusion constraint
+     * ex_zuweisung_lieferant_nr_gueltig, also when two clients save at the same time.
+     *
+     * @throws AssignmentOverlapException If the number is already assigned within the period
      */
     public AssignmentEntity save(Assignment assignment) {
         AssignmentEntity entity;
@@ -115,7 +138,35 @@ public class AssignmentService {
             entity = mapToEntity(assignment);
         }
 
-        return assignmentRepository.save(entity);
+        AssignmentEntity saved;
+        try {
+            // Flush now, so a violation surfaces here and not at commit
+            saved = assignmentRepository.saveAndFlush(entity);
+        } catch (DataIntegrityViolationException ex) {
+            if (isOverlapViolation(ex)) {
+                throw new AssignmentOverlapException(assignment.getSupplierNumber().getId(), ex);
+            }
+            throw ex;
+        }
+        cache.invalidate();
+        return saved;
+    }
+
+    /**
+     * Saves an assignment like {@link #save(Assignment)} and returns it as shown in the lists,
+     * the supplier name is read within the transaction
+     */
+    public Assignment saveAndGet(Assignment assignment) {
+        return mapToDataclass(save(assignment));
+    }
+
+    private static boolean isOverlapViolation(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public AssignmentEntity mapToEntity(Assignment assignment) {
@@ -150,10 +201,8 @@ public class AssignmentService {
     }
 
     public List<Assignment> getDatabaseEntries(){
-        List<AssignmentEntity> entities = assignmentRepository.findAllWithSuppliers();
-        return entities.stream()
-                .map(this::mapToDataclass)
-                .toList();
+        // Projection query: one SELECT joining the supplier, no entity graph per row
+        return assignmentRepository.findAllAsDataclass();
     }
 
     public AssignmentEntity getById(UUID assignmentId){
@@ -166,6 +215,7 @@ public class AssignmentService {
     public boolean deleteById(UUID assignmentId) {
         try {
             assignmentRepository.deleteById(assignmentId);
+            cache.invalidate();
             return true;
         } catch (Exception ex) {
             System.out.println("Exception while deleting assignment:");
@@ -173,4 +223,54 @@ public class AssignmentService {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public long getChangeWatermark() {
+        return changeTrackingService.getWatermark();
+    }
+
+    /**
+     * Assignments changed since a watermark, also by other clients. The assignments of renamed
+     * suppliers count as changed, the list shows the supplier name.
+     */
+    @Override
+    public RowChanges<Assignment> getChangesSince(long watermark) {
+        long newWatermark = changeTrackingService.getWatermark();
+        RowChanges<UUID> changes = changeTrackingService.getChangedIds(
+                ChangeTrackingService.ASSIGNMENTS, watermark, newWatermark);
+        RowChanges<UUID> supplierChanges = changeTrackingService.getChangedIds(
+                ChangeTrackingService.SUPPLIERS, watermark, newWatermark);
+        if (changes.isReloadRequired() || supplierChanges.isReloadRequired()) {
+            cache.invalidate();
+            return RowChanges.reloadRequired(newWatermark);
+        }
+        if (!changes.isEmpty()) {
+            cache.invalidate();
+        }
+
+        if (changes.getChangedRows().isEmpty() && supplierChanges.getChangedRows().isEmpty()) {
+            return changes.withRows(List.of());
+        }
+        return changes.withRows(assignmentRepository.findAllAsDataclassByIdsOrSupplierIds(
+                changes.getChangedRows(), supplierChanges.getChangedRows()));
+    }
+
+    @Override
+    public UUID getRowId(Assignment assignment) {
+        return assignment.getAssignmentId();
+    }
+
+    /**
+     * Drops the assignment index, e.g. after bulk deletes that bypass this service
+     */
+    public void invalidateCache() {
+        cache.invalidate();
+    }
+
+    /**
+     * Cache of the assignment index (for statistics)
+     */
+    public ReferenceDataCache<?> getCache() {
+        return cache;
+    }
+}
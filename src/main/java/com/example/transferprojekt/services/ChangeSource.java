@@ -0,0 +1,29 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.RowChanges;
+
+import java.util.UUID;
+
+/**
+ * Service whose rows can be refreshed differentially: a list reads the watermark before loading
+ * and later asks for the rows changed since (see ChangeTrackingService).
+ *
+ * @param <T> The row type of the list
+ */
+public interface ChangeSource<T> {
+
+    /**
+     * Watermark to read before loading the rows
+     */
+    long getChangeWatermark();
+
+    /**
+     * Rows changed since a watermark, with the watermark for the next query
+     */
+    RowChanges<T> getChangesSince(long watermark);
+
+    /**
+     * ID of a row, the changes are matched to the loaded rows by it
+     */
+    UUID getRowId(T row);
+}
@@ -0,0 +1,151 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.RowChanges;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reads the change log of V8__aenderungsprotokoll.sql, written by triggers on lieferant, zuweisung and milchlieferung.
+ * Changes of lieferantennummer are logged per statement without IDs (V9), they only invalidate caches.
+ *
+ * The watermark is the oldest transaction still running when it is read. Rows loaded afterwards contain
+ * every change of older transactions, so asking for the log entries from the watermark on misses no change;
+ * entries may be returned twice. Bulk changes, more than MAX_CHANGES entries and watermarks older than the
+ * cleaned up entries are answered with "reload required". Bulk writes (import, saveAll, deleting all data)
+ * record one entry per table with {@link #recordBulkChange} instead of one per row.
+ */
+@Service
+public class ChangeTrackingService {
+
+    public static final String SUPPLIERS = "lieferant";
+    public static final String ASSIGNMENTS = "zuweisung";
+    public static final String DELIVERIES = "milchlieferung";
+    public static final String SUPPLIER_NUMBERS = "lieferantennummer";
+
+    // Beyond this number of entries reloading the list is cheaper than applying them row by row
+    private static final int MAX_CHANGES = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int retentionHours;
+
+    public ChangeTrackingService(JdbcTemplate jdbcTemplate,
+                                 @Value("${milkcalc.change-log.retention-hours:24}") int retentionHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionHours = retentionHours;
+    }
+
+    /**
+     * Current watermark, read it before loading the rows it applies to
+     */
+    public long getWatermark() {
+        return jdbcTemplate.queryForObject("SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint", Long.class);
+    }
+
+    /**
+     * IDs of the rows of a table changed since a watermark
+     *
+     * @param table One of SUPPLIERS, ASSIGNMENTS, DELIVERIES
+     * @param since The watermark of the last load or query
+     * @param watermark The watermark read before this query, returned for the next one
+     * @return The changed and deleted IDs
+     */
+    public RowChanges<UUID> getChangedIds(String table, long since, long watermark) {
+        Long cleanedUpTo = jdbcTemplate.queryForObject("SELECT bis_transaktion FROM aenderung_bereinigt", Long.class);
+        if (cleanedUpTo != null && cleanedUpTo >= since) {
+            return RowChanges.reloadRequired(watermark);
+        }
+
+        Set<UUID> changedIds = new LinkedHashSet<>();
+        Set<UUID> deletedIds = new LinkedHashSet<>();
+        int[] entries = new int[1];
+        boolean[] bulkChange = new boolean[1];
+        jdbcTemplate.query("""
+                SELECT zeilen_id, geloescht FROM aenderung
+                WHERE tabelle = ? AND transaktion >= ?
+                ORDER BY aenderung_id
+                LIMIT ?
+                """, rs -> {
+            entries[0]++;
+            UUID id = rs.getObject("zeilen_id", UUID.class);
+            if (id == null) {
+                bulkChange[0] = true;
+            } else if (rs.getBoolean("geloescht")) {
+                changedIds.remove(id);
+                deletedIds.add(id);
+            } else {
+                changedIds.add(id);
+            }
+        }, table, since, MAX_CHANGES + 1);
+
+        if (bulkChange[0] || entries[0] > MAX_CHANGES) {
+            return RowChanges.reloadRequired(watermark);
+        }
+        return new RowChanges<>(watermark, new ArrayList<>(changedIds), deletedIds);
+    }
+
+    /**
+     * Whether a table changed since a watermark, also true if its entries were already cleaned up
+     *
+     * @param table One of the table constants
+     * @param since The watermark of the last load or check
+     */
+    public boolean hasChangesSince(String table, long since) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
+                SELECT EXISTS (SELECT 1 FROM aenderung WHERE tabelle = ? AND transaktion >= ?)
+                    OR (SELECT bis_transaktion FROM aenderung_bereinigt) >= ?
+                """, Boolean.class, table, since, since));
+    }
+
+    /**
+     * Records bulk changes of tables in the current transaction with one entry per table,
+     * the triggers skip these tables for the rest of the transaction (V10). Lists of the tables
+     * are reloaded on their next refresh. Call it before the bulk writes.
+     *
+     * @param tables Table constants, e.g. DELIVERIES
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBulkChange(String... tables) {
+        String list = String.join(",", tables);
+        jdbcTemplate.queryForObject("""
+                SELECT set_config('milkcalc.aenderung_gesammelt',
+                                  concat_ws(',', nullif(current_setting('milkcalc.aenderung_gesammelt', true), ''), ?),
+                                  true)
+                """, String.class, list);
+        jdbcTemplate.batchUpdate("INSERT INTO aenderung (tabelle) VALUES (?)",
+                Arrays.stream(tables).map(table -> new Object[]{table}).toList());
+    }
+
+    /**
+     * Records a change of a whole table that bypasses the triggers (e.g. detached partitions),
+     * lists of the table are reloaded on their next refresh
+     */
+    public void markReloadRequired(String table) {
+        jdbcTemplate.update("INSERT INTO aenderung (tabelle) VALUES (?)", table);
+    }
+
+    /**
+     * Deletes the entries older than milkcalc.change-log.retention-hours, nightly
+     */
+    @Scheduled(cron = "${milkcalc.change-log.cleanup-cron:0 30 3 * * *}")
+    public void cleanUp() {
+        jdbcTemplate.update("""
+                WITH geloescht AS (
+                    DELETE FROM aenderung WHERE zeitpunkt < now() - make_interval(hours => ?)
+                    RETURNING transaktion
+                )
+                UPDATE aenderung_bereinigt
+                SET bis_transaktion = GREATEST(bis_transaktion, (SELECT max(transaktion) FROM geloescht))
+                WHERE EXISTS (SELECT 1 FROM geloescht)
+                """, retentionHours);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.transferprojekt.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Maintains the monthly partitions of milchlieferung (see V7__milchlieferung_partitionen.sql).
+ *
+ * Partitions are created ahead of time on startup and by a nightly job. Deliveries for a month
+ * without partition (e.g. an import of old data) land in milchlieferung_default and are moved
+ * into their own partition on the next run, so inserts never fail for lack of a partition.
+ * Concurrent calls (several instances starting at once) are serialized by an advisory lock (V11).
+ *
+ * Old years are detached month by month with DETACH PARTITION, a catalog change instead of a DELETE.
+ * The detached partitions stay as standalone tables (milchlieferung_JJJJ_MM) for archiving or DROP.
+ * Their totals are removed from milchlieferung_tag in the same transaction, so the rollup always
+ * matches the attached deliveries and a rollup rebuild does not change statistics.
+ */
+@Service
+public class DeliveryPartitionService {
+
+    // Months with deliveries that have no partition yet
+    private static final String WAITING_MONTHS =
+            "SELECT DISTINCT date_trunc('month', datum)::date FROM milchlieferung_default";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeTrackingService changeTrackingService;
+    private final DeliveryRollupService deliveryRollupService;
+    private final int monthsAhead;
+
+    public DeliveryPartitionService(JdbcTemplate jdbcTemplate,
+                                    ChangeTrackingService changeTrackingService,
+                                    DeliveryRollupService deliveryRollupService,
+                                    @Value("${milkcalc.partitions.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeTrackingService = changeTrackingService;
+        this.deliveryRollupService = deliveryRollupService;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Creates the partitions of the current and the next months (milkcalc.partitions.*)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${milkcalc.partitions.cron:0 0 3 * * *}")
+    public void createUpcomingPartitions() {
+        createPartitions(YearMonth.now());
+    }
+
+    /**
+     * Creates the partitions from a month up to the configured number of months ahead,
+     * plus the partitions of all months waiting in the default partition
+     *
+     * @param from The first month
+     * @return The number of created partitions
+     */
+    public int createPartitions(YearMonth from) {
+        int created = 0;
+        for (YearMonth month = from; !month.isAfter(from.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            if (createPartition(month)) created++;
+        }
+
+        for (LocalDate month : jdbcTemplate.queryForList(WAITING_MONTHS, LocalDate.class)) {
+            if (createPartition(YearMonth.from(month))) created++;
+        }
+        return created;
+    }
+
+    /**
+     * Creates the partition of one month and moves its deliveries out of the default partition
+     *
+     * @return true if created, false if it already existed
+     */
+    public boolean createPartition(YearMonth month) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT milchlieferung_partition_erstellen(?)", Boolean.class, month.atDay(1)));
+    }
+
+    /**
+     * Detaches all monthly partitions of a past year from milchlieferung
+     * and removes the year from the daily rollup
+     *
+     * @param year The year, must be before the current year
+     * @return The names of the detached tables
+     */
+    @Transactional
+    public List<String> detachYear(int year) {
+        if (year >= Year.now().getValue()) {
+            throw new IllegalArgumentException("Nur abgeschlossene Jahre können abgehängt werden.");
+        }
+        // Deliveries of the year still waiting in the default partition get their partition first
+        for (LocalDate month : jdbcTemplate.queryForList(WAITING_MONTHS + " WHERE EXTRACT(YEAR FROM datum) = ?",
+                LocalDate.class, year)) {
+            createPartition(YearMonth.from(month));
+        }
+        List<String> detached = jdbcTemplate.queryForList("SELECT milchlieferung_jahr_abhaengen(?)", String.class, year);
+        if (!detached.isEmpty()) {
+            // The rollup only counts attached deliveries, otherwise a rebuild would silently drop the year
+            deliveryRollupService.removePeriod(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+            // DETACH bypasses the change log triggers, open delivery lists reload
+            changeTrackingService.markReloadRequired(ChangeTrackingService.DELIVERIES);
+        }
+        return detached;
+    }
+}
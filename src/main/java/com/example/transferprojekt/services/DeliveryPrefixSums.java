@@ -0,0 +1,262 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.Assignment;
+import com.example.transferprojekt.dataclasses.DeliveryStatistics;
+import com.example.transferprojekt.dataclasses.KgAmount;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Daily prefix sums (delivery count and kg) over the rows of the daily rollup.
+ * Built once per load; any [from, to] total is then a difference of two prefix entries.
+ * Days outside of the loaded period count as days without deliveries.
+ *
+ * Globally the prefix arrays are dense (one entry per day, O(1) per range).
+ * Per supplier number they only cover the days with deliveries, so memory stays
+ * proportional to the data; a range costs two binary searches there.
+ */
+public class DeliveryPrefixSums {
+
+    /**
+     * Bucket size of a time series
+     */
+    public enum Granularity {
+        DAY, WEEK, MONTH;
+
+        /* First day of the bucket containing the date */
+        LocalDate bucketStart(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(DayOfWeek.MONDAY);
+                case MONTH -> date.withDayOfMonth(1);
+            };
+        }
+
+        LocalDate nextBucketStart(LocalDate bucketStart) {
+            return switch (this) {
+                case DAY -> bucketStart.plusDays(1);
+                case WEEK -> bucketStart.plusWeeks(1);
+                case MONTH -> bucketStart.plusMonths(1);
+            };
+        }
+    }
+
+    private final long firstDay;
+    private final int days;
+    // Entry i holds the totals of all days before firstDay + i
+    private final long[] countPrefix;
+    private final long[] hundredthsPrefix;
+
+    private final Map<Integer, SupplierSums> sumsBySupplierNr;
+
+    private DeliveryPrefixSums(long firstDay, int days, long[] countPrefix, long[] hundredthsPrefix,
+                               Map<Integer, SupplierSums> sumsBySupplierNr) {
+        this.firstDay = firstDay;
+        this.days = days;
+        this.countPrefix = countPrefix;
+        this.hundredthsPrefix = hundredthsPrefix;
+        this.sumsBySupplierNr = sumsBySupplierNr;
+    }
+
+    /**
+     * Builder for prefix sums over pre-aggregated rows (e.g. the daily rollup), added in ascending date order
+     *
+     * @param fromDate First day covered (inclusive), earlier rows are not allowed
+     * @param toDate Last day covered (inclusive), later rows are not allowed
+     */
+    public static Builder builder(LocalDate fromDate, LocalDate toDate) {
+        return new Builder(fromDate.toEpochDay(), Math.toIntExact(toDate.toEpochDay() - fromDate.toEpochDay() + 1));
+    }
+
+    /**
+     * Count, total and average of all deliveries within a period (O(1))
+     */
+    public DeliveryStatistics getStatistics(LocalDate fromDate, LocalDate toDate) {
+        int from = index(fromDate.toEpochDay());
+        int to = index(toDate.toEpochDay() + 1);
+        if (to <= from) {
+            return new DeliveryStatistics(0, KgAmount.ZERO);
+        }
+        return new DeliveryStatistics(countPrefix[to] - countPrefix[from],
+                KgAmount.ofHundredths(hundredthsPrefix[to] - hundredthsPrefix[from]));
+    }
+
+    /**
+     * Count, total and average of the deliveries of a supplier within a period.
+     * Each assignment contributes the deliveries of its number on the days it was valid,
+     * so a number handed over to another supplier is split at the handover (two binary searches per assignment).
+     *
+     * @param assignments The assignments of the supplier
+     */
+    public DeliveryStatistics getStatistics(LocalDate fromDate, LocalDate toDate, Collection<Assignment> assignments) {
+        long fromDay = fromDate.toEpochDay();
+        long toDay = toDate.toEpochDay();
+
+        long count = 0;
+        long hundredths = 0;
+        for (Assignment assignment : assignments) {
+            SupplierSums sums = sumsBySupplierNr.get(assignment.getSupplierNumber().getId());
+            if (sums == null) continue;
+
+            long validFrom = Math.max(fromDay, assignment.getValidFrom().toEpochDay());
+            long validTo = assignment.getValidTo() != null ? Math.min(toDay, assignment.getValidTo().toEpochDay()) : toDay;
+            int from = sums.index(validFrom);
+            int to = sums.index(validTo + 1);
+            if (to > from) {
+                count += sums.countPrefix[to] - sums.countPrefix[from];
+                hundredths += sums.hundredthsPrefix[to] - sums.hundredthsPrefix[from];
+            }
+        }
+        return new DeliveryStatistics(count, KgAmount.ofHundredths(hundredths));
+    }
+
+    /**
+     * Time series of a period, one entry per day, week (from Monday) or month.
+     * The first and last bucket are cut to the period.
+     *
+     * @param assignments The assignments of the supplier to include, null for all deliveries
+     * @return The statistics per bucket, keyed by the first day of the bucket
+     */
+    public Map<LocalDate, DeliveryStatistics> getSeries(LocalDate fromDate, LocalDate toDate,
+                                                        Granularity granularity, Collection<Assignment> assignments) {
+        Map<LocalDate, DeliveryStatistics> series = new LinkedHashMap<>();
+        for (LocalDate bucket = granularity.bucketStart(fromDate); !bucket.isAfter(toDate);
+             bucket = granularity.nextBucketStart(bucket)) {
+
+            LocalDate bucketFrom = bucket.isBefore(fromDate) ? fromDate : bucket;
+            LocalDate bucketEnd = granularity.nextBucketStart(bucket).minusDays(1);
+            LocalDate bucketTo = bucketEnd.isAfter(toDate) ? toDate : bucketEnd;
+
+            series.put(bucket, assignments == null
+                    ? getStatistics(bucketFrom, bucketTo)
+                    : getStatistics(bucketFrom, bucketTo, assignments));
+        }
+        return series;
+    }
+
+    /* Prefix index of a day, clamped to the covered range */
+    private int index(long epochDay) {
+        long index = epochDay - firstDay;
+        if (index < 0) return 0;
+        if (index > days) return days;
+        return (int) index;
+    }
+
+    /**
+     * Collects the totals per day, build() turns them into prefix sums
+     */
+    public static final class Builder {
+
+        private final long firstDay;
+        private final int days;
+        private final long[] countPrefix;
+        private final long[] hundredthsPrefix;
+        private final Map<Integer, SupplierSums.Builder> builders = new HashMap<>();
+
+        private Builder(long firstDay, int days) {
+            this.firstDay = firstDay;
+            this.days = Math.max(0, days);
+            this.countPrefix = new long[this.days + 1];
+            this.hundredthsPrefix = new long[this.days + 1];
+        }
+
+        /**
+         * Adds deliveries of one supplier number on one day
+         *
+         * @param count Number of deliveries
+         * @param hundredths Their total amount in hundredths of a kg
+         */
+        public Builder add(int supplierNr, long epochDay, long count, long hundredths) {
+            int index = Math.toIntExact(epochDay - firstDay) + 1;
+            if (index < 1 || index > days) {
+                throw new IllegalArgumentException("Day outside of the covered period: " + LocalDate.ofEpochDay(epochDay));
+            }
+            countPrefix[index] += count;
+            hundredthsPrefix[index] += hundredths;
+
+            builders.computeIfAbsent(supplierNr, nr -> new SupplierSums.Builder()).add((int) epochDay, count, hundredths);
+            return this;
+        }
+
+        public DeliveryPrefixSums build() {
+            for (int i = 1; i <= days; i++) {
+                countPrefix[i] += countPrefix[i - 1];
+                hundredthsPrefix[i] += hundredthsPrefix[i - 1];
+            }
+
+            Map<Integer, SupplierSums> sumsBySupplierNr = new HashMap<>(builders.size() * 2);
+            builders.forEach((supplierNr, builder) -> sumsBySupplierNr.put(supplierNr, builder.build()));
+            return new DeliveryPrefixSums(firstDay, days, countPrefix, hundredthsPrefix, sumsBySupplierNr);
+        }
+    }
+
+    /**
+     * Prefix sums of one supplier number over its delivery days only
+     */
+    private static final class SupplierSums {
+
+        private final int[] days;
+        // Entry i holds the totals of days[0 .. i-1]
+        private final long[] countPrefix;
+        private final long[] hundredthsPrefix;
+
+        private SupplierSums(int[] days, long[] countPrefix, long[] hundredthsPrefix) {
+            this.days = days;
+            this.countPrefix = countPrefix;
+            this.hundredthsPrefix = hundredthsPrefix;
+        }
+
+        /* Number of delivery days before the given day */
+        private int index(long epochDay) {
+            int low = 0;
+            int high = days.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (days[mid] < epochDay) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /* Collects the days in ascending order (rows are added sorted by date) */
+        private static final class Builder {
+
+            private int size;
+            private int[] days = new int[16];
+            private long[] countPrefix = new long[17];
+            private long[] hundredthsPrefix = new long[17];
+
+            private void add(int day, long count, long hundredths) {
+                if (size == 0 || days[size - 1] != day) {
+                    if (size == days.length) {
+                        days = Arrays.copyOf(days, size * 2);
+                        countPrefix = Arrays.copyOf(countPrefix, size * 2 + 1);
+                        hundredthsPrefix = Arrays.copyOf(hundredthsPrefix, size * 2 + 1);
+                    }
+                    days[size] = day;
+                    countPrefix[size + 1] = countPrefix[size];
+                    hundredthsPrefix[size + 1] = hundredthsPrefix[size];
+                    size++;
+                }
+                countPrefix[size] += count;
+                hundredthsPrefix[size] += hundredths;
+            }
+
+            private SupplierSums build() {
+                return new SupplierSums(
+                        Arrays.copyOf(days, size),
+                        Arrays.copyOf(countPrefix, size + 1),
+                        Arrays.copyOf(hundredthsPrefix, size + 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.KgAmount;
+import com.example.transferprojekt.dataclasses.MilkDelivery;
+import com.example.transferprojekt.enumerations.TimeWindow;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maintains the daily rollup table milchlieferung_tag
+ * (delivery count and total kg per supplier number, date and time window).
+ *
+ * Every write to milchlieferung has to go through this service within the same transaction,
+ * so the rollup is always consistent with the raw deliveries. Reports over months or years
+ * read the rollup instead of the raw deliveries (see DeliveryDayRepository).
+ */
+@Service
+@Transactional
+public class DeliveryRollupService {
+
+    private static final String ADD = """
+            INSERT INTO milchlieferung_tag (lieferant_nr, datum, zeitfenster, anzahl, menge_kg)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (lieferant_nr, datum, zeitfenster) DO UPDATE
+            SET anzahl = milchlieferung_tag.anzahl + EXCLUDED.anzahl,
+                menge_kg = milchlieferung_tag.menge_kg + EXCLUDED.menge_kg
+            """;
+
+    // Decrements under the row lock, concurrent removals of the same day see each other's result
+    private static final String SUBTRACT = """
+            UPDATE milchlieferung_tag
+            SET anzahl = anzahl - ?, menge_kg = menge_kg - ?
+            WHERE lieferant_nr = ? AND datum = ? AND zeitfenster = ?
+            RETURNING anzahl
+            """;
+
+    // Removing the last delivery of a day deletes the row (still locked by SUBTRACT, see V13)
+    private static final String DELETE_EMPTY = """
+            DELETE FROM milchlieferung_tag
+            WHERE lieferant_nr = ? AND datum = ? AND zeitfenster = ? AND anzahl = 0
+            """;
+
+    // %s is a query returning the columns lieferant_nr, datum, zeitfenster, menge_kg
+    private static final String ADD_FROM_QUERY = """
+            INSERT INTO milchlieferung_tag (lieferant_nr, datum, zeitfenster, anzahl, menge_kg)
+            SELECT d.lieferant_nr, d.datum, d.zeitfenster, COUNT(*), COALESCE(SUM(d.menge_kg), 0)
+            FROM (%s) d
+            GROUP BY d.lieferant_nr, d.datum, d.zeitfenster
+            ON CONFLICT (lieferant_nr, datum, zeitfenster) DO UPDATE
+            SET anzahl = milchlieferung_tag.anzahl + EXCLUDED.anzahl,
+                menge_kg = milchlieferung_tag.menge_kg + EXCLUDED.menge_kg
+            """;
+
+    private static final String ALL_DELIVERIES = """
+            SELECT lieferant_nr, datum, zeitfenster, menge_kg FROM milchlieferung
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeliveryRollupService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds one delivery to its day
+     */
+    public void add(int supplierNr, LocalDate date, TimeWindow timeWindow, KgAmount amount) {
+        jdbcTemplate.update(ADD, supplierNr, Date.valueOf(date), timeWindow.name(), 1L, amount.toBigDecimal());
+    }
+
+    /**
+     * Removes one delivery from its day, e.g. when it is deleted or moved to another day
+     */
+    public void remove(int supplierNr, LocalDate date, TimeWindow timeWindow, KgAmount amount) {
+        Date sqlDate = Date.valueOf(date);
+        List<Long> remaining = jdbcTemplate.queryForList(SUBTRACT, Long.class,
+                1L, amount.toBigDecimal(), supplierNr, sqlDate, timeWindow.name());
+        if (!remaining.isEmpty() && remaining.getFirst() == 0) {
+            jdbcTemplate.update(DELETE_EMPTY, supplierNr, sqlDate, timeWindow.name());
+        }
+    }
+
+    /**
+     * Adds many new deliveries. They are summed up per day first,
+     * so the database receives one batched upsert per affected day.
+     */
+    public void addAll(Collection<MilkDelivery> milkDeliveries) {
+        Map<DayKey, DayTotal> totals = new LinkedHashMap<>();
+        for (MilkDelivery milkDelivery : milkDeliveries) {
+            DayKey key = new DayKey(milkDelivery.getSupplierNumber().getId(), milkDelivery.getDate(), milkDelivery.getTimeWindow());
+            DayTotal total = totals.computeIfAbsent(key, k -> new DayTotal());
+            total.deliveryCount++;
+            total.amountHundredths += KgAmount.toHundredths(KgAmount.round(milkDelivery.getAmountKg()));
+        }
+        if (totals.isEmpty()) return;
+
+        List<Object[]> rows = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> rows.add(new Object[]{
+                key.supplierNr, Date.valueOf(key.date), key.timeWindow.name(), total.deliveryCount,
+                KgAmount.toBigDecimal(total.amountHundredths)
+        }));
+        jdbcTemplate.batchUpdate(ADD, rows);
+    }
+
+    /**
+     * Adds the deliveries returned by a SQL query, e.g. the valid rows of a CSV import
+     *
+     * @param deliveriesQuery Query returning the columns lieferant_nr, datum, zeitfenster, menge_kg
+     */
+    public void addFromQuery(String deliveriesQuery) {
+        jdbcTemplate.update(ADD_FROM_QUERY.formatted(deliveriesQuery));
+    }
+
+    /**
+     * Recalculates the whole rollup from milchlieferung.
+     * Writes to milchlieferung are blocked until the surrounding transaction commits.
+     *
+     * @return The number of rollup rows
+     */
+    public int rebuild() {
+        jdbcTemplate.execute("LOCK TABLE milchlieferung IN SHARE MODE");
+        clear();
+        return jdbcTemplate.update(ADD_FROM_QUERY.formatted(ALL_DELIVERIES));
+    }
+
+    /**
+     * Deletes the rollup rows of a period, used when its deliveries are detached from milchlieferung
+     *
+     * @param fromDate First day of the period (inclusive)
+     * @param toDate Last day of the period (inclusive)
+     */
+    public void removePeriod(LocalDate fromDate, LocalDate toDate) {
+        jdbcTemplate.update("DELETE FROM milchlieferung_tag WHERE datum BETWEEN ? AND ?", fromDate, toDate);
+    }
+
+    /**
+     * Deletes all rollup rows, used when all deliveries are deleted
+     */
+    public void clear() {
+        jdbcTemplate.update("DELETE FROM milchlieferung_tag");
+    }
+
+    private static final class DayKey {
+
+        private final int supplierNr;
+        private final LocalDate date;
+        private final TimeWindow timeWindow;
+
+        private DayKey(int supplierNr, LocalDate date, TimeWindow timeWindow) {
+            this.supplierNr = supplierNr;
+            this.date = date;
+            this.timeWindow = timeWindow;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DayKey key)) return false;
+            return supplierNr == key.supplierNr
+                    && Objects.equals(date, key.date)
+                    && timeWindow == key.timeWindow;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(supplierNr, date, timeWindow);
+        }
+    }
+
+    private static final class DayTotal {
+
+        private long deliveryCount;
+        private long amountHundredths;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.DeliveryExportRow;
+import com.example.transferprojekt.jpa.repositories.MilkDeliveryRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exports milk deliveries to CSV.
+ * Rows are streamed from a database cursor and written as they arrive,
+ * so memory usage does not depend on the size of the period.
+ * The column layout matches the CSV import (supplier number; date; time window; amount kg).
+ */
+@Service
+@Transactional(readOnly = true)
+public class MilkDeliveryExportService {
+
+    private static final char SEPARATOR = ';';
+
+    private final MilkDeliveryRepository milkDeliveryRepository;
+
+    public MilkDeliveryExportService(MilkDeliveryRepository milkDeliveryRepository) {
+        this.milkDeliveryRepository = milkDeliveryRepository;
+    }
+
+    /**
+     * Exports to a CSV file (UTF-8), see {@link #exportCsv(Writer, LocalDate, LocalDate, boolean)}
+     */
+    public long exportCsv(Path file, LocalDate fromDate, LocalDate toDate, boolean includeSupplier) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            return exportCsv(writer, fromDate, toDate, includeSupplier);
+        }
+    }
+
+    /**
+     * Writes all deliveries of a period as CSV, ordered by date
+     *
+     * @param writer Target of the CSV content (not closed)
+     * @param fromDate First day of the period (inclusive)
+     * @param toDate Last day of the period (inclusive)
+     * @param includeSupplier Adds the supplier assigned to the number on the delivery date
+     * @return The number of exported deliveries
+     */
+    public long exportCsv(Writer writer, LocalDate fromDate, LocalDate toDate, boolean includeSupplier) throws IOException {
+        BufferedWriter out = writer instanceof BufferedWriter bufferedWriter
+                ? bufferedWriter
+                : new BufferedWriter(writer);
+
+        out.write("Lieferantennummer;Datum;Zeitfenster;Menge kg");
+        if (includeSupplier) {
+            out.write(";Lieferant");
+        }
+        out.newLine();
+
+        long count = 0;
+        try (Stream<DeliveryExportRow> rows = includeSupplier
+                ? milkDeliveryRepository.streamForExportWithSupplier(fromDate, toDate)
+                : milkDeliveryRepository.streamForExport(fromDate, toDate)) {
+
+            Iterator<DeliveryExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                DeliveryExportRow row = iterator.next();
+                out.write(String.valueOf(row.getSupplierNumber()));
+                out.write(SEPARATOR);
+                out.write(row.getDate().toString());
+                out.write(SEPARATOR);
+                out.write(row.getTimeWindow().name());
+                out.write(SEPARATOR);
+                out.write(row.getAmountKg() != null ? row.getAmountKg().toPlainString() : "");
+                if (includeSupplier) {
+                    out.write(SEPARATOR);
+                    out.write(escape(row.getSupplierName()));
+                }
+                out.newLine();
+                count++;
+            }
+        }
+        out.flush();
+        return count;
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(SEPARATOR) >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
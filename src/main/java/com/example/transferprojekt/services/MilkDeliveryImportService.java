@@ -0,0 +1,281 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.DeliveryImportResult;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports milk deliveries from the CSV exports of the collection-point scales.
+ * Expected columns: supplier number, date, time window, amount in kg.
+ *
+ * The file is streamed line by line into a temporary staging table via COPY,
+ * validated there against the constraints of milchlieferung and then inserted
+ * with one INSERT ... SELECT. Memory usage does not depend on the file size.
+ */
+@Service
+@Transactional
+public class MilkDeliveryImportService {
+
+    // Only the first rejected lines are reported in detail, the rest is counted
+    private static final int MAX_REPORTED_REJECTS = 100;
+
+    // Rows are sent to the server in chunks of about this many characters
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMPORARY TABLE milchlieferung_import (
+                zeile           BIGINT NOT NULL,
+                felder          INTEGER NOT NULL,
+                lieferant_nr    TEXT,
+                datum           TEXT,
+                zeitfenster     TEXT,
+                menge_kg        TEXT,
+                fehler          TEXT
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_INTO_STAGING_TABLE = """
+            COPY milchlieferung_import (zeile, felder, lieferant_nr, datum, zeitfenster, menge_kg) FROM STDIN
+            """;
+
+    // Checks run in the same order as the insert would fail on them
+    private static final String VALIDATE_STAGING_TABLE = """
+            UPDATE milchlieferung_import s SET fehler = CASE
+                WHEN s.felder <> 4
+                    THEN 'Erwartet 4 Felder (Lieferantennummer, Datum, Zeitfenster, Menge kg), gefunden ' || s.felder
+                WHEN NOT pg_input_is_valid(s.lieferant_nr, 'integer')
+                    THEN 'Ungültige Lieferantennummer: ' || s.lieferant_nr
+                WHEN NOT EXISTS (SELECT 1 FROM lieferantennummer n WHERE n.lieferant_nr = s.lieferant_nr::integer)
+                    THEN 'Unbekannte Lieferantennummer: ' || s.lieferant_nr
+                WHEN s.datum !~ '^\\d{4}-\\d{2}-\\d{2}$' OR NOT pg_input_is_valid(s.datum, 'date')
+                    THEN 'Ungültiges Datum: ' || s.datum
+                WHEN upper(s.zeitfenster) NOT IN ('MORGEN', 'ABEND')
+                    THEN 'Ungültiges Zeitfenster: ' || s.zeitfenster
+                WHEN NOT pg_input_is_valid(s.menge_kg, 'numeric(10,2)')
+                    THEN 'Ungültige Menge: ' || s.menge_kg
+                WHEN s.menge_kg::numeric(10,2) < 0
+                    THEN 'Negative Menge: ' || s.menge_kg
+            END
+            """;
+
+    private static final String VALID_ROWS = """
+            SELECT lieferant_nr::integer AS lieferant_nr, datum::date AS datum,
+                   upper(zeitfenster) AS zeitfenster, menge_kg::numeric(10,2) AS menge_kg
+            FROM milchlieferung_import
+            WHERE fehler IS NULL
+            """;
+
+    private static final String INSERT_VALID_ROWS =
+            "INSERT INTO milchlieferung (lieferant_nr, datum, zeitfenster, menge_kg)\n" + VALID_ROWS;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final DeliveryRollupService deliveryRollupService;
+    private final ChangeTrackingService changeTrackingService;
+
+    public MilkDeliveryImportService(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                                     DeliveryRollupService deliveryRollupService,
+                                     ChangeTrackingService changeTrackingService) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.deliveryRollupService = deliveryRollupService;
+        this.changeTrackingService = changeTrackingService;
+    }
+
+    /**
+     * Imports a CSV file (UTF-8), see {@link #importCsv(Reader)}
+     */
+    public DeliveryImportResult importCsv(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importCsv(reader);
+        }
+    }
+
+    /**
+     * Imports milk deliveries from CSV. Fields are separated by ';' or ',' and may be quoted
+     * with '"' (a quoted field may contain the separator, '""' stands for one quote).
+     * With ';' the amount may use a decimal comma (150,50).
+     * A header line is skipped, dates may be given as YYYY-MM-DD or DD.MM.YYYY.
+     * Valid rows are imported, invalid rows are reported and skipped.
+     *
+     * @param csv The CSV content
+     * @return Number of imported and rejected rows with the reasons
+     */
+    public DeliveryImportResult importCsv(Reader csv) throws IOException {
+        jdbcTemplate.execute(CREATE_STAGING_TABLE);
+        copyIntoStagingTable(csv);
+
+        jdbcTemplate.update(VALIDATE_STAGING_TABLE);
+        changeTrackingService.recordBulkChange(ChangeTrackingService.DELIVERIES);
+        int importedRows = jdbcTemplate.update(INSERT_VALID_ROWS);
+        deliveryRollupService.addFromQuery(VALID_ROWS);
+
+        Long rejectedRows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM milchlieferung_import WHERE fehler IS NOT NULL", Long.class);
+        List<DeliveryImportResult.RejectedLine> rejectedLines = jdbcTemplate.query(
+                "SELECT zeile, fehler FROM milchlieferung_import WHERE fehler IS NOT NULL ORDER BY zeile LIMIT ?",
+                (rs, rowNum) -> new DeliveryImportResult.RejectedLine(rs.getLong("zeile"), rs.getString("fehler")),
+                MAX_REPORTED_REJECTS);
+
+        return new DeliveryImportResult(importedRows, rejectedRows != null ? rejectedRows : 0, rejectedLines);
+    }
+
+    private void copyIntoStagingTable(Reader csv) throws IOException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CopyIn copyIn = null;
+        try {
+            copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_INTO_STAGING_TABLE);
+
+            BufferedReader reader = csv instanceof BufferedReader bufferedReader
+                    ? bufferedReader
+                    : new BufferedReader(csv);
+            StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && isHeader(line))) {
+                    continue;
+                }
+                appendCopyRow(buffer, lineNumber, line);
+
+                if (buffer.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, buffer);
+                }
+            }
+            writeToCopy(copyIn, buffer);
+            copyIn.endCopy();
+
+        } catch (SQLException ex) {
+            throw new IllegalStateException("COPY in die Importtabelle fehlgeschlagen: " + ex.getMessage(), ex);
+        } finally {
+            try {
+                if (copyIn != null && copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            } catch (SQLException ignored) {
+                // the transaction is rolled back anyway
+            }
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.isEmpty()) return;
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Converts one CSV line into a row of the COPY text format:
+     * line number, field count and the four raw fields, tab separated.
+     */
+    private static void appendCopyRow(StringBuilder buffer, long lineNumber, String line) {
+        List<String> fields = splitFields(line);
+
+        buffer.append(lineNumber).append('\t').append(fields.size());
+        for (int i = 0; i < 4; i++) {
+            buffer.append('\t');
+            if (i >= fields.size()) {
+                buffer.append("\\N");
+                continue;
+            }
+            appendEscaped(buffer, fields.get(i));
+        }
+        buffer.append('\n');
+    }
+
+    /**
+     * Splits a CSV line on the separators outside of quotes, removes the quotes and brings
+     * date and amount into the form validated in the database (YYYY-MM-DD, decimal point).
+     */
+    static List<String> splitFields(String line) {
+        char delimiter = detectDelimiter(line);
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == delimiter && !quoted) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+
+        if (fields.size() > 1) {
+            fields.set(1, normalizeDate(fields.get(1)));
+        }
+        // With ';' as separator the scales write a decimal comma
+        if (delimiter == ';' && fields.size() > 3) {
+            fields.set(3, fields.get(3).replace(',', '.'));
+        }
+        return fields;
+    }
+
+    /* The first ';' or ',' outside of quotes decides the separator of the line */
+    private static char detectDelimiter(String line) {
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && (c == ';' || c == ',')) {
+                return c;
+            }
+        }
+        return ',';
+    }
+
+    private static boolean isHeader(String line) {
+        String first = splitFields(line).get(0);
+        return !first.isEmpty() && !Character.isDigit(first.charAt(0));
+    }
+
+    /* DD.MM.YYYY -> YYYY-MM-DD, anything else is passed through and validated in the database */
+    private static String normalizeDate(String value) {
+        if (value.length() == 10 && value.charAt(2) == '.' && value.charAt(5) == '.') {
+            return value.substring(6) + "-" + value.substring(3, 5) + "-" + value.substring(0, 2);
+        }
+        return value;
+    }
+
+    private static void appendEscaped(StringBuilder buffer, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> buffer.append("\\\\");
+                case '\t' -> buffer.append("\\t");
+                case '\r' -> buffer.append("\\r");
+                case '\n' -> buffer.append("\\n");
+                default -> buffer.append(c);
+            }
+        }
+    }
+}
@@ -5,30 +5,50 @@ import com.example.transferprojekt.enumerations.TimeWindow;
 import com.example.transferprojekt.jpa.entities.MilkDeliveryEntity;
 import com.example.transferprojekt.jpa.entities.SupplierNrEntity;
 import com.example.transferprojekt.jpa.repositories.MilkDeliveryRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
-public class MilkDeliveryService {
+public class MilkDeliveryService implements ChangeSource<MilkDelivery> {
+
+    // Entities are flushed and detached in chunks so the persistence context stays small
+    private static final int BULK_FLUSH_SIZE = 1000;
 
     private final MilkDeliveryRepository milkDeliveryRepository;
     private final SupplierNrService supplierNrService;
-
-    public MilkDeliveryService(MilkDeliveryRepository milkDeliveryRepository, SupplierNrService supplierNrService) {
+    private final DeliveryRollupService deliveryRollupService;
+    private final EntityManager entityManager;
+    private final ChangeTrackingService changeTrackingService;
+
+    public MilkDeliveryService(MilkDeliveryRepository milkDeliveryRepository,
+                               SupplierNrService supplierNrService,
+                               DeliveryRollupService deliveryRollupService,
+                               EntityManager entityManager,
+                               ChangeTrackingService changeTrackingService) {
         this.milkDeliveryRepository = milkDeliveryRepository;
         this.supplierNrService = supplierNrService;
+        this.deliveryRollupService = deliveryRollupService;
+        this.entityManager = entityManager;
+        this.changeTrackingService = changeTrackingService;
     }
 
     /**
      * Saves a milk delivery (CREATE or UPDATE)
      * If delivery has an ID, it updates; otherwise creates new
+     * The daily rollup is updated in the same transaction
      */
     public MilkDeliveryEntity save(MilkDelivery milkDelivery) {
         MilkDeliveryEntity entity;
@@ -40,6 +60,10 @@ public class MilkDeliveryService {
                     .orElseThrow(() -> new EntityNotFoundException(
                             "MilkDelivery not found for id: " + milkDelivery.getDeliveryId()));
 
+            // The old values leave their day in the rollup (the delivery may move to another day or number)
+            deliveryRollupService.remove(entity.getSupplierNr().getSupplierNr(), entity.getDate(),
+                    entity.getTimeWindow(), entity.getAmount());
+
             // Update fields
             entity.setAmountKg(milkDelivery.getAmountKg());
             entity.setDate(milkDelivery.getDate());
@@ -59,7 +83,59 @@ public class MilkDeliveryService {
             entity = mapToEntity(milkDelivery);
         }
 
-        return milkDeliveryRepository.save(entity);
+        MilkDeliveryEntity saved = milkDeliveryRepository.save(entity);
+        deliveryRollupService.add(saved.getSupplierNr().getSupplierNr(), saved.getDate(),
+                saved.getTimeWindow(), saved.getAmount());
+        return saved;
+    }
+
+    /**
+     * Saves many new milk deliveries in one transaction (CREATE only).
+     * All supplier numbers are resolved with a single query and the inserts
+     * are sent as JDBC batches (see hibernate.jdbc.batch_size).
+     *
+     * @param milkDeliveries The new deliveries, none of them may have an ID yet
+     * @return The saved entities (detached)
+     */
+    public List<MilkDeliveryEntity> saveAll(List<MilkDelivery> milkDeliveries) {
+        // One change log entry instead of one per row (each JDBC batch is a statement of its own)
+        changeTrackingService.recordBulkChange(ChangeTrackingService.DELIVERIES, ChangeTrackingService.SUPPLIER_NUMBERS);
+
+        Set<Integer> supplierNumberIds = milkDeliveries.stream()
+                .map(milkDelivery -> milkDelivery.getSupplierNumber().getId())
+                .collect(Collectors.toSet());
+        Map<Integer, SupplierNrEntity> supplierNrEntities = supplierNrService.getOrCreateEntities(supplierNumberIds);
+
+        List<MilkDeliveryEntity> saved = new ArrayList<>(milkDeliveries.size());
+        List<MilkDeliveryEntity> chunk = new ArrayList<>(BULK_FLUSH_SIZE);
+        for (MilkDelivery milkDelivery : milkDeliveries) {
+            if (milkDelivery.getDeliveryId() != null) {
+                throw new IllegalArgumentException(
+                        "Bulk save only supports new deliveries, got id: " + milkDelivery.getDeliveryId());
+            }
+
+            MilkDeliveryEntity entity = new MilkDeliveryEntity();
+            entity.setAmountKg(milkDelivery.getAmountKg());
+            entity.setDate(milkDelivery.getDate());
+            entity.setTimeWindow(milkDelivery.getTimeWindow());
+            entity.setSupplierNr(supplierNrEntities.get(milkDelivery.getSupplierNumber().getId()));
+            chunk.add(entity);
+
+            if (chunk.size() == BULK_FLUSH_SIZE) {
+                saved.addAll(flushChunk(chunk));
+                chunk.clear();
+            }
+        }
+        saved.addAll(flushChunk(chunk));
+        deliveryRollupService.addAll(milkDeliveries);
+        return saved;
+    }
+
+    private List<MilkDeliveryEntity> flushChunk(List<MilkDeliveryEntity> chunk) {
+        List<MilkDeliveryEntity> saved = milkDeliveryRepository.saveAll(chunk);
+        entityManager.flush();
+        entityManager.clear();
+        return saved;
     }
 
     public MilkDeliveryEntity mapToEntity(MilkDelivery milkDelivery) {
@@ -91,10 +167,44 @@ public class MilkDeliveryService {
     }
 
     public List<MilkDelivery> getDatabaseEntries(){
-        List<MilkDeliveryEntity> entities = milkDeliveryRepository.findAll();
-        return entities.stream()
-                .map(this::mapToDataclass)
-                .toList();
+        // Projection query: one SELECT, no entities and no lazy supplier number loads
+        return milkDeliveryRepository.findAllAsDataclass();
+    }
+
+    /**
+     * Loads one page of deliveries ordered by (date, id) using keyset pagination.
+     * The cost per page stays constant, independent of how far the user has scrolled.
+     *
+     * @param after The last delivery of the previous page, or null for the first page
+     * @param pageSize The maximum number of deliveries to return
+     * @return The next page, smaller than pageSize if the end was reached
+     */
+    public List<MilkDelivery> getDatabaseEntriesAfter(MilkDelivery after, int pageSize) {
+        return after == null
+                ? milkDeliveryRepository.findFirstPage(Limit.of(pageSize))
+                : milkDeliveryRepository.findPageAfter(after.getDate(), after.getDeliveryId(), Limit.of(pageSize));
+    }
+
+    @Override
+    public long getChangeWatermark() {
+        return changeTrackingService.getWatermark();
+    }
+
+    /**
+     * Deliveries changed since a watermark, also by other clients; imports are reported as "reload required"
+     */
+    @Override
+    public RowChanges<MilkDelivery> getChangesSince(long watermark) {
+        RowChanges<UUID> changes = changeTrackingService.getChangedIds(
+                ChangeTrackingService.DELIVERIES, watermark, changeTrackingService.getWatermark());
+        return changes.withRows(changes.getChangedRows().isEmpty()
+                ? List.of()
+                : milkDeliveryRepository.findAllAsDataclassByIds(changes.getChangedRows()));
+    }
+
+    @Override
+    public UUID getRowId(MilkDelivery delivery) {
+        return delivery.getDeliveryId();
     }
 
     public MilkDeliveryEntity getById(UUID deliveryId){
@@ -102,11 +212,15 @@ public class MilkDeliveryService {
     }
 
     /**
-     * Deletes a milk delivery by ID
+     * Deletes a milk delivery by ID and removes it from the daily rollup
      */
     public boolean deleteById(UUID deliveryId) {
         try {
-            milkDeliveryRepository.deleteById(deliveryId);
+            milkDeliveryRepository.findById(deliveryId).ifPresent(entity -> {
+                milkDeliveryRepository.delete(entity);
+                deliveryRollupService.remove(entity.getSupplierNr().getSupplierNr(), entity.getDate(),
+                        entity.getTimeWindow(), entity.getAmount());
+            });
             return true;
         } catch (Exception ex) {
             System.out.println("Exception while deleting milk delivery:");
@@ -0,0 +1,114 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.MilkPrice;
+import com.example.transferprojekt.dataclasses.PriceSurcharge;
+import com.example.transferprojekt.jpa.entities.MilkPriceEntity;
+import com.example.transferprojekt.jpa.entities.PriceSurchargeEntity;
+import com.example.transferprojekt.jpa.repositories.MilkPriceRepository;
+import com.example.transferprojekt.jpa.repositories.PriceSurchargeRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Price tables of the milk money settlement: base prices per kg and time window surcharges,
+ * each with a validity period. Periods of the same kind must not overlap.
+ */
+@Service
+@Transactional
+public class MilkPriceService {
+
+    private final MilkPriceRepository milkPriceRepository;
+    private final PriceSurchargeRepository priceSurchargeRepository;
+
+    public MilkPriceService(MilkPriceRepository milkPriceRepository, PriceSurchargeRepository priceSurchargeRepository) {
+        this.milkPriceRepository = milkPriceRepository;
+        this.priceSurchargeRepository = priceSurchargeRepository;
+    }
+
+    /**
+     * Saves a base price (CREATE or UPDATE)
+     *
+     * @throws IllegalArgumentException if the period is invalid or overlaps another base price
+     */
+    public MilkPriceEntity savePrice(MilkPrice price) {
+        validatePeriod(price.getValidFrom(), price.getValidTo());
+        if (price.getPricePerKg() == null || price.getPricePerKg().signum() < 0) {
+            throw new IllegalArgumentException("Der Milchpreis muss grösser oder gleich 0 sein.");
+        }
+        if (milkPriceRepository.existsOverlapping(price.getValidFrom(), price.getValidTo(), price.getPriceId())) {
+            throw new IllegalArgumentException("Der Zeitraum überschneidet sich mit einem bestehenden Milchpreis.");
+        }
+
+        MilkPriceEntity entity = price.getPriceId() != null
+                ? milkPriceRepository.findById(price.getPriceId())
+                    .orElseThrow(() -> new EntityNotFoundException("MilkPriceEntity not found for id: " + price.getPriceId()))
+                : new MilkPriceEntity();
+        entity.setValidFrom(price.getValidFrom());
+        entity.setValidTo(price.getValidTo());
+        entity.setPricePerKg(price.getPricePerKg());
+        return milkPriceRepository.save(entity);
+    }
+
+    /**
+     * Saves a time window surcharge (CREATE or UPDATE)
+     *
+     * @throws IllegalArgumentException if the period is invalid or overlaps another surcharge of the time window
+     */
+    public PriceSurchargeEntity saveSurcharge(PriceSurcharge surcharge) {
+        validatePeriod(surcharge.getValidFrom(), surcharge.getValidTo());
+        if (surcharge.getTimeWindow() == null || surcharge.getSurchargePerKg() == null) {
+            throw new IllegalArgumentException("Zeitfenster und Zuschlag sind erforderlich.");
+        }
+        if (priceSurchargeRepository.existsOverlapping(surcharge.getTimeWindow(), surcharge.getValidFrom(),
+                surcharge.getValidTo(), surcharge.getSurchargeId())) {
+            throw new IllegalArgumentException("Der Zeitraum überschneidet sich mit einem bestehenden Zuschlag für "
+                    + surcharge.getTimeWindow() + ".");
+        }
+
+        PriceSurchargeEntity entity = surcharge.getSurchargeId() != null
+                ? priceSurchargeRepository.findById(surcharge.getSurchargeId())
+                    .orElseThrow(() -> new EntityNotFoundException("PriceSurchargeEntity not found for id: " + surcharge.getSurchargeId()))
+                : new PriceSurchargeEntity();
+        entity.setTimeWindow(surcharge.getTimeWindow());
+        entity.setValidFrom(surcharge.getValidFrom());
+        entity.setValidTo(surcharge.getValidTo());
+        entity.setSurchargePerKg(surcharge.getSurchargePerKg());
+        return priceSurchargeRepository.save(entity);
+    }
+
+    private static void validatePeriod(LocalDate validFrom, LocalDate validTo) {
+        if (validFrom == null) {
+            throw new IllegalArgumentException("Das Startdatum ist erforderlich.");
+        }
+        if (validTo != null && validTo.isBefore(validFrom)) {
+            throw new IllegalArgumentException("Das Enddatum darf nicht vor dem Startdatum liegen.");
+        }
+    }
+
+    public List<MilkPrice> getPrices() {
+        return milkPriceRepository.findAllAsDataclass();
+    }
+
+    public List<PriceSurcharge> getSurcharges() {
+        return priceSurchargeRepository.findAllAsDataclass();
+    }
+
+    /**
+     * Snapshot of all prices and surcharges for a settlement run
+     */
+    public PriceTable getPriceTable() {
+        return new PriceTable(getPrices(), getSurcharges());
+    }
+
+    /**
+     * Deletes all prices and surcharges
+     */
+    public void deleteAll() {
+        priceSurchargeRepository.deleteAllInBatch();
+        milkPriceRepository.deleteAllInBatch();
+    }
+}
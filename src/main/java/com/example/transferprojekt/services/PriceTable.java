@@ -0,0 +1,125 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.MilkPrice;
+import com.example.transferprojekt.dataclasses.PriceSurcharge;
+import com.example.transferprojekt.enumerations.TimeWindow;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Immutable snapshot of the milk prices and time window surcharges.
+ * For a settlement the effective rate (base price + surcharge) of every day and time window
+ * is resolved once into a small array, so settling a delivery is a plain array lookup.
+ *
+ * Rates are fixed-point longs in ten-thousandths of a franc per kg (preis_pro_kg is DECIMAL(8,4)).
+ * Periods must not overlap (checked on save). If legacy data overlaps, the latest start date wins.
+ */
+public class PriceTable {
+
+    /**
+     * Rate unit per kg: 1/10000 CHF
+     */
+    public static final int RATE_SCALE = 4;
+
+    private final List<MilkPrice> prices;
+    private final List<PriceSurcharge> surcharges;
+
+    public PriceTable(List<MilkPrice> prices, List<PriceSurcharge> surcharges) {
+        this.prices = sortedByStart(prices, MilkPrice::getValidFrom);
+        this.surcharges = sortedByStart(surcharges, PriceSurcharge::getValidFrom);
+    }
+
+    private static <T> List<T> sortedByStart(List<T> list, Function<T, LocalDate> validFrom) {
+        List<T> sorted = new ArrayList<>(list);
+        sorted.sort(Comparator.comparing(validFrom));
+        return List.copyOf(sorted);
+    }
+
+    /**
+     * Resolves the effective rates of every day of a period
+     *
+     * @throws IllegalStateException if no base price is valid on a day of the period
+     */
+    public Rates ratesFor(LocalDate fromDate, LocalDate toDate) {
+        int days = Math.toIntExact(toDate.toEpochDay() - fromDate.toEpochDay() + 1);
+        TimeWindow[] timeWindows = TimeWindow.values();
+        long[][] perKg = new long[timeWindows.length][days];
+
+        for (int i = 0; i < days; i++) {
+            LocalDate date = fromDate.plusDays(i);
+            MilkPrice price = findPrice(date);
+            if (price == null) {
+                throw new IllegalStateException("Für den " + date + " ist kein Milchpreis erfasst.");
+            }
+            long baseRate = toRate(price.getPricePerKg());
+
+            for (TimeWindow timeWindow : timeWindows) {
+                PriceSurcharge surcharge = findSurcharge(timeWindow, date);
+                perKg[timeWindow.ordinal()][i] = surcharge != null
+                        ? baseRate + toRate(surcharge.getSurchargePerKg())
+                        : baseRate;
+            }
+        }
+        return new Rates(fromDate.toEpochDay(), perKg);
+    }
+
+    private MilkPrice findPrice(LocalDate date) {
+        MilkPrice found = null;
+        for (MilkPrice price : prices) {
+            if (price.getValidFrom().isAfter(date)) break;
+            if (price.getValidTo() == null || !price.getValidTo().isBefore(date)) {
+                found = price;
+            }
+        }
+        return found;
+    }
+
+    private PriceSurcharge findSurcharge(TimeWindow timeWindow, LocalDate date) {
+        PriceSurcharge found = null;
+        for (PriceSurcharge surcharge : surcharges) {
+            if (surcharge.getValidFrom().isAfter(date)) break;
+            if (surcharge.getTimeWindow() == timeWindow
+                    && (surcharge.getValidTo() == null || !surcharge.getValidTo().isBefore(date))) {
+                found = surcharge;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Converts a price per kg to the rate unit without rounding
+     *
+     * @throws ArithmeticException if the price has more than four decimals
+     */
+    public static long toRate(BigDecimal pricePerKg) {
+        return pricePerKg.movePointRight(RATE_SCALE).longValueExact();
+    }
+
+    /**
+     * Effective rates of a period, indexed by time window and day
+     */
+    public static final class Rates {
+
+        private final long firstDay;
+        private final long[][] perKg;
+
+        private Rates(long firstDay, long[][] perKg) {
+            this.firstDay = firstDay;
+            this.perKg = perKg;
+        }
+
+        /**
+         * @param timeWindow Ordinal of the time window
+         * @param epochDay A day within the period
+         * @return The rate in 1/10000 CHF per kg
+         */
+        public long rate(int timeWindow, long epochDay) {
+            return perKg[timeWindow][(int) (epochDay - firstDay)];
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.transferprojekt.services;
+
+/**
+ * Receives the progress of a long-running service operation, e.g. to update a progress bar.
+ * Called from the thread executing the operation.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * Ignores all progress
+     */
+    ProgressListener NONE = (done, total, message) -> {
+    };
+
+    /**
+     * @param done Completed work units
+     * @param total Total work units
+     * @param message Short description of the current step
+     */
+    void progress(long done, long total, String message);
+}
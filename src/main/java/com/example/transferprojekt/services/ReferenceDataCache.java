@@ -0,0 +1,177 @@
+package com.example.transferprojekt.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Lazily loaded in-memory snapshot of rarely changing reference data
+ * (e.g. all supplier numbers or all suppliers).
+ *
+ * Services call {@link #invalidate()} on every write. When called inside a transaction
+ * the snapshot is dropped once more after commit/rollback, so a snapshot loaded from
+ * uncommitted data never outlives its transaction.
+ *
+ * Writes of other clients are found through the change log (V8__aenderungsprotokoll.sql):
+ * a snapshot older than five seconds is only used again once the log shows no change of
+ * its table since the snapshot was loaded, otherwise it is reloaded.
+ *
+ * @param <T> The type of the snapshot (usually an unmodifiable map)
+ */
+public class ReferenceDataCache<T> {
+
+    // Writes of other clients are seen after at most this long
+    private static final long VALIDATE_AFTER_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final String name;
+    private final Supplier<T> loader;
+    // Null: only invalidated by writes of this application (e.g. in benchmarks)
+    private final ChangeTrackingService changeTrackingService;
+    private final String table;
+
+    private volatile Snapshot<T> snapshot;
+    // Incremented on every invalidation, a load only publishes its result if no invalidation happened meanwhile
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private static final class Snapshot<T> {
+        private final T value;
+        // Change log watermark read before loading, moved forward by every validation without changes
+        private volatile long watermark;
+        private volatile long validatedAt;
+
+        private Snapshot(T value, long watermark) {
+            this.value = value;
+            this.watermark = watermark;
+            this.validatedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Cache that is only invalidated by {@link #invalidate()}
+     *
+     * @param name Name used in statistics and log output
+     * @param loader Loads the complete snapshot from the database
+     */
+    public ReferenceDataCache(String name, Supplier<T> loader) {
+        this(name, loader, null, null);
+    }
+
+    /**
+     * @param name Name used in statistics and log output
+     * @param loader Loads the complete snapshot from the database
+     * @param changeTrackingService Change log to validate the snapshot against, null to skip validation
+     * @param table Table of the change log the snapshot is loaded from
+     */
+    public ReferenceDataCache(String name, Supplier<T> loader, ChangeTrackingService changeTrackingService, String table) {
+        this.name = name;
+        this.loader = loader;
+        this.changeTrackingService = changeTrackingService;
+        this.table = table;
+    }
+
+    /**
+     * Returns the current snapshot, loading it on a miss
+     */
+    public T get() {
+        Snapshot<T> current = snapshot;
+        if (current != null && isValid(current)) {
+            hits.incrementAndGet();
+            return current.value;
+        }
+
+        misses.incrementAndGet();
+        long loadGeneration = generation.get();
+        long watermark = changeTrackingService != null ? changeTrackingService.getWatermark() : 0;
+        T loaded = loader.get();
+        synchronized (this) {
+            if (generation.get() == loadGeneration) {
+                snapshot = new Snapshot<>(loaded, watermark);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the current snapshot without loading it, counted as hit or miss like {@link #get()}
+     *
+     * @return The snapshot or null if it is not loaded
+     */
+    public T getIfLoaded() {
+        Snapshot<T> current = snapshot;
+        if (current != null && isValid(current)) {
+            hits.incrementAndGet();
+            return current.value;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /* Asks the change log once VALIDATE_AFTER_NANOS have passed, drops the snapshot if its table changed */
+    private boolean isValid(Snapshot<T> current) {
+        if (changeTrackingService == null || System.nanoTime() - current.validatedAt < VALIDATE_AFTER_NANOS) {
+            return true;
+        }
+
+        long watermark = changeTrackingService.getWatermark();
+        if (changeTrackingService.hasChangesSince(table, current.watermark)) {
+            synchronized (this) {
+                if (snapshot == current) {
+                    drop();
+                }
+            }
+            return false;
+        }
+        current.watermark = watermark;
+        current.validatedAt = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Drops the snapshot, the next access reloads it
+     */
+    public void invalidate() {
+        drop();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    drop();
+                }
+            });
+        }
+    }
+
+    private synchronized void drop() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ReferenceDataCache{" +
+                "name='" + name + '\'' +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", loaded=" + (snapshot != null) +
+                '}';
+    }
+}
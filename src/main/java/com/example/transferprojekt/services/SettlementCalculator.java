@@ -0,0 +1,267 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.KgAmount;
+import com.example.transferprojekt.dataclasses.SettlementLine;
+import com.example.transferprojekt.enumerations.TimeWindow;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Settles the deliveries of one period in memory.
+ * The delivery totals (per supplier number, day and time window) are kept in parallel primitive arrays
+ * sorted by supplier number. The rows are split into partitions of whole supplier numbers that are
+ * settled in parallel on a fork/join pool; each row is attributed to the supplier holding the number
+ * on that day (AssignmentIndex) and valued with the rate of its day and time window (PriceTable.Rates).
+ *
+ * Values are summed exactly as kg hundredths times rate (1/1'000'000 CHF) and rounded
+ * half up to Rappen once per statement line.
+ */
+public class SettlementCalculator {
+
+    // Smallest range split further, below this the fork/join overhead outweighs the work
+    static final int MIN_SEQUENTIAL_ROWS = 1_024;
+
+    // Tasks per worker of the pool, leaves room for work stealing when ranges differ in cost
+    private static final int TASKS_PER_WORKER = 4;
+
+    // kg hundredths (10^-2) x rate (10^-4 CHF) = 10^-6 CHF, Rappen are 10^-2 CHF
+    private static final long VALUE_UNITS_PER_RAPPEN = 10_000;
+
+    private final int size;
+    private final int[] supplierNrs;
+    private final int[] epochDays;
+    private final byte[] timeWindows;
+    private final long[] deliveryCounts;
+    private final long[] amountsHundredths;
+
+    private SettlementCalculator(int size, int[] supplierNrs, int[] epochDays, byte[] timeWindows,
+                                 long[] deliveryCounts, long[] amountsHundredths) {
+        this.size = size;
+        this.supplierNrs = supplierNrs;
+        this.epochDays = epochDays;
+        this.timeWindows = timeWindows;
+        this.deliveryCounts = deliveryCounts;
+        this.amountsHundredths = amountsHundredths;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    /**
+     * Settles all rows on the common fork/join pool
+     *
+     * @param assignments Attribution of supplier numbers to suppliers
+     * @param rates Rates of every day of the period, all rows must lie within it
+     */
+    public Result calculate(AssignmentIndex assignments, PriceTable.Rates rates) {
+        return ForkJoinPool.commonPool().invoke(new SettlementTask(assignments, rates, 0, size,
+                sequentialThreshold(size, ForkJoinPool.getCommonPoolParallelism())));
+    }
+
+    /**
+     * Rows settled sequentially: about TASKS_PER_WORKER ranges per worker, at least MIN_SEQUENTIAL_ROWS
+     */
+    static int sequentialThreshold(int rows, int parallelism) {
+        return Math.max(MIN_SEQUENTIAL_ROWS, rows / (Math.max(1, parallelism) * TASKS_PER_WORKER));
+    }
+
+    /**
+     * Settles the rows from index from (inclusive) to index to (exclusive) in the calling thread.
+     * The range must not split the rows of a supplier number.
+     */
+    public Result calculateRange(AssignmentIndex assignments, PriceTable.Rates rates, int from, int to) {
+        List<SettlementLine> lines = new ArrayList<>();
+        long unassignedCount = 0;
+        long unassignedHundredths = 0;
+
+        // Totals of the current supplier number per supplier, usually just one
+        Map<UUID, long[]> totals = new LinkedHashMap<>();
+        int currentNr = from < to ? supplierNrs[from] : 0;
+
+        for (int i = from; i < to; i++) {
+            int supplierNr = supplierNrs[i];
+            if (supplierNr != currentNr) {
+                addLines(lines, currentNr, totals);
+                totals.clear();
+                currentNr = supplierNr;
+            }
+
+            UUID supplierId = assignments.findSupplierId(supplierNr, epochDays[i]);
+            if (supplierId == null) {
+                unassignedCount += deliveryCounts[i];
+                unassignedHundredths += amountsHundredths[i];
+                continue;
+            }
+
+            long[] total = totals.computeIfAbsent(supplierId, id -> new long[3]);
+            total[0] += deliveryCounts[i];
+            total[1] += amountsHundredths[i];
+            total[2] += Math.multiplyExact(amountsHundredths[i], rates.rate(timeWindows[i], epochDays[i]));
+        }
+        addLines(lines, currentNr, totals);
+
+        return new Result(lines, unassignedCount, unassignedHundredths);
+    }
+
+    private static void addLines(List<SettlementLine> lines, int supplierNr, Map<UUID, long[]> totals) {
+        totals.forEach((supplierId, total) -> lines.add(new SettlementLine(supplierId, supplierNr, total[0],
+                KgAmount.ofHundredths(total[1]), KgAmount.divideHalfUp(total[2], VALUE_UNITS_PER_RAPPEN))));
+    }
+
+    /**
+     * First index at or after index whose supplier number differs from its predecessor
+     */
+    int nextPartitionStart(int index) {
+        while (index > 0 && index < size && supplierNrs[index] == supplierNrs[index - 1]) {
+            index++;
+        }
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Splits the range in halves at supplier number boundaries until it is small enough
+     */
+    private final class SettlementTask extends RecursiveTask<Result> {
+
+        private final AssignmentIndex assignments;
+        private final PriceTable.Rates rates;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        private SettlementTask(AssignmentIndex assignments, PriceTable.Rates rates, int from, int to, int threshold) {
+            this.assignments = assignments;
+            this.rates = rates;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from <= threshold) {
+                return calculateRange(assignments, rates, from, to);
+            }
+
+            int middle = nextPartitionStart((from + to) >>> 1);
+            if (middle >= to) {
+                return calculateRange(assignments, rates, from, to);
+            }
+
+            SettlementTask left = new SettlementTask(assignments, rates, from, middle, threshold);
+            left.fork();
+            Result right = new SettlementTask(assignments, rates, middle, to, threshold).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Statement lines (ordered by supplier number) and the totals of the unattributed deliveries
+     */
+    public static final class Result {
+
+        private final List<SettlementLine> lines;
+        private final long unassignedDeliveryCount;
+        private final long unassignedHundredths;
+
+        private Result(List<SettlementLine> lines, long unassignedDeliveryCount, long unassignedHundredths) {
+            this.lines = lines;
+            this.unassignedDeliveryCount = unassignedDeliveryCount;
+            this.unassignedHundredths = unassignedHundredths;
+        }
+
+        private Result merge(Result next) {
+            List<SettlementLine> merged = new ArrayList<>(lines.size() + next.lines.size());
+            merged.addAll(lines);
+            merged.addAll(next.lines);
+            return new Result(merged,
+                    unassignedDeliveryCount + next.unassignedDeliveryCount,
+                    unassignedHundredths + next.unassignedHundredths);
+        }
+
+        public List<SettlementLine> getLines() {
+            return lines;
+        }
+
+        public long getUnassignedDeliveryCount() {
+            return unassignedDeliveryCount;
+        }
+
+        public KgAmount getUnassignedAmount() {
+            return KgAmount.ofHundredths(unassignedHundredths);
+        }
+    }
+
+    public static class Builder {
+
+        private int size;
+        private int[] supplierNrs;
+        private int[] epochDays;
+        private byte[] timeWindows;
+        private long[] deliveryCounts;
+        private long[] amountsHundredths;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            supplierNrs = new int[capacity];
+            epochDays = new int[capacity];
+            timeWindows = new byte[capacity];
+            deliveryCounts = new long[capacity];
+            amountsHundredths = new long[capacity];
+        }
+
+        /**
+         * Adds the delivery total of a supplier number, day and time window.
+         * Rows must be added in ascending supplier number order.
+         */
+        public Builder add(int supplierNr, LocalDate date, TimeWindow timeWindow, long deliveryCount, BigDecimal amountKg) {
+            if (size > 0 && supplierNr < supplierNrs[size - 1]) {
+                throw new IllegalArgumentException("Rows must be sorted by supplier number, got " + supplierNr
+                        + " after " + supplierNrs[size - 1]);
+            }
+            if (size == supplierNrs.length) {
+                grow();
+            }
+
+            supplierNrs[size] = supplierNr;
+            epochDays[size] = Math.toIntExact(date.toEpochDay());
+            timeWindows[size] = (byte) timeWindow.ordinal();
+            deliveryCounts[size] = deliveryCount;
+            amountsHundredths[size] = KgAmount.toHundredths(amountKg);
+            size++;
+            return this;
+        }
+
+        public SettlementCalculator build() {
+            return new SettlementCalculator(size,
+                    Arrays.copyOf(supplierNrs, size),
+                    Arrays.copyOf(epochDays, size),
+                    Arrays.copyOf(timeWindows, size),
+                    Arrays.copyOf(deliveryCounts, size),
+                    Arrays.copyOf(amountsHundredths, size));
+        }
+
+        private void grow() {
+            int capacity = supplierNrs.length + (supplierNrs.length >> 1);
+            supplierNrs = Arrays.copyOf(supplierNrs, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            timeWindows = Arrays.copyOf(timeWindows, capacity);
+            deliveryCounts = Arrays.copyOf(deliveryCounts, capacity);
+            amountsHundredths = Arrays.copyOf(amountsHundredths, capacity);
+        }
+    }
+}
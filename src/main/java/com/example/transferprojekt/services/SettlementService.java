@@ -0,0 +1,390 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.Company;
+import com.example.transferprojekt.dataclasses.KgAmount;
+import com.example.transferprojekt.dataclasses.SettlementLine;
+import com.example.transferprojekt.dataclasses.SettlementRun;
+import com.example.transferprojekt.dataclasses.SupplierStatement;
+import com.example.transferprojekt.enumerations.TimeWindow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Monthly milk money settlement (Milchgeldabrechnung).
+ *
+ * A run loads the delivery totals of the month from the daily rollup (milchlieferung_tag holds
+ * the same sums per supplier number, day and time window as milchlieferung, the prices only depend
+ * on day and time window), attributes and values them in parallel with the SettlementCalculator
+ * and persists the statement lines of all suppliers.
+ *
+ * The supplier numbers are split into partitions of PARTITION_SIZE numbers. Up to
+ * milkcalc.settlement.parallel-partitions partitions are settled concurrently, each committed in its
+ * own transaction together with its checkpoint, so an interrupted run is resumed by the next run of
+ * the same month and skips the finished partitions. A run is only resumed if the prices, surcharges and
+ * assignments of the month are unchanged (stammdaten_version, V12), otherwise it starts over.
+ * The last step replaces the previous result of the month and completes the run in one transaction.
+ */
+@Service
+@Transactional
+public class SettlementService {
+
+    // Supplier numbers per partition (checkpoint granularity)
+    static final int PARTITION_SIZE = 500;
+
+    private static final String FIND_RUNNING = """
+            SELECT lauf_id, partition_groesse, stammdaten_version FROM abrechnungslauf
+            WHERE periode = ? AND status = 'LAEUFT'
+            """;
+
+    private static final String INSERT_RUN = """
+            INSERT INTO abrechnungslauf (lauf_id, periode, erstellt_am, status, partition_groesse, stammdaten_version,
+                                         anzahl_lieferungen, menge_kg, betrag, nicht_zugeordnet_anzahl, nicht_zugeordnet_kg)
+            VALUES (?, ?, ?, 'LAEUFT', ?, ?, 0, 0, 0, 0, 0)
+            """;
+
+    // Fingerprint of the prices, surcharges and assignments valid in a period (parameters: to, from three times)
+    private static final String MASTER_DATA_VERSION = """
+            SELECT md5(concat_ws('|',
+                COALESCE((SELECT string_agg(concat_ws(',', zuweisung_id, lieferant_nr, lieferant_id, zugewiesen_ab, zugewiesen_bis),
+                                            ';' ORDER BY zuweisung_id)
+                          FROM zuweisung
+                          WHERE zugewiesen_ab <= ? AND (zugewiesen_bis IS NULL OR zugewiesen_bis >= ?)), ''),
+                COALESCE((SELECT string_agg(concat_ws(',', milchpreis_id, gueltig_ab, gueltig_bis, preis_pro_kg),
+                                            ';' ORDER BY milchpreis_id)
+                          FROM milchpreis
+                          WHERE gueltig_ab <= ? AND (gueltig_bis IS NULL OR gueltig_bis >= ?)), ''),
+                COALESCE((SELECT string_agg(concat_ws(',', zuschlag_id, zeitfenster, gueltig_ab, gueltig_bis, zuschlag_pro_kg),
+                                            ';' ORDER BY zuschlag_id)
+                          FROM milchpreis_zuschlag
+                          WHERE gueltig_ab <= ? AND (gueltig_bis IS NULL OR gueltig_bis >= ?)), '')))
+            """;
+
+    private static final String PERIOD_PARTITIONS = """
+            SELECT DISTINCT FLOOR(lieferant_nr::NUMERIC / ?)::INTEGER
+            FROM milchlieferung_tag
+            WHERE datum BETWEEN ? AND ?
+            ORDER BY 1
+            """;
+
+    private static final String FINISHED_PARTITIONS = """
+            SELECT partition_nr FROM abrechnungslauf_partition WHERE lauf_id = ?
+            """;
+
+    // Package-private for the plan check in IndexUsageTests
+    static final String PARTITION_DELIVERIES = """
+            SELECT lieferant_nr, datum, zeitfenster, anzahl, menge_kg
+            FROM milchlieferung_tag
+            WHERE lieferant_nr BETWEEN ? AND ? AND datum BETWEEN ? AND ?
+            ORDER BY lieferant_nr
+            """;
+
+    private static final String INSERT_LINE = """
+            INSERT INTO abrechnung (lauf_id, lieferant_id, lieferant_nr, anzahl_lieferungen, menge_kg, betrag)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_CHECKPOINT = """
+            INSERT INTO abrechnungslauf_partition (lauf_id, partition_nr, nr_von, nr_bis, anzahl_zeilen,
+                                                   nicht_zugeordnet_anzahl, nicht_zugeordnet_kg, abgeschlossen_am)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String DELETE_COMPLETED = """
+            DELETE FROM abrechnungslauf WHERE periode = ? AND status = 'ABGESCHLOSSEN'
+            """;
+
+    private static final String COMPLETE_RUN = """
+            UPDATE abrechnungslauf r
+            SET status = 'ABGESCHLOSSEN',
+                beendet_am = ?,
+                anzahl_lieferungen = l.anzahl_lieferungen,
+                menge_kg = l.menge_kg,
+                betrag = l.betrag,
+                nicht_zugeordnet_anzahl = p.nicht_zugeordnet_anzahl,
+                nicht_zugeordnet_kg = p.nicht_zugeordnet_kg
+            FROM (SELECT COALESCE(SUM(anzahl_lieferungen), 0) AS anzahl_lieferungen,
+                         COALESCE(SUM(menge_kg), 0) AS menge_kg,
+                         COALESCE(SUM(betrag), 0) AS betrag
+                  FROM abrechnung WHERE lauf_id = ?) l,
+                 (SELECT COALESCE(SUM(nicht_zugeordnet_anzahl), 0) AS nicht_zugeordnet_anzahl,
+                         COALESCE(SUM(nicht_zugeordnet_kg), 0) AS nicht_zugeordnet_kg
+                  FROM abrechnungslauf_partition WHERE lauf_id = ?) p
+            WHERE r.lauf_id = ? AND r.status = 'LAEUFT'
+            """;
+
+    private static final String RUN_HEADER = """
+            SELECT periode, erstellt_am, nicht_zugeordnet_anzahl, nicht_zugeordnet_kg
+            FROM abrechnungslauf WHERE lauf_id = ?
+            """;
+
+    private static final String RUN_LINES = """
+            SELECT lieferant_id, lieferant_nr, anzahl_lieferungen, menge_kg, betrag
+            FROM abrechnung WHERE lauf_id = ?
+            ORDER BY lieferant_nr, lieferant_id
+            """;
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MilkPriceService milkPriceService;
+    private final AssignmentService assignmentService;
+    private final SupplierService supplierService;
+    private final int parallelPartitions;
+
+    public SettlementService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             MilkPriceService milkPriceService,
+                             AssignmentService assignmentService,
+                             SupplierService supplierService,
+                             @Value("${milkcalc.settlement.parallel-partitions:4}") int parallelPartitions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.milkPriceService = milkPriceService;
+        this.assignmentService = assignmentService;
+        this.supplierService = supplierService;
+        this.parallelPartitions = Math.max(1, parallelPartitions);
+    }
+
+    /**
+     * Settles all deliveries of a month, see {@link #runSettlement(YearMonth, ProgressListener)}
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SettlementRun runSettlement(YearMonth period) {
+        return runSettlement(period, ProgressListener.NONE);
+    }
+
+    /**
+     * Settles all deliveries of a month. Resumes an interrupted run of the month if there is one
+     * and the prices and assignments of the month did not change since it started, otherwise starts a new run.
+     * On completion the run replaces the previous result of the month.
+     * Runs without a surrounding transaction, every partition commits on its own.
+     *
+     * @param period The month to settle
+     * @param progress Receives the number of finished partitions
+     * @return The completed run with the statements of all suppliers that delivered in the month
+     * @throws IllegalStateException if a day of the month has no milk price
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SettlementRun runSettlement(YearMonth period, ProgressListener progress) {
+        LocalDate fromDate = period.atDay(1);
+        LocalDate toDate = period.atEndOfMonth();
+
+        // Read before the prices and assignments, a change in between restarts the next resume instead of mixing versions
+        String version = jdbcTemplate.queryForObject(MASTER_DATA_VERSION, String.class,
+                Date.valueOf(toDate), Date.valueOf(fromDate), Date.valueOf(toDate), Date.valueOf(fromDate),
+                Date.valueOf(toDate), Date.valueOf(fromDate));
+
+        // Fail before starting a run if prices are missing
+        PriceTable.Rates rates = milkPriceService.getPriceTable().ratesFor(fromDate, toDate);
+        AssignmentIndex assignments = assignmentService.getAssignmentIndex();
+
+        RunState run = transactionTemplate.execute(status -> findOrStartRun(period, version, progress));
+        List<Integer> partitions = jdbcTemplate.queryForList(PERIOD_PARTITIONS, Integer.class,
+                run.partitionSize, Date.valueOf(fromDate), Date.valueOf(toDate));
+        Set<Integer> finished = new HashSet<>(jdbcTemplate.queryForList(FINISHED_PARTITIONS, Integer.class, run.runId));
+
+        // The completion counts as the last step
+        int total = partitions.size() + 1;
+        int alreadyDone = (int) partitions.stream().filter(finished::contains).count();
+        progress.progress(alreadyDone, total, alreadyDone > 0
+                ? "Lauf wird fortgesetzt, " + alreadyDone + " von " + partitions.size() + " Partitionen bereits abgerechnet"
+                : "Abrechnung " + period + " gestartet");
+
+        AtomicInteger done = new AtomicInteger(alreadyDone);
+        List<Future<?>> pending = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelPartitions)) {
+            for (int partition : partitions) {
+                if (finished.contains(partition)) continue;
+
+                pending.add(executor.submit(() -> {
+                    transactionTemplate.executeWithoutResult(status ->
+                            settlePartition(run, partition, fromDate, toDate, assignments, rates));
+                    int count = done.incrementAndGet();
+                    synchronized (progress) {
+                        progress.progress(count, total, "Partition " + count + " von " + partitions.size() + " abgerechnet");
+                    }
+                }));
+            }
+            awaitAll(pending, executor);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> completeRun(run, period));
+        progress.progress(total, total, "Abrechnung " + period + " abgeschlossen");
+
+        return transactionTemplate.execute(status -> loadRun(run.runId));
+    }
+
+    /*
+     * Waits for all partitions. On the first failure the remaining ones are cancelled and the failure is thrown,
+     * the partitions committed so far are skipped when the run is resumed.
+     */
+    private static void awaitAll(List<Future<?>> pending, ExecutorService executor) {
+        try {
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (ExecutionException ex) {
+            executor.shutdownNow();
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Die Abrechnung wurde unterbrochen.", ex);
+        }
+    }
+
+    private RunState findOrStartRun(YearMonth period, String version, ProgressListener progress) {
+        List<RunState> running = jdbcTemplate.query(FIND_RUNNING, (rs, rowNum) -> new RunState(
+                rs.getObject(1, UUID.class), rs.getInt(2), rs.getString(3)), Date.valueOf(period.atDay(1)));
+        if (!running.isEmpty()) {
+            RunState run = running.getFirst();
+            if (version.equals(run.masterDataVersion)) {
+                return run;
+            }
+            // Its partitions were settled with other prices or assignments, they are not mixed with new ones
+            jdbcTemplate.update("DELETE FROM abrechnungslauf WHERE lauf_id = ?", run.runId);
+            progress.progress(0, 1, "Preise oder Zuweisungen wurden geändert, der unterbrochene Lauf wird neu gestartet");
+        }
+
+        RunState run = new RunState(UUID.randomUUID(), PARTITION_SIZE, version);
+        jdbcTemplate.update(INSERT_RUN, run.runId, Date.valueOf(period.atDay(1)),
+                Timestamp.valueOf(LocalDateTime.now()), run.partitionSize, run.masterDataVersion);
+        return run;
+    }
+
+    /* Settles one partition and records its checkpoint in the current transaction */
+    private void settlePartition(RunState run, int partition, LocalDate fromDate, LocalDate toDate,
+                                 AssignmentIndex assignments, PriceTable.Rates rates) {
+        int fromNr = partition * run.partitionSize;
+        int toNr = fromNr + run.partitionSize - 1;
+
+        SettlementCalculator calculator = loadDeliveries(fromNr, toNr, fromDate, toDate);
+        SettlementCalculator.Result result = calculator.calculate(assignments, rates);
+
+        List<Object[]> rows = new ArrayList<>(result.getLines().size());
+        for (SettlementLine line : result.getLines()) {
+            rows.add(new Object[]{
+                    run.runId, line.getSupplierId(), line.getSupplierNr(), line.getDeliveryCount(),
+                    line.getAmount().toBigDecimal(), line.getValueChf()
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_LINE, rows);
+
+        jdbcTemplate.update(INSERT_CHECKPOINT, run.runId, partition, fromNr, toNr, calculator.size(),
+                result.getUnassignedDeliveryCount(), result.getUnassignedAmount().toBigDecimal(),
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private SettlementCalculator loadDeliveries(int fromNr, int toNr, LocalDate fromDate, LocalDate toDate) {
+        SettlementCalculator.Builder builder = SettlementCalculator.builder(FETCH_SIZE);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(PARTITION_DELIVERIES);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setInt(1, fromNr);
+            statement.setInt(2, toNr);
+            statement.setDate(3, Date.valueOf(fromDate));
+            statement.setDate(4, Date.valueOf(toDate));
+            return statement;
+        }, rs -> {
+            builder.add(rs.getInt(1), rs.getDate(2).toLocalDate(), TimeWindow.valueOf(rs.getString(3)),
+                    rs.getLong(4), rs.getBigDecimal(5));
+        });
+        return builder.build();
+    }
+
+    /* Replaces the previous result of the month with this run */
+    private void completeRun(RunState run, YearMonth period) {
+        jdbcTemplate.update(DELETE_COMPLETED, Date.valueOf(period.atDay(1)));
+        int updated = jdbcTemplate.update(COMPLETE_RUN, Timestamp.valueOf(LocalDateTime.now()),
+                run.runId, run.runId, run.runId);
+        if (updated != 1) {
+            throw new IllegalStateException("Der Abrechnungslauf " + run.runId + " wurde bereits abgeschlossen.");
+        }
+    }
+
+    private SettlementRun loadRun(UUID runId) {
+        List<SettlementLine> lines = jdbcTemplate.query(RUN_LINES, (rs, rowNum) -> new SettlementLine(
+                rs.getObject(1, UUID.class),
+                rs.getInt(2),
+                rs.getLong(3),
+                KgAmount.of(rs.getBigDecimal(4)),
+                rs.getBigDecimal(5).movePointRight(2).longValueExact()), runId);
+
+        return jdbcTemplate.queryForObject(RUN_HEADER, (rs, rowNum) -> new SettlementRun(
+                runId,
+                YearMonth.from(rs.getDate(1).toLocalDate()),
+                rs.getTimestamp(2).toLocalDateTime(),
+                toStatements(lines),
+                rs.getLong(3),
+                KgAmount.of(rs.getBigDecimal(4))), runId);
+    }
+
+    /* Groups the lines (ordered by supplier number) by supplier, ordered by the supplier's lowest number */
+    private List<SupplierStatement> toStatements(List<SettlementLine> lines) {
+        Map<UUID, List<SettlementLine>> linesBySupplier = new LinkedHashMap<>();
+        for (SettlementLine line : lines) {
+            linesBySupplier.computeIfAbsent(line.getSupplierId(), id -> new ArrayList<>()).add(line);
+        }
+
+        List<SupplierStatement> statements = new ArrayList<>(linesBySupplier.size());
+        linesBySupplier.forEach((supplierId, supplierLines) -> {
+            Company company = supplierService.getDataclassById(supplierId);
+            String name = company != null ? company.getAddress().getName() : null;
+            statements.add(new SupplierStatement(supplierId, name, supplierLines));
+        });
+        return statements;
+    }
+
+    /**
+     * Deletes all settlement runs and their statements
+     */
+    public void deleteAllRuns() {
+        jdbcTemplate.update("DELETE FROM abrechnungslauf");
+    }
+
+    /**
+     * The run being executed. The partition size is stored with the run,
+     * so a resumed run uses the same supplier number ranges.
+     */
+    private static final class RunState {
+
+        private final UUID runId;
+        private final int partitionSize;
+        // Fingerprint of the prices and assignments the run started with, null for runs before V12
+        private final String masterDataVersion;
+
+        private RunState(UUID runId, int partitionSize, String masterDataVersion) {
+            this.runId = runId;
+            this.partitionSize = partitionSize;
+            this.masterDataVersion = masterDataVersion;
+        }
+    }
+}
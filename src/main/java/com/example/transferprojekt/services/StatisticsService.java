@@ -0,0 +1,89 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.DeliveryDayRow;
+import com.example.transferprojekt.dataclasses.DeliveryStatistics;
+import com.example.transferprojekt.dataclasses.KgAmount;
+import com.example.transferprojekt.dataclasses.SupplierDeliveryStatistics;
+import com.example.transferprojekt.jpa.repositories.DeliveryDayRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Read-only key figures over milk deliveries.
+ * Period aggregates run in the database on the daily rollup (milchlieferung_tag),
+ * so a year costs a few thousand rollup rows instead of all raw deliveries.
+ * For interactive analytics the rollup of a period is loaded into {@link DeliveryPrefixSums}.
+ */
+@Service
+@Transactional(readOnly = true)
+public class StatisticsService {
+
+    private final DeliveryDayRepository deliveryDayRepository;
+
+    public StatisticsService(DeliveryDayRepository deliveryDayRepository) {
+        this.deliveryDayRepository = deliveryDayRepository;
+    }
+
+    /**
+     * Count, total and average of all deliveries within a period
+     *
+     * @param fromDate First day of the period (inclusive)
+     * @param toDate Last day of the period (inclusive)
+     * @return The aggregated statistics
+     */
+    public DeliveryStatistics getDeliveryStatistics(LocalDate fromDate, LocalDate toDate) {
+        return deliveryDayRepository.aggregateByPeriod(fromDate, toDate);
+    }
+
+    /**
+     * Count, total and average of the deliveries of one supplier within a period.
+     * A delivery counts for the supplier if its supplier number was assigned to the supplier on the delivery date.
+     *
+     * @param fromDate First day of the period (inclusive)
+     * @param toDate Last day of the period (inclusive)
+     * @param supplierId The supplier to filter on
+     * @return The aggregated statistics
+     */
+    public DeliveryStatistics getDeliveryStatistics(LocalDate fromDate, LocalDate toDate, UUID supplierId) {
+        return deliveryDayRepository.aggregateByPeriodAndSupplier(fromDate, toDate, supplierId);
+    }
+
+    /**
+     * Count, total and average of the deliveries of every supplier within a period, in one query.
+     * Deliveries are attributed like {@link #getDeliveryStatistics(LocalDate, LocalDate, UUID)};
+     * suppliers without deliveries in the period are missing from the result.
+     *
+     * @param fromDate First day of the period (inclusive)
+     * @param toDate Last day of the period (inclusive)
+     * @return The statistics keyed by supplier ID
+     */
+    public Map<UUID, SupplierDeliveryStatistics> getDeliveryStatisticsBySupplier(LocalDate fromDate, LocalDate toDate) {
+        Map<UUID, SupplierDeliveryStatistics> statistics = new LinkedHashMap<>();
+        for (SupplierDeliveryStatistics row : deliveryDayRepository.aggregateByPeriodPerSupplier(fromDate, toDate)) {
+            statistics.put(row.getSupplierId(), row);
+        }
+        return statistics;
+    }
+
+    /**
+     * Builds the daily prefix sums of a period from the daily rollup.
+     * Reads one row per supplier number and delivery day of the period, not the raw deliveries.
+     *
+     * @param fromDate First day of the period (inclusive)
+     * @param toDate Last day of the period (inclusive)
+     */
+    public DeliveryPrefixSums loadDeliverySums(LocalDate fromDate, LocalDate toDate) {
+        DeliveryPrefixSums.Builder builder = DeliveryPrefixSums.builder(fromDate, toDate);
+        try (Stream<DeliveryDayRow> rows = deliveryDayRepository.streamByPeriodOrderedByDate(fromDate, toDate)) {
+            rows.forEach(row -> builder.add(row.getSupplierNumber(), row.getDate().toEpochDay(),
+                    row.getDeliveryCount(), KgAmount.toHundredths(row.getAmountKg())));
+        }
+        return builder.build();
+    }
+}
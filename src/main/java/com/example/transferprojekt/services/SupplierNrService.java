@@ -7,21 +7,45 @@ import jakarta.persistence.EntityNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 @Transactional
 public class SupplierNrService {
 
     private final SupplierNrRepository supplierNrRepository;
+    private final ChangeTrackingService changeTrackingService;
 
-    public SupplierNrService(SupplierNrRepository supplierNrRepository) {
+    // All supplier numbers, sorted; the table is small and changes rarely
+    private final ReferenceDataCache<Map<Integer, SupplierNumber>> cache;
+
+    public SupplierNrService(SupplierNrRepository supplierNrRepository, ChangeTrackingService changeTrackingService) {
         this.supplierNrRepository = supplierNrRepository;
+        this.changeTrackingService = changeTrackingService;
+        this.cache = new ReferenceDataCache<>("supplierNumbers", this::loadSupplierNumbers,
+                changeTrackingService, ChangeTrackingService.SUPPLIER_NUMBERS);
+    }
+
+    private Map<Integer, SupplierNumber> loadSupplierNumbers() {
+        Map<Integer, SupplierNumber> numbers = new TreeMap<>();
+        for (SupplierNrEntity entity : supplierNrRepository.findAll()) {
+            numbers.put(entity.getSupplierNr(), mapToDataclass(entity));
+        }
+        return Collections.unmodifiableMap(numbers);
     }
 
     public SupplierNrEntity save(SupplierNumber dataclass) {
         SupplierNrEntity entity = mapToEntity(dataclass);
-        return supplierNrRepository.save(entity);
+        SupplierNrEntity saved = supplierNrRepository.save(entity);
+        cache.invalidate();
+        return saved;
     }
 
     // Entity -> DTO
@@ -37,25 +61,108 @@ public class SupplierNrService {
     }
 
     public SupplierNumber getById(int id) {
-        return supplierNrRepository.findById(id)
-                .map(this::mapToDataclass)
-                .orElseThrow(() -> new EntityNotFoundException("SupplierNrEntity not found for id: " + id));
+        if (!exists(id)) {
+            throw new EntityNotFoundException("SupplierNrEntity not found for id: " + id);
+        }
+        return new SupplierNumber(id);
     }
 
+    /**
+     * Returns a reference (proxy) to an existing supplier number without querying the database
+     */
     public SupplierNrEntity getEntityById(int id) {
-        return supplierNrRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("SupplierNrEntity not found for id: " + id));
+        if (!exists(id)) {
+            throw new EntityNotFoundException("SupplierNrEntity not found for id: " + id);
+        }
+        return supplierNrRepository.getReferenceById(id);
+    }
+
+    /**
+     * Resolves many supplier numbers at once.
+     * Existing numbers are served from the cache, numbers that do not exist yet are created.
+     *
+     * @param ids The supplier numbers to resolve
+     * @return A map from supplier number to its entity
+     */
+    public Map<Integer, SupplierNrEntity> getOrCreateEntities(Collection<Integer> ids) {
+        Map<Integer, SupplierNumber> existing = cache.get();
+        Map<Integer, SupplierNrEntity> entities = new HashMap<>();
+        List<SupplierNrEntity> missing = new ArrayList<>();
+        List<Integer> notCached = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            if (existing.containsKey(id)) {
+                entities.put(id, supplierNrRepository.getReferenceById(id));
+            } else {
+                notCached.add(id);
+            }
+        }
+
+        // Numbers created by another client since the snapshot was validated already exist
+        if (!notCached.isEmpty()) {
+            for (SupplierNrEntity entity : supplierNrRepository.findAllById(notCached)) {
+                entities.put(entity.getSupplierNr(), entity);
+            }
+            for (Integer id : notCached) {
+                if (!entities.containsKey(id)) {
+                    missing.add(mapToEntity(new SupplierNumber(id)));
+                }
+            }
+            cache.invalidate();
+        }
+
+        if (!missing.isEmpty()) {
+            for (SupplierNrEntity entity : supplierNrRepository.saveAll(missing)) {
+                entities.put(entity.getSupplierNr(), entity);
+            }
+            cache.invalidate();
+        }
+        return entities;
     }
 
     public boolean exists(int id) {
-        return supplierNrRepository.existsBySupplierNr(id);
+        if (cache.get().containsKey(id)) {
+            return true;
+        }
+        // Possibly created by another client since the snapshot was validated
+        if (supplierNrRepository.existsById(id)) {
+            cache.invalidate();
+            return true;
+        }
+        return false;
     }
 
     public List<SupplierNumber> getDatabaseEntries(){
-        List<SupplierNrEntity> entities = supplierNrRepository.findAll();
-        return entities.stream()
-                .map(this::mapToDataclass)
-                .toList();
+        return List.copyOf(cache.get().values());
+    }
+
+    public long getChangeWatermark() {
+        return changeTrackingService.getWatermark();
+    }
+
+    /**
+     * Whether supplier numbers were created or deleted since a watermark, also by other clients;
+     * drops the cache if so, the next read then returns the current numbers
+     */
+    public boolean hasChangesSince(long watermark) {
+        boolean changed = changeTrackingService.hasChangesSince(ChangeTrackingService.SUPPLIER_NUMBERS, watermark);
+        if (changed) {
+            cache.invalidate();
+        }
+        return changed;
+    }
+
+    /**
+     * Drops the cached supplier numbers, e.g. after bulk changes that bypass this service
+     */
+    public void invalidateCache() {
+        cache.invalidate();
+    }
+
+    /**
+     * Cache of all supplier numbers (for statistics)
+     */
+    public ReferenceDataCache<?> getCache() {
+        return cache;
     }
 
 }
@@ -2,23 +2,42 @@ package com.example.transferprojekt.services;
 
 import com.example.transferprojekt.dataclasses.Address;
 import com.example.transferprojekt.dataclasses.Company;
+import com.example.transferprojekt.dataclasses.RowChanges;
 import com.example.transferprojekt.jpa.entities.SupplierEntity;
 import com.example.transferprojekt.jpa.repositories.SupplierRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 @Transactional
-public class SupplierService {
+public class SupplierService implements ChangeSource<Company> {
 
     private final SupplierRepository supplierRepository;
+    private final ChangeTrackingService changeTrackingService;
 
-    public SupplierService(SupplierRepository supplierRepository) {
+    // All suppliers by ID; the table is small and changes rarely
+    private final ReferenceDataCache<Map<UUID, Company>> cache;
+
+    public SupplierService(SupplierRepository supplierRepository, ChangeTrackingService changeTrackingService) {
         this.supplierRepository = supplierRepository;
+        this.changeTrackingService = changeTrackingService;
+        this.cache = new ReferenceDataCache<>("suppliers", this::loadSuppliers,
+                changeTrackingService, ChangeTrackingService.SUPPLIERS);
+    }
+
+    private Map<UUID, Company> loadSuppliers() {
+        Map<UUID, Company> suppliers = new LinkedHashMap<>();
+        for (Company company : supplierRepository.findAllAsDataclass()) {
+            suppliers.put(company.getCompanyId(), company);
+        }
+        return Collections.unmodifiableMap(suppliers);
     }
 
     /**
@@ -47,7 +66,9 @@ public class SupplierService {
             entity = mapToEntity(company);
         }
 
-        return supplierRepository.save(entity);
+        SupplierEntity saved = supplierRepository.save(entity);
+        cache.invalidate();
+        return saved;
     }
 
     /* Mapping: Dataclass<Company> -> Entity */
@@ -75,24 +96,41 @@ public class SupplierService {
     }
 
     public List<Company> getDatabaseEntries(){
-        List<SupplierEntity> entities = supplierRepository.findAll();
-        return entities.stream()
-                .map(this::mapToDataclass)
-                .toList();
+        // Served from the cache, loaded with one projection query on a miss
+        return List.copyOf(cache.get().values());
+    }
+
+    /**
+     * Returns a supplier from the cache
+     *
+     * @return The supplier or null if it does not exist
+     */
+    public Company getDataclassById(UUID supplierId) {
+        return cache.get().get(supplierId);
     }
 
     public SupplierEntity getById(UUID supplierId){
         return supplierRepository.findById(supplierId).orElse(null);
     }
 
+    /**
+     * Returns a reference (proxy) to an existing supplier without querying the database
+     */
     public SupplierEntity getEntityById(UUID id) {
-        return supplierRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("SupplierEntity not found for id: " + id));
+        if (!cache.get().containsKey(id)) {
+            // Possibly created by another client since the snapshot was validated
+            if (!supplierRepository.existsById(id)) {
+                throw new EntityNotFoundException("SupplierEntity not found for id: " + id);
+            }
+            cache.invalidate();
+        }
+        return supplierRepository.getReferenceById(id);
     }
 
     public boolean deleteById(UUID supplierId){
         try {
             supplierRepository.deleteById(supplierId);
+            cache.invalidate();
             return true;
         } catch (Exception ex) {
             System.out.println("Exception while deleting supplier:");
@@ -100,4 +138,43 @@ public class SupplierService {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public long getChangeWatermark() {
+        return changeTrackingService.getWatermark();
+    }
+
+    /**
+     * Suppliers changed since a watermark, also by other clients; drops the cache if there are any
+     */
+    @Override
+    public RowChanges<Company> getChangesSince(long watermark) {
+        RowChanges<UUID> changes = changeTrackingService.getChangedIds(
+                ChangeTrackingService.SUPPLIERS, watermark, changeTrackingService.getWatermark());
+        if (!changes.isEmpty()) {
+            cache.invalidate();
+        }
+        return changes.withRows(changes.getChangedRows().isEmpty()
+                ? List.of()
+                : supplierRepository.findAllAsDataclassByIds(changes.getChangedRows()));
+    }
+
+    @Override
+    public UUID getRowId(Company supplier) {
+        return supplier.getCompanyId();
+    }
+
+    /**
+     * Drops the cached suppliers, e.g. after bulk deletes that bypass this service
+     */
+    public void invalidateCache() {
+        cache.invalidate();
+    }
+
+    /**
+     * Cache of all suppliers (for statistics)
+     */
+    public ReferenceDataCache<?> getCache() {
+        return cache;
+    }
+}
@@ -18,12 +18,15 @@ public class TestdataService {
     private final MilkDeliveryService milkDeliveryService;
     private final SupplierService supplierService;
     private final SupplierNrService supplierNrService;
+    private final MilkPriceService milkPriceService;
 
-    public TestdataService(AssignmentService assignmentService, SupplierService supplierService, SupplierNrService supplierNrService, MilkDeliveryService milkDeliveryService) {
+    public TestdataService(AssignmentService assignmentService, SupplierService supplierService, SupplierNrService supplierNrService, MilkDeliveryService milkDeliveryService,
+                           MilkPriceService milkPriceService) {
         this.assignmentService = assignmentService;
         this.supplierService = supplierService;
         this.supplierNrService = supplierNrService;
         this.milkDeliveryService = milkDeliveryService;
+        this.milkPriceService = milkPriceService;
     }
 
     public void insertTestdata() {
@@ -73,9 +76,22 @@ public class TestdataService {
         System.out.println("Newly created Dataclasses:");
         printAllToString(milkDeliveries);
         System.out.println("Saving to Database...");
-        milkDeliveries.replaceAll(milkDelivery -> milkDeliveryService.mapToDataclass(milkDeliveryService.save(milkDelivery)));
+        milkDeliveries = new ArrayList<>(milkDeliveryService.saveAll(milkDeliveries).stream()
+                .map(milkDeliveryService::mapToDataclass)
+                .toList());
         System.out.println("Updated Dataclasses:");
         printAllToString(milkDeliveries);
+
+
+        /* Creating milk price and evening surcharge */
+        MilkPrice price = new MilkPrice(LocalDate.parse("2025-01-01"), null, new BigDecimal("0.7800"));
+        PriceSurcharge surcharge = new PriceSurcharge(TimeWindow.ABEND, LocalDate.parse("2025-01-01"), null, new BigDecimal("0.0150"));
+        System.out.println();
+        System.out.println("Saving milk price to Database...");
+        milkPriceService.savePrice(price);
+        milkPriceService.saveSurcharge(surcharge);
+        printAllToString(milkPriceService.getPrices());
+        printAllToString(milkPriceService.getSurcharges());
     }
 
     public static <T> void printAllToString(List<T> list) {
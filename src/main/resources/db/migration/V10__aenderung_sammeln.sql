@@ -0,0 +1,36 @@
+-- Massenänderungen (Import, saveAll der Testdaten, Löschen aller Daten) schreiben einen Eintrag
+-- ohne ID pro Tabelle statt einen pro Zeile (ChangeTrackingService.recordBulkChange).
+-- Die Tabellen stehen dann für den Rest der Transaktion in milkcalc.aenderung_gesammelt,
+-- die Trigger protokollieren sie nicht mehr einzeln. saveAll schreibt in JDBC-Batches zu 50 Zeilen,
+-- die Schwelle von 1000 Zeilen pro Anweisung greift dort nie.
+CREATE OR REPLACE FUNCTION aenderung_protokollieren() RETURNS TRIGGER AS $$
+DECLARE
+    transition TEXT := CASE WHEN TG_OP = 'DELETE' THEN 'alt' ELSE 'neu' END;
+    anzahl     BIGINT;
+BEGIN
+    IF TG_TABLE_NAME = ANY (string_to_array(current_setting('milkcalc.aenderung_gesammelt', true), ',')) THEN
+        RETURN NULL;
+    END IF;
+
+    EXECUTE format('SELECT count(*) FROM (SELECT 1 FROM %I LIMIT 1001) z', transition) INTO anzahl;
+
+    IF anzahl > 1000 THEN
+        INSERT INTO aenderung (tabelle) VALUES (TG_TABLE_NAME);
+    ELSIF anzahl > 0 THEN
+        EXECUTE format('INSERT INTO aenderung (tabelle, zeilen_id, geloescht) SELECT %L, %I, %L FROM %I',
+                       TG_TABLE_NAME, TG_ARGV[0], TG_OP = 'DELETE', transition);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION aenderung_tabelle_protokollieren() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_TABLE_NAME = ANY (string_to_array(current_setting('milkcalc.aenderung_gesammelt', true), ',')) THEN
+        RETURN NULL;
+    END IF;
+
+    INSERT INTO aenderung (tabelle) VALUES (TG_TABLE_NAME);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,25 @@
+-- Partitionen werden beim Start und nachts von mehreren Instanzen angelegt (DeliveryPartitionService).
+-- Zwischen der Prüfung mit to_regclass und CREATE TABLE konnte eine zweite Instanz dieselbe
+-- Partition anlegen, der Aufruf brach dann mit duplicate_table ab (beim Start bricht das den Start ab).
+-- Eine Advisory-Sperre bis zum Ende der Transaktion serialisiert die Aufrufe; wer wartet,
+-- findet danach die Partition und gibt FALSE zurück.
+CREATE OR REPLACE FUNCTION milchlieferung_partition_erstellen(monat DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    von     DATE := date_trunc('month', monat)::date;
+    bis     DATE := (date_trunc('month', monat) + INTERVAL '1 month')::date;
+    tabelle TEXT := 'milchlieferung_' || to_char(monat, 'YYYY_MM');
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('milchlieferung_partition_erstellen'));
+
+    IF to_regclass(tabelle) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    -- Ohne Verschieben schlägt ATTACH fehl, wenn die Default-Partition Zeilen des Monats enthält
+    EXECUTE format('CREATE TABLE %I (LIKE milchlieferung INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', tabelle);
+    EXECUTE format('WITH verschoben AS (DELETE FROM milchlieferung_default WHERE datum >= %L AND datum < %L RETURNING *) '
+                   'INSERT INTO %I SELECT * FROM verschoben', von, bis, tabelle);
+    EXECUTE format('ALTER TABLE milchlieferung ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', tabelle, von, bis);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,5 @@
+-- Stand der Preise, Zuschläge und Zuweisungen des Monats beim Start eines Abrechnungslaufs (md5).
+-- Ein unterbrochener Lauf wird nur fortgesetzt, wenn der Stand noch derselbe ist; sonst würden
+-- seine Partitionen mit unterschiedlichen Preisen oder Zuweisungen abgerechnet.
+-- Läufe von vor dieser Migration haben keinen Stand und werden neu gestartet.
+ALTER TABLE abrechnungslauf ADD COLUMN stammdaten_version VARCHAR(32);
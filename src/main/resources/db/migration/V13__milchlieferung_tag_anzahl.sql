@@ -0,0 +1,8 @@
+-- Abziehen einer Lieferung (DeliveryRollupService.remove) in einer Anweisung: UPDATE zählt herunter
+-- und gibt die neue Anzahl zurück, eine Zeile mit 0 wird danach in derselben Transaktion gelöscht.
+-- Bisher entschied ein DELETE ... anzahl <= 1 vorab; zwei gleichzeitige Aufrufe auf einer Zeile mit
+-- Anzahl 2 zogen dann beide ab und verletzten CHECK (anzahl > 0).
+-- Zeilen mit Anzahl 0 sind nur innerhalb der abziehenden Transaktion sichtbar.
+ALTER TABLE milchlieferung_tag
+    DROP CONSTRAINT ck_milchlieferung_tag_anzahl,
+    ADD CONSTRAINT ck_milchlieferung_tag_anzahl CHECK (anzahl >= 0);
@@ -0,0 +1,22 @@
+-- Milchlieferung pro Tag
+-- Vorberechnete Summen je Lieferantennummer, Datum und Zeitfenster.
+-- Wird von DeliveryRollupService in derselben Transaktion wie milchlieferung nachgeführt.
+CREATE TABLE milchlieferung_tag (
+    lieferant_nr	INTEGER NOT NULL,
+    datum			DATE NOT NULL,
+    zeitfenster     VARCHAR(10) NOT NULL,
+    anzahl          BIGINT NOT NULL,
+    menge_kg       	DECIMAL(14,2) NOT NULL,
+
+    CONSTRAINT pk_milchlieferung_tag PRIMARY KEY (lieferant_nr, datum, zeitfenster),
+    CONSTRAINT ck_milchlieferung_tag_anzahl CHECK (anzahl > 0),
+    CONSTRAINT ck_milchlieferung_tag_zeitfenster CHECK (zeitfenster IN ('MORGEN', 'ABEND'))
+);
+
+CREATE INDEX ix_milchlieferung_tag_datum ON milchlieferung_tag (datum);
+
+-- Bestehende Lieferungen übernehmen
+INSERT INTO milchlieferung_tag (lieferant_nr, datum, zeitfenster, anzahl, menge_kg)
+SELECT lieferant_nr, datum, zeitfenster, COUNT(*), COALESCE(SUM(menge_kg), 0)
+FROM milchlieferung
+GROUP BY lieferant_nr, datum, zeitfenster;
@@ -0,0 +1,60 @@
+-- Milchpreis
+-- Grundpreis pro kg mit Gültigkeitszeitraum (gueltig_bis NULL = offen).
+CREATE TABLE milchpreis (
+    milchpreis_id	UUID NOT NULL DEFAULT gen_random_uuid(),
+    gueltig_ab		DATE NOT NULL,
+    gueltig_bis		DATE,
+    preis_pro_kg	DECIMAL(8,4) NOT NULL,
+
+    CONSTRAINT pk_milchpreis_milchpreis_id PRIMARY KEY (milchpreis_id),
+    CONSTRAINT ck_milchpreis_preis CHECK (preis_pro_kg >= 0),
+    CONSTRAINT ck_milchpreis_gueltigkeit CHECK (gueltig_bis IS NULL OR gueltig_bis >= gueltig_ab)
+);
+
+-- Milchpreis-Zuschlag
+-- Optionaler Zuschlag (negativ = Abzug) pro kg für ein Zeitfenster.
+CREATE TABLE milchpreis_zuschlag (
+    zuschlag_id		UUID NOT NULL DEFAULT gen_random_uuid(),
+    zeitfenster     VARCHAR(10) NOT NULL,
+    gueltig_ab		DATE NOT NULL,
+    gueltig_bis		DATE,
+    zuschlag_pro_kg	DECIMAL(8,4) NOT NULL,
+
+    CONSTRAINT pk_milchpreis_zuschlag_zuschlag_id PRIMARY KEY (zuschlag_id),
+    CONSTRAINT ck_milchpreis_zuschlag_zeitfenster CHECK (zeitfenster IN ('MORGEN', 'ABEND')),
+    CONSTRAINT ck_milchpreis_zuschlag_gueltigkeit CHECK (gueltig_bis IS NULL OR gueltig_bis >= gueltig_ab)
+);
+
+-- Abrechnungslauf
+-- Ein Lauf rechnet einen Monat ab (periode = erster Tag des Monats).
+CREATE TABLE abrechnungslauf (
+    lauf_id				UUID NOT NULL DEFAULT gen_random_uuid(),
+    periode				DATE NOT NULL,
+    erstellt_am			TIMESTAMP NOT NULL,
+    anzahl_lieferungen	BIGINT NOT NULL,
+    menge_kg			DECIMAL(14,2) NOT NULL,
+    betrag				DECIMAL(14,2) NOT NULL,
+    nicht_zugeordnet_anzahl	BIGINT NOT NULL,
+    nicht_zugeordnet_kg	DECIMAL(14,2) NOT NULL,
+
+    CONSTRAINT pk_abrechnungslauf_lauf_id PRIMARY KEY (lauf_id),
+    CONSTRAINT ck_abrechnungslauf_periode CHECK (EXTRACT(DAY FROM periode) = 1)
+);
+
+CREATE INDEX ix_abrechnungslauf_periode ON abrechnungslauf (periode);
+
+-- Abrechnung
+-- Positionen der Lieferantenabrechnungen eines Laufs, eine pro Lieferant und Lieferantennummer.
+CREATE TABLE abrechnung (
+    lauf_id				UUID NOT NULL,
+    lieferant_id		UUID NOT NULL,
+    lieferant_nr		INTEGER NOT NULL,
+    anzahl_lieferungen	BIGINT NOT NULL,
+    menge_kg			DECIMAL(14,2) NOT NULL,
+    betrag				DECIMAL(14,2) NOT NULL,
+
+    CONSTRAINT pk_abrechnung PRIMARY KEY (lauf_id, lieferant_id, lieferant_nr),
+    CONSTRAINT fk_abrechnung_lauf_id FOREIGN KEY (lauf_id) REFERENCES abrechnungslauf (lauf_id) ON DELETE CASCADE,
+    CONSTRAINT fk_abrechnung_lieferant_id FOREIGN KEY (lieferant_id) REFERENCES lieferant (lieferant_id),
+    CONSTRAINT fk_abrechnung_lieferant_nr FOREIGN KEY (lieferant_nr) REFERENCES lieferantennummer (lieferant_nr)
+);
@@ -0,0 +1,44 @@
+-- Abrechnungslauf: Status und Checkpoints
+-- Ein Lauf rechnet seine Partitionen (Bereiche von Lieferantennummern) je in einer eigenen Transaktion ab.
+-- Ein unterbrochener Lauf (Status LAEUFT) wird fortgesetzt und überspringt abgeschlossene Partitionen.
+-- Pro Monat gibt es höchstens einen laufenden und einen abgeschlossenen Lauf; ein neuer Lauf
+-- ersetzt den abgeschlossenen beim Abschluss in derselben Transaktion.
+ALTER TABLE abrechnungslauf
+    ADD COLUMN status               VARCHAR(20) NOT NULL DEFAULT 'ABGESCHLOSSEN',
+    ADD COLUMN partition_groesse    INTEGER NOT NULL DEFAULT 500,
+    ADD COLUMN beendet_am           TIMESTAMP;
+
+UPDATE abrechnungslauf SET beendet_am = erstellt_am;
+
+ALTER TABLE abrechnungslauf
+    ALTER COLUMN status DROP DEFAULT,
+    ALTER COLUMN partition_groesse DROP DEFAULT,
+    ADD CONSTRAINT ck_abrechnungslauf_status CHECK (status IN ('LAEUFT', 'ABGESCHLOSSEN')),
+    ADD CONSTRAINT ck_abrechnungslauf_partition_groesse CHECK (partition_groesse > 0);
+
+-- Bisher mehrfach abgerechnete Monate: nur der neueste Lauf bleibt bestehen
+DELETE FROM abrechnungslauf a
+WHERE EXISTS (
+    SELECT 1 FROM abrechnungslauf b
+    WHERE b.periode = a.periode
+    AND (b.erstellt_am > a.erstellt_am OR (b.erstellt_am = a.erstellt_am AND b.lauf_id > a.lauf_id))
+);
+
+DROP INDEX ix_abrechnungslauf_periode;
+CREATE UNIQUE INDEX ux_abrechnungslauf_periode_laeuft ON abrechnungslauf (periode) WHERE status = 'LAEUFT';
+CREATE UNIQUE INDEX ux_abrechnungslauf_periode_abgeschlossen ON abrechnungslauf (periode) WHERE status = 'ABGESCHLOSSEN';
+
+-- Abgeschlossene Partitionen eines Laufs
+CREATE TABLE abrechnungslauf_partition (
+    lauf_id					UUID NOT NULL,
+    partition_nr			INTEGER NOT NULL,
+    nr_von					INTEGER NOT NULL,
+    nr_bis					INTEGER NOT NULL,
+    anzahl_zeilen			INTEGER NOT NULL,
+    nicht_zugeordnet_anzahl	BIGINT NOT NULL,
+    nicht_zugeordnet_kg		DECIMAL(14,2) NOT NULL,
+    abgeschlossen_am		TIMESTAMP NOT NULL,
+
+    CONSTRAINT pk_abrechnungslauf_partition PRIMARY KEY (lauf_id, partition_nr),
+    CONSTRAINT fk_abrechnungslauf_partition_lauf_id FOREIGN KEY (lauf_id) REFERENCES abrechnungslauf (lauf_id) ON DELETE CASCADE
+);
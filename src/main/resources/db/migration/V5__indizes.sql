@@ -0,0 +1,16 @@
+-- Indizes für die häufigen Abfragen
+-- V1 legt nur Primärschlüssel an, Filter nach Datum und Lieferantennummer waren Seq Scans.
+
+-- Lieferungen einer Lieferantennummer in einem Zeitraum
+-- (auch für die Fremdschlüsselprüfung beim Löschen einer Lieferantennummer).
+CREATE INDEX ix_milchlieferung_lieferant_nr_datum ON milchlieferung (lieferant_nr, datum);
+
+-- Zeitraumfilter (Export, Paging, Statistiken). Lieferungen werden etwa in Datumsreihenfolge
+-- erfasst, BRIN bleibt daher klein (wenige Seiten statt ein Eintrag pro Zeile).
+CREATE INDEX brin_milchlieferung_datum ON milchlieferung USING BRIN (datum);
+
+-- Zuweisungen einer Lieferantennummer nach Beginn (Überschneidungsprüfung, Zuordnung per Datum)
+CREATE INDEX ix_zuweisung_lieferant_nr_zugewiesen_ab ON zuweisung (lieferant_nr, zugewiesen_ab);
+
+ANALYZE milchlieferung;
+ANALYZE zuweisung;
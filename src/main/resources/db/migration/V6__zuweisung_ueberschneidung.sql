@@ -0,0 +1,50 @@
+-- Zuweisungen einer Lieferantennummer dürfen sich nicht überschneiden.
+-- Bisher nur von der Anwendung geprüft (nicht sicher bei gleichzeitigem Speichern),
+-- neu als Exclusion Constraint in der Datenbank.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Bestehende Daten prüfen: Zuweisungen mit Ende vor Beginn oder Überschneidungen lassen sich nicht
+-- automatisch auflösen (welche Zuweisung gilt, muss fachlich entschieden werden). Die Migration bricht
+-- deshalb mit der Liste der betroffenen zuweisung_id ab; nach dem Bereinigen kann sie erneut laufen.
+DO $$
+DECLARE
+    ungueltig TEXT;
+    ueberschneidend TEXT;
+BEGIN
+    SELECT string_agg(zuweisung_id::TEXT, ', ' ORDER BY zuweisung_id)
+    INTO ungueltig
+    FROM zuweisung
+    WHERE zugewiesen_bis < zugewiesen_ab;
+
+    IF ungueltig IS NOT NULL THEN
+        RAISE EXCEPTION 'Zuweisungen mit zugewiesen_bis vor zugewiesen_ab: %', ungueltig
+            USING HINT = 'Enddatum korrigieren oder Zuweisung löschen, danach die Migration erneut starten.';
+    END IF;
+
+    SELECT string_agg(DISTINCT z.zuweisung_id::TEXT, ', ')
+    INTO ueberschneidend
+    FROM zuweisung z
+    JOIN zuweisung andere
+      ON andere.lieferant_nr = z.lieferant_nr
+     AND andere.zuweisung_id <> z.zuweisung_id
+     AND z.zugewiesen_ab <= COALESCE(andere.zugewiesen_bis, 'infinity'::DATE)
+     AND andere.zugewiesen_ab <= COALESCE(z.zugewiesen_bis, 'infinity'::DATE);
+
+    IF ueberschneidend IS NOT NULL THEN
+        RAISE EXCEPTION 'Überschneidende Zuweisungen derselben Lieferantennummer: %', ueberschneidend
+            USING HINT = 'Zeiträume anpassen oder Zuweisungen löschen, danach die Migration erneut starten.';
+    END IF;
+END
+$$;
+
+-- Das Enddatum darf nicht vor dem Beginn liegen (bisher nur im AssignmentDialog geprüft)
+ALTER TABLE zuweisung
+    ADD CONSTRAINT ck_zuweisung_zeitraum CHECK (zugewiesen_bis IS NULL OR zugewiesen_bis >= zugewiesen_ab);
+
+-- Gültigkeit als Zeitraum inkl. beider Enddaten (zugewiesen_bis NULL = offen)
+ALTER TABLE zuweisung
+    ADD COLUMN gueltig DATERANGE GENERATED ALWAYS AS (daterange(zugewiesen_ab, zugewiesen_bis, '[]')) STORED;
+
+-- Der GiST-Index des Constraints dient auch der Suche nach der aktiven Zuweisung (gueltig @> datum).
+ALTER TABLE zuweisung
+    ADD CONSTRAINT ex_zuweisung_lieferant_nr_gueltig EXCLUDE USING gist (lieferant_nr WITH =, gueltig WITH &&);
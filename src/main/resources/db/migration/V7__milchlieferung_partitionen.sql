@@ -0,0 +1,86 @@
+-- Milchlieferung nach Monat partitionieren
+-- Abfragen für einen Zeitraum lesen nur die betroffenen Monate (Partition Pruning),
+-- alte Jahre werden mit DETACH PARTITION abgehängt statt mit einem grossen DELETE.
+-- Neue Partitionen legt DeliveryPartitionService im Voraus an.
+
+-- Bestehende Tabelle umbenennen, Index- und Primärschlüsselnamen freigeben
+ALTER TABLE milchlieferung RENAME TO milchlieferung_alt;
+ALTER TABLE milchlieferung_alt RENAME CONSTRAINT pk_milchlieferung_lieferung_id TO pk_milchlieferung_alt_lieferung_id;
+DROP INDEX ix_milchlieferung_lieferant_nr_datum;
+DROP INDEX brin_milchlieferung_datum;
+
+-- Der Primärschlüssel muss den Partitionsschlüssel enthalten
+CREATE TABLE milchlieferung (
+    lieferung_id	UUID NOT NULL DEFAULT gen_random_uuid(),
+    lieferant_nr	INTEGER NOT NULL,
+    datum			DATE NOT NULL,
+    zeitfenster     VARCHAR(10) NOT NULL,
+    menge_kg       	DECIMAL(10,2),
+
+    CONSTRAINT pk_milchlieferung_lieferung_id PRIMARY KEY (lieferung_id, datum),
+    CONSTRAINT fk_milchlieferung_lieferant_nr FOREIGN KEY (lieferant_nr) REFERENCES lieferantennummer (lieferant_nr),
+    CONSTRAINT ck_milchlieferung_menge CHECK (menge_kg >= 0),
+    CONSTRAINT ck_milchlieferung_zeitfenster CHECK (zeitfenster IN ('MORGEN', 'ABEND'))
+) PARTITION BY RANGE (datum);
+
+-- Indizes aus V5, werden auf jeder Partition angelegt
+CREATE INDEX ix_milchlieferung_lieferant_nr_datum ON milchlieferung (lieferant_nr, datum);
+CREATE INDEX brin_milchlieferung_datum ON milchlieferung USING BRIN (datum);
+
+-- Lieferungen ohne Monatspartition (z.B. Import alter Daten), werden beim nächsten Lauf verschoben
+CREATE TABLE milchlieferung_default PARTITION OF milchlieferung DEFAULT;
+
+-- Legt die Partition eines Monats an (milchlieferung_JJJJ_MM) und übernimmt dessen Lieferungen
+-- aus der Default-Partition. Gibt FALSE zurück, wenn die Partition bereits existiert.
+CREATE FUNCTION milchlieferung_partition_erstellen(monat DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    von     DATE := date_trunc('month', monat)::date;
+    bis     DATE := (date_trunc('month', monat) + INTERVAL '1 month')::date;
+    tabelle TEXT := 'milchlieferung_' || to_char(monat, 'YYYY_MM');
+BEGIN
+    IF to_regclass(tabelle) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    -- Ohne Verschieben schlägt ATTACH fehl, wenn die Default-Partition Zeilen des Monats enthält
+    EXECUTE format('CREATE TABLE %I (LIKE milchlieferung INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', tabelle);
+    EXECUTE format('WITH verschoben AS (DELETE FROM milchlieferung_default WHERE datum >= %L AND datum < %L RETURNING *) '
+                   'INSERT INTO %I SELECT * FROM verschoben', von, bis, tabelle);
+    EXECUTE format('ALTER TABLE milchlieferung ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', tabelle, von, bis);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Hängt die Monatspartitionen eines Jahres ab (nur Katalogänderung, die Daten bleiben als eigene Tabellen).
+-- Gibt die Namen der abgehängten Tabellen zurück.
+CREATE FUNCTION milchlieferung_jahr_abhaengen(jahr INTEGER) RETURNS SETOF TEXT AS $$
+DECLARE
+    tabelle TEXT;
+BEGIN
+    FOR tabelle IN
+        SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'milchlieferung'::regclass
+        AND c.relname LIKE 'milchlieferung\_' || jahr || '\_%'
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('ALTER TABLE milchlieferung DETACH PARTITION %I', tabelle);
+        RETURN NEXT tabelle;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitionen für die bestehenden Monate und die nächsten drei Monate
+SELECT milchlieferung_partition_erstellen(monat)
+FROM (
+    SELECT DISTINCT date_trunc('month', datum)::date AS monat FROM milchlieferung_alt
+    UNION
+    SELECT generate_series(date_trunc('month', CURRENT_DATE), date_trunc('month', CURRENT_DATE) + INTERVAL '3 months', INTERVAL '1 month')::date
+) monate
+ORDER BY monat;
+
+INSERT INTO milchlieferung (lieferung_id, lieferant_nr, datum, zeitfenster, menge_kg)
+SELECT lieferung_id, lieferant_nr, datum, zeitfenster, menge_kg FROM milchlieferung_alt;
+
+DROP TABLE milchlieferung_alt;
+
+ANALYZE milchlieferung;
@@ -0,0 +1,71 @@
+-- Änderungsprotokoll für die differenzielle Aktualisierung der Listen (ChangeTrackingService)
+-- Trigger pro Anweisung protokollieren die IDs der eingefügten, geänderten und gelöschten Zeilen.
+-- Ein Client merkt sich beim Laden die älteste laufende Transaktion (Watermark) und liest später
+-- nur die Einträge ab dieser Transaktion. Einträge von Transaktionen, die beim Laden noch liefen,
+-- werden so nicht übersehen; doppelt gelesene Einträge schaden nicht.
+CREATE TABLE aenderung (
+    aenderung_id    BIGINT GENERATED ALWAYS AS IDENTITY,
+    tabelle         TEXT NOT NULL,
+    -- NULL: Tabelle als Ganzes geändert (Massenänderung), Clients laden neu
+    zeilen_id       UUID,
+    geloescht       BOOLEAN NOT NULL DEFAULT FALSE,
+    transaktion     BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint,
+    zeitpunkt       TIMESTAMPTZ NOT NULL DEFAULT now(),
+
+    CONSTRAINT pk_aenderung_aenderung_id PRIMARY KEY (aenderung_id)
+);
+
+CREATE INDEX ix_aenderung_tabelle_transaktion ON aenderung (tabelle, transaktion);
+CREATE INDEX ix_aenderung_zeitpunkt ON aenderung (zeitpunkt);
+
+-- Höchste Transaktion, deren Einträge die Bereinigung gelöscht hat.
+-- Clients mit einer älteren Watermark müssen neu laden.
+CREATE TABLE aenderung_bereinigt (
+    id              BOOLEAN NOT NULL DEFAULT TRUE,
+    bis_transaktion BIGINT NOT NULL,
+
+    CONSTRAINT pk_aenderung_bereinigt_id PRIMARY KEY (id),
+    CONSTRAINT ck_aenderung_bereinigt_einzeilig CHECK (id)
+);
+
+INSERT INTO aenderung_bereinigt (bis_transaktion) VALUES (0);
+
+-- Trigger-Funktion, TG_ARGV[0] ist die ID-Spalte der Tabelle.
+-- Ab 1000 Zeilen pro Anweisung (Import, Testdaten) wird nur ein Eintrag ohne ID geschrieben.
+CREATE FUNCTION aenderung_protokollieren() RETURNS TRIGGER AS $$
+DECLARE
+    transition TEXT := CASE WHEN TG_OP = 'DELETE' THEN 'alt' ELSE 'neu' END;
+    anzahl     BIGINT;
+BEGIN
+    EXECUTE format('SELECT count(*) FROM (SELECT 1 FROM %I LIMIT 1001) z', transition) INTO anzahl;
+
+    IF anzahl > 1000 THEN
+        INSERT INTO aenderung (tabelle) VALUES (TG_TABLE_NAME);
+    ELSIF anzahl > 0 THEN
+        EXECUTE format('INSERT INTO aenderung (tabelle, zeilen_id, geloescht) SELECT %L, %I, %L FROM %I',
+                       TG_TABLE_NAME, TG_ARGV[0], TG_OP = 'DELETE', transition);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Anweisungs-Trigger auf der partitionierten Tabelle erfassen die Zeilen aller Partitionen.
+-- Das Verschieben aus der Default-Partition (milchlieferung_partition_erstellen) läuft direkt
+-- auf den Partitionen und wird nicht protokolliert, die Lieferungen bleiben ja dieselben.
+DO $$
+DECLARE
+    t RECORD;
+BEGIN
+    FOR t IN SELECT * FROM (VALUES ('lieferant', 'lieferant_id'),
+                                   ('zuweisung', 'zuweisung_id'),
+                                   ('milchlieferung', 'lieferung_id')) v(tabelle, spalte)
+    LOOP
+        EXECUTE format('CREATE TRIGGER tr_%s_einfuegen AFTER INSERT ON %I REFERENCING NEW TABLE AS neu '
+                       'FOR EACH STATEMENT EXECUTE FUNCTION aenderung_protokollieren(%L)', t.tabelle, t.tabelle, t.spalte);
+        EXECUTE format('CREATE TRIGGER tr_%s_aendern AFTER UPDATE ON %I REFERENCING OLD TABLE AS alt NEW TABLE AS neu '
+                       'FOR EACH STATEMENT EXECUTE FUNCTION aenderung_protokollieren(%L)', t.tabelle, t.tabelle, t.spalte);
+        EXECUTE format('CREATE TRIGGER tr_%s_loeschen AFTER DELETE ON %I REFERENCING OLD TABLE AS alt '
+                       'FOR EACH STATEMENT EXECUTE FUNCTION aenderung_protokollieren(%L)', t.tabelle, t.tabelle, t.spalte);
+    END LOOP;
+END;
+$$;
@@ -0,0 +1,12 @@
+-- Änderungen an lieferantennummer im Änderungsprotokoll, damit die Caches der Nummern
+-- (ReferenceDataCache) auch Nummern anderer Clients sehen.
+-- Die Nummern haben keine UUID, pro Anweisung wird ein Eintrag ohne ID geschrieben.
+CREATE FUNCTION aenderung_tabelle_protokollieren() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO aenderung (tabelle) VALUES (TG_TABLE_NAME);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tr_lieferantennummer_aendern AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON lieferantennummer
+    FOR EACH STATEMENT EXECUTE FUNCTION aenderung_tabelle_protokollieren();
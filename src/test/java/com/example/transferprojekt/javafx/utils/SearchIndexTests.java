@@ -0,0 +1,162 @@
+package com.example.transferprojekt.javafx.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Search results of the index compared with a plain String.contains scan over a model list,
+ * after random appends, inserts, edits and removals, with and without trigram index.
+ * The texts use a small alphabet, so trigrams repeat across rows and fields. Needs no JavaFX toolkit.
+ */
+class SearchIndexTests {
+
+    private static final String TEXT_ALPHABET = "abAB1\n";
+    private static final String QUERY_ALPHABET = "abAB1";
+    private static final int STEPS = 400;
+
+    private record Row(int id, String text) {
+    }
+
+    @Test
+    void trigramSearchMatchesContainsScanAfterMixedChanges() throws Exception {
+        searchAfterMixedChanges(true);
+    }
+
+    @Test
+    void scanSearchMatchesContainsScanAfterMixedChanges() throws Exception {
+        searchAfterMixedChanges(false);
+    }
+
+    @Test
+    void trigramsOfOtherFieldsOrPositionsDoNotMatch() throws Exception {
+        SearchIndex<Row> index = new SearchIndex<>(Row::text, true);
+        Row split = new Row(1, "ab1\nb1a");
+        Row spread = new Row(2, "ab1xb1a");
+        Row match = new Row(3, "x\nAB1A");
+        index.addAll(List.of(split, spread, match));
+
+        // Every row contains the trigrams "ab1" and "b1a", only the last one the query
+        assertEquals(List.of(match), search(index, "ab1a", null));
+    }
+
+    @Test
+    void narrowedSearchIncludesRowsAppendedSinceThePreviousOne() throws Exception {
+        for (boolean trigramIndex : new boolean[]{false, true}) {
+            SearchIndex<Row> index = new SearchIndex<>(Row::text, trigramIndex);
+            List<Row> model = new ArrayList<>(List.of(new Row(1, "ab"), new Row(2, "ba"), new Row(3, "aab1")));
+            index.addAll(model);
+
+            SearchIndex.Result previous = index.prepareSearch("a", index.all()).call();
+            List<Row> appended = List.of(new Row(4, "xab1"), new Row(5, "b"));
+            index.addAll(appended);
+            model.addAll(appended);
+
+            assertEquals(expected(model, "ab1"), index.toList(index.prepareSearch("ab1", previous).call()));
+            assertEquals(expected(model, "a"), index.toList(index.refresh(previous)));
+
+            // After an edit the narrowed search starts over instead of reusing the previous matches
+            Row edited = new Row(6, "AB1");
+            index.set(1, edited);
+            model.set(1, edited);
+            assertEquals(expected(model, "ab1"), index.toList(index.prepareSearch("ab1", previous).call()));
+        }
+    }
+
+    private void searchAfterMixedChanges(boolean trigramIndex) throws Exception {
+        SplittableRandom random = new SplittableRandom(42);
+        SearchIndex<Row> index = new SearchIndex<>(Row::text, trigramIndex);
+        // Same positions as the index, null for removed rows
+        List<Row> model = new ArrayList<>();
+        int nextId = 0;
+
+        SearchIndex.Result shown = index.all();
+        String shownQuery = null;
+        for (int step = 0; step < STEPS; step++) {
+            int live = (int) model.stream().filter(row -> row != null).count();
+            int operation = live == 0 ? 0 : random.nextInt(4);
+            switch (operation) {
+                case 0 -> {
+                    List<Row> rows = new ArrayList<>();
+                    for (int i = random.nextInt(1, 6); i > 0; i--) rows.add(new Row(nextId++, randomText(random)));
+                    index.addAll(rows);
+                    model.addAll(rows);
+                }
+                case 1 -> {
+                    int position = random.nextInt(model.size() + 1);
+                    Row row = new Row(nextId++, randomText(random));
+                    index.insert(position, row);
+                    model.add(position, row);
+                }
+                case 2 -> {
+                    int position = randomLiveRow(model, random);
+                    Row row = new Row(nextId++, randomText(random));
+                    index.set(position, row);
+                    model.set(position, row);
+                }
+                default -> {
+                    int position = randomLiveRow(model, random);
+                    index.remove(position);
+                    model.set(position, null);
+                }
+            }
+
+            // The shown result brought up to date after the change
+            assertEquals(expected(model, shownQuery), index.toList(index.refresh(shown)), "refresh, step " + step);
+
+            // A new search, then one narrowing it by a character
+            String query = randomQuery(random, random.nextInt(1, 5));
+            SearchIndex.Result result = index.prepareSearch(query, shown).call();
+            assertEquals(expected(model, query), index.toList(result), "'" + query + "', step " + step);
+
+            String narrowed = query + randomQuery(random, 1);
+            shown = index.prepareSearch(narrowed, result).call();
+            shownQuery = narrowed;
+            assertEquals(expected(model, narrowed), index.toList(shown), "'" + narrowed + "', step " + step);
+        }
+    }
+
+    private static List<Row> search(SearchIndex<Row> index, String query, SearchIndex.Result previous) throws Exception {
+        return index.toList(index.prepareSearch(query, previous).call());
+    }
+
+    /* The rows a plain scan finds, in index order */
+    private static List<Row> expected(List<Row> model, String query) {
+        List<Row> rows = new ArrayList<>();
+        for (Row row : model) {
+            if (row == null) continue;
+            if (query == null || row.text().toLowerCase(Locale.ROOT).contains(query.toLowerCase(Locale.ROOT))) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static int randomLiveRow(List<Row> model, SplittableRandom random) {
+        while (true) {
+            int position = random.nextInt(model.size());
+            if (model.get(position) != null) return position;
+        }
+    }
+
+    private static String randomText(SplittableRandom random) {
+        StringBuilder text = new StringBuilder();
+        for (int i = random.nextInt(0, 12); i > 0; i--) {
+            text.append(TEXT_ALPHABET.charAt(random.nextInt(TEXT_ALPHABET.length())));
+        }
+        return text.toString();
+    }
+
+    private static String randomQuery(SplittableRandom random, int length) {
+        StringBuilder query = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            query.append(QUERY_ALPHABET.charAt(random.nextInt(QUERY_ALPHABET.length())));
+        }
+        return query.toString();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.Assignment;
+import com.example.transferprojekt.dataclasses.SupplierNumber;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Lookups of the interval index: both dates of an assignment are inclusive, a gap between two
+ * assignments of a number has no supplier, an open end is valid forever. Needs no database.
+ */
+class AssignmentIndexTests {
+
+    private static final int SUPPLIER_NR = 4711;
+    private static final int OTHER_NR = 4712;
+
+    // 4711: January, gap in February, from March without end; 4712: from February without end
+    private final Assignment january = assignment(SUPPLIER_NR, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31));
+    private final Assignment fromMarch = assignment(SUPPLIER_NR, LocalDate.of(2025, 3, 1), null);
+    private final Assignment other = assignment(OTHER_NR, LocalDate.of(2025, 2, 1), null);
+
+    // Unsorted on purpose, the index sorts per number
+    private final AssignmentIndex index = new AssignmentIndex(List.of(fromMarch, other, january));
+
+    @Test
+    void assignmentIsActiveOnItsFirstAndLastDay() {
+        assertSame(january, index.find(SUPPLIER_NR, LocalDate.of(2025, 1, 1)));
+        assertSame(january, index.find(SUPPLIER_NR, LocalDate.of(2025, 1, 31)));
+        assertSame(fromMarch, index.find(SUPPLIER_NR, LocalDate.of(2025, 3, 1)));
+
+        assertNull(index.find(SUPPLIER_NR, LocalDate.of(2024, 12, 31)));
+    }
+
+    @Test
+    void dateBetweenTwoAssignmentsHasNoSupplier() {
+        assertNull(index.find(SUPPLIER_NR, LocalDate.of(2025, 2, 1)));
+        assertNull(index.find(SUPPLIER_NR, LocalDate.of(2025, 2, 28)));
+        assertNull(index.findSupplierId(SUPPLIER_NR, LocalDate.of(2025, 2, 15).toEpochDay()));
+    }
+
+    @Test
+    void openEndIsValidForever() {
+        assertSame(fromMarch, index.find(SUPPLIER_NR, LocalDate.of(2099, 12, 31)));
+        assertEquals(fromMarch.getSupplierId(), index.findSupplierId(SUPPLIER_NR, LocalDate.of(2030, 6, 1).toEpochDay()));
+
+        assertNull(index.find(999, LocalDate.of(2025, 3, 1)));
+    }
+
+    @Test
+    void findActiveReturnsTheAssignmentsOfTheDateSortedByNumber() {
+        assertEquals(Map.of(SUPPLIER_NR, january), index.findActive(LocalDate.of(2025, 1, 31)));
+        assertEquals(Map.of(OTHER_NR, other), index.findActive(LocalDate.of(2025, 2, 1)));
+
+        Map<Integer, Assignment> active = index.findActive(LocalDate.of(2025, 3, 1));
+        assertEquals(List.of(SUPPLIER_NR, OTHER_NR), List.copyOf(active.keySet()));
+        assertSame(fromMarch, active.get(SUPPLIER_NR));
+        assertSame(other, active.get(OTHER_NR));
+    }
+
+    @Test
+    void overlappingLegacyDataUsesTheLatestStart() {
+        Assignment first = assignment(SUPPLIER_NR, LocalDate.of(2025, 1, 1), null);
+        Assignment sameStart = assignment(SUPPLIER_NR, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 10));
+        Assignment later = assignment(SUPPLIER_NR, LocalDate.of(2025, 1, 5), LocalDate.of(2025, 1, 20));
+        AssignmentIndex legacy = new AssignmentIndex(List.of(first, sameStart, later));
+
+        assertSame(later, legacy.find(SUPPLIER_NR, LocalDate.of(2025, 1, 5)));
+    }
+
+    private static Assignment assignment(int supplierNr, LocalDate validFrom, LocalDate validTo) {
+        return new Assignment(UUID.randomUUID(), UUID.randomUUID(), new SupplierNumber(supplierNr), validFrom, validTo);
+    }
+}
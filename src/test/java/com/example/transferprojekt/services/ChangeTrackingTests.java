@@ -0,0 +1,157 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.Assignment;
+import com.example.transferprojekt.dataclasses.Company;
+import com.example.transferprojekt.dataclasses.MilkDelivery;
+import com.example.transferprojekt.dataclasses.RowChanges;
+import com.example.transferprojekt.dataclasses.SupplierNumber;
+import com.example.transferprojekt.enumerations.TimeWindow;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The triggers of V8__aenderungsprotokoll.sql (V10 for bulk changes) and the differential refresh built on them.
+ * Rows are written in the test transaction and rolled back afterwards; the watermark read
+ * at the start of a test covers the test's own transaction. Tests that must not see their own
+ * setup in the log commit it and delete it afterwards.
+ */
+@SpringBootTest
+@Transactional
+class ChangeTrackingTests {
+
+    private static final int SUPPLIER_NR = 900_201;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SupplierService supplierService;
+
+    @Autowired
+    private AssignmentService assignmentService;
+
+    @Autowired
+    private MilkDeliveryService milkDeliveryService;
+
+    @Autowired
+    private ChangeTrackingService changeTrackingService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void insertedAndUpdatedSuppliersAreChangedRows() {
+        long watermark = supplierService.getChangeWatermark();
+        UUID inserted = insertSupplier("Hof Neu");
+        UUID updated = insertSupplier("Hof Alt");
+        jdbcTemplate.update("UPDATE lieferant SET name = 'Hof Umbenannt' WHERE lieferant_id = ?", updated);
+
+        RowChanges<Company> changes = supplierService.getChangesSince(watermark);
+
+        assertFalse(changes.isReloadRequired());
+        assertEquals(Set.of(inserted, updated), changes.getChangedRows().stream()
+                .map(Company::getCompanyId)
+                .collect(Collectors.toSet()));
+        assertTrue(changes.getChangedRows().stream()
+                .anyMatch(supplier -> "Hof Umbenannt".equals(supplier.getAddress().getName())));
+        assertTrue(changes.getDeletedIds().isEmpty());
+    }
+
+    @Test
+    void deletedSuppliersAreDeletedIds() {
+        long watermark = supplierService.getChangeWatermark();
+        UUID deleted = insertSupplier("Hof Weg");
+        jdbcTemplate.update("DELETE FROM lieferant WHERE lieferant_id = ?", deleted);
+
+        RowChanges<Company> changes = supplierService.getChangesSince(watermark);
+
+        assertEquals(Set.of(deleted), changes.getDeletedIds());
+        assertTrue(changes.getChangedRows().isEmpty());
+    }
+
+    @Test
+    void bulkInsertRequiresReload() {
+        long watermark = supplierService.getChangeWatermark();
+        jdbcTemplate.update("INSERT INTO lieferant (name) SELECT 'Hof ' || i FROM generate_series(1, 1001) i");
+
+        assertTrue(supplierService.getChangesSince(watermark).isReloadRequired());
+    }
+
+    @Test
+    void saveAllRecordsOneEntryInsteadOfOnePerRow() {
+        long watermark = milkDeliveryService.getChangeWatermark();
+        List<MilkDelivery> deliveries = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            deliveries.add(new MilkDelivery(BigDecimal.TEN, LocalDate.of(1999, 1, 1).plusDays(i),
+                    new SupplierNumber(SUPPLIER_NR), TimeWindow.MORGEN));
+        }
+        milkDeliveryService.saveAll(deliveries);
+
+        Long entries = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM aenderung WHERE tabelle = 'milchlieferung' AND transaktion >= ?",
+                Long.class, watermark);
+        assertEquals(1L, entries);
+        assertTrue(milkDeliveryService.getChangesSince(watermark).isReloadRequired());
+    }
+
+    /**
+     * The setup is committed before the watermark is read, so the assignment itself has no log entry
+     * after the watermark and can only be found through the rename of its supplier.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void renamedSupplierChangesItsAssignments() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        UUID supplierId = transaction.execute(status -> insertSupplier("Hof Vorher"));
+        try {
+            UUID assignmentId = transaction.execute(status -> {
+                jdbcTemplate.update("INSERT INTO lieferantennummer (lieferant_nr) VALUES (?)", SUPPLIER_NR);
+                return jdbcTemplate.queryForObject("""
+                        INSERT INTO zuweisung (lieferant_nr, lieferant_id, zugewiesen_ab, zugewiesen_bis)
+                        VALUES (?, ?, DATE '1900-01-01', NULL)
+                        RETURNING zuweisung_id
+                        """, UUID.class, SUPPLIER_NR, supplierId);
+            });
+
+            long watermark = assignmentService.getChangeWatermark();
+            transaction.executeWithoutResult(status -> jdbcTemplate.update(
+                    "UPDATE lieferant SET name = 'Hof Nachher' WHERE lieferant_id = ?", supplierId));
+
+            assertFalse(changeTrackingService.getChangedIds(ChangeTrackingService.ASSIGNMENTS, watermark, watermark)
+                    .getChangedRows().contains(assignmentId), "assignment must not be logged after the watermark");
+
+            List<Assignment> changed = assignmentService.getChangesSince(watermark).getChangedRows();
+
+            assertTrue(changed.stream().anyMatch(assignment ->
+                    assignmentId.equals(assignment.getAssignmentId()) && "Hof Nachher".equals(assignment.getSupplierName())));
+        } finally {
+            transaction.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM zuweisung WHERE lieferant_id = ?", supplierId);
+                jdbcTemplate.update("DELETE FROM lieferantennummer WHERE lieferant_nr = ?", SUPPLIER_NR);
+                jdbcTemplate.update("DELETE FROM lieferant WHERE lieferant_id = ?", supplierId);
+            });
+        }
+    }
+
+    private UUID insertSupplier(String name) {
+        return jdbcTemplate.queryForObject("INSERT INTO lieferant (name) VALUES (?) RETURNING lieferant_id", UUID.class, name);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.Assignment;
+import com.example.transferprojekt.dataclasses.DeliveryStatistics;
+import com.example.transferprojekt.dataclasses.KgAmount;
+import com.example.transferprojekt.dataclasses.SupplierNumber;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Ranges, series and supplier attribution of the prefix sums, built in memory for March 2025
+ * (1 March is a Saturday). Needs no database.
+ */
+class DeliveryPrefixSumsTests {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 3, 1);
+    private static final LocalDate LAST_DAY = LocalDate.of(2025, 3, 31);
+    private static final int HANDED_OVER_NR = 7;
+    private static final int OTHER_NR = 8;
+
+    private final DeliveryPrefixSums sums = DeliveryPrefixSums.builder(FIRST_DAY, LAST_DAY)
+            .add(HANDED_OVER_NR, epochDay(1), 1, 10_000)
+            .add(HANDED_OVER_NR, epochDay(5), 2, 10_000)
+            .add(OTHER_NR, epochDay(10), 1, 3_000)
+            .add(HANDED_OVER_NR, epochDay(20), 1, 2_550)
+            .add(HANDED_OVER_NR, epochDay(31), 1, 1_000)
+            .build();
+
+    @Test
+    void rangesAreClampedToTheCoveredPeriod() {
+        assertStatistics(6, 26_550, sums.getStatistics(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 4, 30)));
+        assertStatistics(1, 10_000, sums.getStatistics(LocalDate.of(2025, 2, 1), FIRST_DAY));
+        assertStatistics(1, 1_000, sums.getStatistics(LAST_DAY, LocalDate.of(2025, 4, 30)));
+        assertStatistics(3, 20_000, sums.getStatistics(FIRST_DAY, LocalDate.of(2025, 3, 9)));
+
+        assertStatistics(0, 0, sums.getStatistics(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 28)));
+        assertStatistics(0, 0, sums.getStatistics(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 30)));
+        assertStatistics(0, 0, sums.getStatistics(march(20), march(10)));
+    }
+
+    @Test
+    void weekBucketsAreCutToThePeriod() {
+        // 2 March is a Sunday: the first week starts on Monday 24 February but only covers 2 March,
+        // the last one covers 24 to 30 March, so the deliveries of 1 and 31 March are outside
+        Map<LocalDate, DeliveryStatistics> series = sums.getSeries(march(2), march(30),
+                DeliveryPrefixSums.Granularity.WEEK, null);
+
+        assertEquals(List.of(LocalDate.of(2025, 2, 24), march(3), march(10), march(17), march(24)), List.copyOf(series.keySet()));
+        assertStatistics(0, 0, series.get(LocalDate.of(2025, 2, 24)));
+        assertStatistics(2, 10_000, series.get(march(3)));
+        assertStatistics(1, 3_000, series.get(march(10)));
+        assertStatistics(1, 2_550, series.get(march(17)));
+        assertStatistics(0, 0, series.get(march(24)));
+    }
+
+    @Test
+    void monthBucketsAreCutToThePeriod() {
+        Map<LocalDate, DeliveryStatistics> series = sums.getSeries(march(5), LocalDate.of(2025, 4, 10),
+                DeliveryPrefixSums.Granularity.MONTH, null);
+
+        assertEquals(List.of(FIRST_DAY, LocalDate.of(2025, 4, 1)), List.copyOf(series.keySet()));
+        assertStatistics(5, 16_550, series.get(FIRST_DAY));
+        assertStatistics(0, 0, series.get(LocalDate.of(2025, 4, 1)));
+    }
+
+    @Test
+    void handedOverNumberIsSplitAtTheHandover() {
+        // Handed over on a delivery day: 19 March is the last day of the first assignment
+        List<Assignment> previous = List.of(assignment(HANDED_OVER_NR, FIRST_DAY, march(19)));
+        List<Assignment> next = List.of(assignment(HANDED_OVER_NR, march(20), null),
+                assignment(9, FIRST_DAY, null)); // number without deliveries
+
+        assertStatistics(3, 20_000, sums.getStatistics(FIRST_DAY, LAST_DAY, previous));
+        assertStatistics(2, 3_550, sums.getStatistics(FIRST_DAY, LAST_DAY, next));
+        assertStatistics(1, 2_550, sums.getStatistics(FIRST_DAY, march(30), next));
+
+        // The assignment is clamped to the requested period
+        assertStatistics(2, 10_000, sums.getStatistics(march(3), LAST_DAY, previous));
+
+        Map<LocalDate, DeliveryStatistics> series = sums.getSeries(FIRST_DAY, LAST_DAY,
+                DeliveryPrefixSums.Granularity.MONTH, previous);
+        assertStatistics(3, 20_000, series.get(FIRST_DAY));
+    }
+
+    @Test
+    void addOutsideOfThePeriodIsRejected() {
+        DeliveryPrefixSums.Builder builder = DeliveryPrefixSums.builder(FIRST_DAY, LAST_DAY);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.add(HANDED_OVER_NR, FIRST_DAY.minusDays(1).toEpochDay(), 1, 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.add(HANDED_OVER_NR, LAST_DAY.plusDays(1).toEpochDay(), 1, 100));
+
+        builder.add(HANDED_OVER_NR, FIRST_DAY.toEpochDay(), 1, 100)
+                .add(HANDED_OVER_NR, LAST_DAY.toEpochDay(), 1, 100);
+        assertStatistics(2, 200, builder.build().getStatistics(FIRST_DAY, LAST_DAY));
+    }
+
+    private static LocalDate march(int dayOfMonth) {
+        return FIRST_DAY.withDayOfMonth(dayOfMonth);
+    }
+
+    private static long epochDay(int dayOfMonth) {
+        return march(dayOfMonth).toEpochDay();
+    }
+
+    private static Assignment assignment(int supplierNr, LocalDate validFrom, LocalDate validTo) {
+        return new Assignment(UUID.randomUUID(), UUID.randomUUID(), new SupplierNumber(supplierNr), validFrom, validTo);
+    }
+
+    private static void assertStatistics(long count, long hundredths, DeliveryStatistics statistics) {
+        assertEquals(count, statistics.getDeliveryCount());
+        assertEquals(KgAmount.ofHundredths(hundredths), statistics.getTotalAmount());
+    }
+}
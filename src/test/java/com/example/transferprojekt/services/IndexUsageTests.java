@@ -0,0 +1,155 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.jpa.repositories.AssignmentRepository;
+import com.example.transferprojekt.jpa.repositories.MilkDeliveryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The hot queries must be planned on the indexes of V5__indizes.sql and V6__zuweisung_ueberschneidung.sql
+ * and only read the monthly partitions of their period (V7__milchlieferung_partitionen.sql).
+ * Runs EXPLAIN against the local database after seeding a realistic volume
+ * (two years of deliveries of 100 supplier numbers, monthly reassignments);
+ * the data is inserted in the test transaction and rolled back afterwards.
+ * The statements are the ones the application sends: repository queries are captured from Hibernate
+ * ({@link SqlCapture}), JDBC queries are shared constants of their service.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.transferprojekt.services.SqlCapture")
+@Transactional
+class IndexUsageTests {
+
+    // Far away from real and test data, so existing rows do not influence the plans
+    private static final int FIRST_NR = 900_001;
+    private static final int LAST_NR = 900_100;
+
+    // Names of the monthly partitions (and the default partition) of milchlieferung in a plan
+    private static final Pattern PARTITION = Pattern.compile("milchlieferung_(\\d{4}_\\d{2}|default)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MilkDeliveryRepository milkDeliveryRepository;
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+
+    @Autowired
+    private DeliveryRollupService deliveryRollupService;
+
+    @BeforeEach
+    void seed() {
+        UUID supplierId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO lieferant (lieferant_id, name) VALUES (?, 'Index Test')", supplierId);
+        jdbcTemplate.update("INSERT INTO lieferantennummer (lieferant_nr) SELECT generate_series(?, ?)", FIRST_NR, LAST_NR);
+        jdbcTemplate.update("""
+                INSERT INTO zuweisung (lieferant_nr, lieferant_id, zugewiesen_ab, zugewiesen_bis)
+                SELECT nr, ?, DATE '1900-01-01' + m * 30, DATE '1900-01-01' + m * 30 + 29
+                FROM generate_series(?, ?) nr, generate_series(0, 119) m
+                """, supplierId, FIRST_NR, LAST_NR);
+        jdbcTemplate.queryForList("""
+                SELECT milchlieferung_partition_erstellen(m::date)
+                FROM generate_series(DATE '1900-01-01', DATE '1901-12-01', INTERVAL '1 month') m
+                """);
+        // Inserted in date order like the daily collection
+        jdbcTemplate.update("""
+                INSERT INTO milchlieferung (lieferant_nr, datum, zeitfenster, menge_kg)
+                SELECT nr, d::date, w, 250.00
+                FROM generate_series(DATE '1900-01-01', DATE '1901-12-31', INTERVAL '1 day') d,
+                     generate_series(?, ?) nr,
+                     (VALUES ('MORGEN'), ('ABEND')) t(w)
+                ORDER BY d, nr
+                """, FIRST_NR, LAST_NR);
+        deliveryRollupService.addFromQuery("""
+                SELECT lieferant_nr, datum, zeitfenster, menge_kg FROM milchlieferung
+                WHERE lieferant_nr BETWEEN %d AND %d
+                """.formatted(FIRST_NR, LAST_NR));
+        jdbcTemplate.execute("ANALYZE milchlieferung");
+        jdbcTemplate.execute("ANALYZE milchlieferung_tag");
+        jdbcTemplate.execute("ANALYZE zuweisung");
+    }
+
+    @Test
+    void settlementPartitionReadsRollupByIndex() {
+        // Rows of the month and number range of one partition, the planner may use the primary key or the datum index
+        assertUsesIndex("pk_milchlieferung_tag|ix_milchlieferung_tag_datum", SettlementService.PARTITION_DELIVERIES,
+                900_000, 900_499, Date.valueOf("1901-03-01"), Date.valueOf("1901-03-31"));
+    }
+
+    @Test
+    void deliveryExportOfPeriodPrunesPartitions() {
+        String sql = SqlCapture.capture(() -> consume(milkDeliveryRepository.streamForExport(
+                LocalDate.of(1901, 2, 20), LocalDate.of(1901, 3, 7))));
+
+        assertReadsPartitions(sql, List.of(Date.valueOf("1901-02-20"), Date.valueOf("1901-03-07")),
+                "milchlieferung_1901_02", "milchlieferung_1901_03");
+    }
+
+    @Test
+    void activeAssignmentUsesExclusionConstraintIndex() {
+        String sql = SqlCapture.capture(() -> assignmentRepository.findActiveAssignmentId(900_050, LocalDate.of(1901, 3, 15)));
+
+        assertUsesIndex("ex_zuweisung_lieferant_nr_gueltig", sql, 900_050, Date.valueOf("1901-03-15"));
+    }
+
+    @Test
+    void exportWithSupplierFindsAssignmentsByIndex() {
+        String sql = SqlCapture.capture(() -> consume(milkDeliveryRepository.streamForExportWithSupplier(
+                LocalDate.of(1901, 3, 15), LocalDate.of(1901, 3, 15))));
+        List<Object> period = List.of(Date.valueOf("1901-03-15"), Date.valueOf("1901-03-15"));
+
+        assertReadsPartitions(sql, period, "milchlieferung_1901_03");
+        // On a large zuweisung table the join runs as nested loop; on this seed the planner would rather hash
+        // the whole table, so the other join types are disabled for the rest of the test transaction.
+        // The planner may use the btree or the GiST index of the exclusion constraint.
+        jdbcTemplate.execute("SET LOCAL enable_hashjoin = off");
+        jdbcTemplate.execute("SET LOCAL enable_mergejoin = off");
+        assertUsesIndex("ix_zuweisung_lieferant_nr_zugewiesen_ab|ex_zuweisung_lieferant_nr_gueltig", sql, period.toArray());
+    }
+
+    private void assertReadsPartitions(String sql, List<Object> parameters, String... partitions) {
+        Set<String> read = new TreeSet<>();
+        Matcher matcher = PARTITION.matcher(explain(sql, parameters.toArray()));
+        while (matcher.find()) {
+            read.add(matcher.group());
+        }
+        assertEquals(new TreeSet<>(Set.of(partitions)), read);
+    }
+
+    /* indexNames: alternatives separated by | */
+    private void assertUsesIndex(String indexNames, String sql, Object... parameters) {
+        String plan = explain(sql, parameters);
+        assertTrue(Arrays.stream(indexNames.split("\\|")).anyMatch(plan::contains),
+                "Expected " + indexNames + " in plan:\n" + plan);
+    }
+
+    /* The statement is planned with the bound parameters, like a first execution of the application */
+    private String explain(String sql, Object... parameters) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters));
+    }
+
+    private static void consume(Stream<?> rows) {
+        try (rows) {
+            rows.forEach(row -> { });
+        }
+    }
+}
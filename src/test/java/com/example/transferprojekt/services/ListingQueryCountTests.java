@@ -0,0 +1,74 @@
+package com.example.transferprojekt.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Every listing must be served by exactly one SQL statement, independent of the row count.
+ * Test data is inserted in the test transaction and rolled back afterwards.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class ListingQueryCountTests {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestdataService testdataService;
+
+    @Autowired
+    private MilkDeliveryService milkDeliveryService;
+
+    @Autowired
+    private AssignmentService assignmentService;
+
+    @Autowired
+    private SupplierService supplierService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void insertTestdata() {
+        testdataService.insertTestdata();
+
+        // Empty persistence context and caches, so every listing really hits the database
+        entityManager.flush();
+        entityManager.clear();
+        supplierService.invalidateCache();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void milkDeliveryListingUsesOneStatement() {
+        assertFalse(milkDeliveryService.getDatabaseEntries().isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void assignmentListingUsesOneStatement() {
+        assertFalse(assignmentService.getDatabaseEntries().isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void supplierListingUsesOneStatement() {
+        assertFalse(supplierService.getDatabaseEntries().isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.MilkDelivery;
+import com.example.transferprojekt.dataclasses.SupplierNumber;
+import com.example.transferprojekt.enumerations.TimeWindow;
+import com.example.transferprojekt.jpa.entities.MilkDeliveryEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Amounts with more than two decimals (dialog, import) are rounded half up like the DECIMAL(10,2) column,
+ * in the delivery as well as in the daily rollup. Rows are rolled back after each test.
+ */
+@SpringBootTest
+@Transactional
+class MilkDeliveryAmountTests {
+
+    private static final SupplierNumber SUPPLIER_NR = new SupplierNumber(900_301);
+    private static final LocalDate DATE = LocalDate.of(1999, 6, 15);
+
+    @Autowired
+    private MilkDeliveryService milkDeliveryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void saveRoundsThreeDecimalAmount() {
+        MilkDeliveryEntity saved = milkDeliveryService.save(
+                new MilkDelivery(new BigDecimal("150.555"), DATE, SUPPLIER_NR, TimeWindow.MORGEN));
+
+        assertEquals(new BigDecimal("150.56"), saved.getAmountKg());
+        assertEquals(new BigDecimal("150.56"), rollupAmount(TimeWindow.MORGEN));
+    }
+
+    @Test
+    void saveAllRoundsThreeDecimalAmounts() {
+        milkDeliveryService.saveAll(List.of(
+                new MilkDelivery(new BigDecimal("10.005"), DATE, SUPPLIER_NR, TimeWindow.ABEND),
+                new MilkDelivery(new BigDecimal("20.004"), DATE, SUPPLIER_NR, TimeWindow.ABEND)));
+
+        BigDecimal stored = jdbcTemplate.queryForObject(
+                "SELECT SUM(menge_kg) FROM milchlieferung WHERE lieferant_nr = ? AND datum = ?",
+                BigDecimal.class, SUPPLIER_NR.getId(), DATE);
+        assertEquals(new BigDecimal("30.01"), stored);
+        assertEquals(stored, rollupAmount(TimeWindow.ABEND));
+    }
+
+    private BigDecimal rollupAmount(TimeWindow timeWindow) {
+        return jdbcTemplate.queryForObject(
+                "SELECT menge_kg FROM milchlieferung_tag WHERE lieferant_nr = ? AND datum = ? AND zeitfenster = ?",
+                BigDecimal.class, SUPPLIER_NR.getId(), DATE, timeWindow.name());
+    }
+}
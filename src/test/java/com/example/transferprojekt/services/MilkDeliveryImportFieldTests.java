@@ -0,0 +1,38 @@
+package com.example.transferprojekt.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Splitting of scale CSV lines before COPY: decimal comma with ';' as separator and
+ * quoted fields containing the separator. Needs no database.
+ */
+class MilkDeliveryImportFieldTests {
+
+    @Test
+    void semicolonLineWithDecimalCommaIsConvertedToDecimalPoint() {
+        assertEquals(List.of("4711", "2025-03-01", "MORGEN", "150.50"),
+                MilkDeliveryImportService.splitFields("4711;01.03.2025;MORGEN;150,50"));
+    }
+
+    @Test
+    void commaLineKeepsDecimalPoint() {
+        assertEquals(List.of("4711", "2025-03-01", "ABEND", "150.50"),
+                MilkDeliveryImportService.splitFields("4711,2025-03-01,ABEND,150.50"));
+    }
+
+    @Test
+    void quotedFieldKeepsSeparator() {
+        assertEquals(List.of("4711", "2025-03-01", "MORGEN", "150.50"),
+                MilkDeliveryImportService.splitFields("\"4711\",\"2025-03-01\",\"MORGEN\",\"150.50\""));
+        assertEquals(List.of("4711", "2025-03-01", "MORGEN", "150.50"),
+                MilkDeliveryImportService.splitFields("\"4711\";\"01.03.2025\";\"MORGEN\";\"150,50\""));
+
+        // The separator inside quotes neither splits the field nor decides the separator of the line
+        List<String> fields = MilkDeliveryImportService.splitFields("\"Hof; Meier\",01.03.2025,\"MORGEN, \"\"spät\"\"\",12.5");
+        assertEquals(List.of("Hof; Meier", "2025-03-01", "MORGEN, \"spät\"", "12.5"), fields);
+    }
+}
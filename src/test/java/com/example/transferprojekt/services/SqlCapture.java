@@ -0,0 +1,34 @@
+package com.example.transferprojekt.services;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate sends, so tests can EXPLAIN the statements generated from the repository queries.
+ * Enabled with hibernate.session_factory.statement_inspector.
+ */
+public class SqlCapture implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+
+    /**
+     * Runs a repository call and returns the last statement it sent
+     */
+    public static String capture(Runnable call) {
+        STATEMENTS.get().clear();
+        call.run();
+        List<String> statements = STATEMENTS.get();
+        if (statements.isEmpty()) {
+            throw new IllegalStateException("No statement was sent");
+        }
+        return statements.getLast();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.transferprojekt.services;
+
+import com.example.transferprojekt.dataclasses.Assignment;
+import com.example.transferprojekt.dataclasses.DeliveryStatistics;
+import com.example.transferprojekt.dataclasses.MilkDelivery;
+import com.example.transferprojekt.dataclasses.SupplierDeliveryStatistics;
+import com.example.transferprojekt.dataclasses.SupplierNumber;
+import com.example.transferprojekt.enumerations.TimeWindow;
+import com.example.transferprojekt.jpa.repositories.AssignmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Statistics on the daily rollup: a supplier number handed over to another supplier counts for each
+ * supplier only within its assignment, and the dashboard's prefix sums of a period match the database
+ * aggregates. Rows are rolled back after each test.
+ */
+@SpringBootTest
+@Transactional
+class SupplierStatisticsTests {
+
+    private static final SupplierNumber SUPPLIER_NR = new SupplierNumber(900_401);
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private MilkDeliveryService milkDeliveryService;
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void handedOverNumberIsSplitBetweenSuppliers() {
+        insertSupplierNumber();
+        save("10.00", LocalDate.of(1999, 1, 15));
+        save("20.00", LocalDate.of(1999, 2, 15));
+        save("5.00", LocalDate.of(1999, 3, 1));
+
+        UUID previous = insertSupplier("Hof Vorher");
+        UUID next = insertSupplier("Hof Nachher");
+        insertAssignment(previous, LocalDate.of(1999, 1, 1), LocalDate.of(1999, 1, 31));
+        insertAssignment(next, LocalDate.of(1999, 2, 1), null);
+
+        Map<UUID, SupplierDeliveryStatistics> statistics = statisticsService.getDeliveryStatisticsBySupplier(
+                LocalDate.of(1999, 1, 1), LocalDate.of(1999, 2, 28));
+
+        assertEquals(1, statistics.get(previous).getDeliveryCount());
+        assertEquals(new BigDecimal("10.00"), statistics.get(previous).getTotalAmountKg());
+        assertEquals(1, statistics.get(next).getDeliveryCount());
+        assertEquals(new BigDecimal("20.00"), statistics.get(next).getTotalAmountKg());
+
+        // Each entry matches the single supplier query
+        assertEquals(statistics.get(next).getTotalAmountKg(), statisticsService.getDeliveryStatistics(
+                LocalDate.of(1999, 1, 1), LocalDate.of(1999, 2, 28), next).getTotalAmountKg());
+    }
+
+    @Test
+    void suppliersWithoutDeliveriesInPeriodAreMissing() {
+        insertSupplierNumber();
+        save("10.00", LocalDate.of(1999, 1, 15));
+        UUID supplier = insertSupplier("Hof Leer");
+        insertAssignment(supplier, LocalDate.of(1999, 1, 1), null);
+
+        Map<UUID, SupplierDeliveryStatistics> statistics = statisticsService.getDeliveryStatisticsBySupplier(
+                LocalDate.of(1999, 2, 1), LocalDate.of(1999, 2, 28));
+
+        assertFalse(statistics.containsKey(supplier));
+    }
+
+    @Test
+    void periodSumsMatchDatabaseAggregates() {
+        insertSupplierNumber();
+        save("10.00", LocalDate.of(1999, 1, 15));
+        save("20.00", LocalDate.of(1999, 2, 15));
+        UUID supplier = insertSupplier("Hof Summe");
+        insertAssignment(supplier, LocalDate.of(1999, 2, 1), null);
+
+        LocalDate fromDate = LocalDate.of(1999, 1, 1);
+        LocalDate toDate = LocalDate.of(1999, 12, 31);
+        DeliveryPrefixSums sums = statisticsService.loadDeliverySums(fromDate, toDate);
+        List<Assignment> assignments = new AssignmentIndex(assignmentRepository.findAllAsDataclass()).findBySupplier(supplier);
+
+        DeliveryStatistics all = statisticsService.getDeliveryStatistics(fromDate, toDate);
+        assertEquals(all.getDeliveryCount(), sums.getStatistics(fromDate, toDate).getDeliveryCount());
+        assertEquals(all.getTotalAmount(), sums.getStatistics(fromDate, toDate).getTotalAmount());
+        assertEquals(new BigDecimal("20.00"), sums.getStatistics(fromDate, toDate, assignments).getTotalAmountKg());
+        assertEquals(statisticsService.getDeliveryStatistics(fromDate, toDate, supplier).getTotalAmount(),
+                sums.getStatistics(fromDate, toDate, assignments).getTotalAmount());
+    }
+
+    // Written with JDBC like the assignments, so it exists before they reference it
+    private void insertSupplierNumber() {
+        jdbcTemplate.update("INSERT INTO lieferantennummer (lieferant_nr) VALUES (?) ON CONFLICT DO NOTHING", SUPPLIER_NR.getId());
+    }
+
+    private void save(String amountKg, LocalDate date) {
+        milkDeliveryService.save(new MilkDelivery(new BigDecimal(amountKg), date, SUPPLIER_NR, TimeWindow.MORGEN));
+    }
+
+    private UUID insertSupplier(String name) {
+        return jdbcTemplate.queryForObject("INSERT INTO lieferant (name) VALUES (?) RETURNING lieferant_id", UUID.class, name);
+    }
+
+    private void insertAssignment(UUID supplierId, LocalDate from, LocalDate to) {
+        jdbcTemplate.update("""
+                INSERT INTO zuweisung (lieferant_nr, lieferant_id, zugewiesen_ab, zugewiesen_bis)
+                VALUES (?, ?, ?, ?)
+                """, SUPPLIER_NR.getId(), supplierId, from, to);
+    }
+}